@@ -46,6 +46,7 @@ import {
   SuggestionSkeleton,
 } from "@/components/loading-skeletons";
 import { SharePostDialog } from "@/components/share-post-dialog";
+import { PostComments } from "@/components/post-comments";
 
 // API Imports
 import {
@@ -59,7 +60,7 @@ import {
   getAcceptedConnections,
   UserProfileDetailResponse,
   createPost,
-  getPostsByProfession,
+  getFeedPage,
   deletePost,
   toggleLike,
   addComment,
@@ -189,6 +190,9 @@ export default function HomePage() {
   // Loading State
   const [membersLoading, setMembersLoading] = useState(true);
   const [postsLoading, setPostsLoading] = useState(true);
+  const [feedCursor, setFeedCursor] = useState<string | null>(null);
+  const [feedHasMore, setFeedHasMore] = useState(false);
+  const [feedLoadingMore, setFeedLoadingMore] = useState(false);
   const [authLoading, setAuthLoading] = useState(true);
 
   // Action State
@@ -336,10 +340,13 @@ export default function HomePage() {
     );
   };
 
+  // Reloads the first page of the feed; older posts come in through loadMorePosts
   const fetchPosts = async (profession: string, userId: number) => {
     try {
-      const p = await getPostsByProfession(profession, userId);
-      setPosts(p);
+      const page = await getFeedPage(profession, userId);
+      setPosts(page.items);
+      setFeedCursor(page.nextCursor);
+      setFeedHasMore(page.hasMore);
     } catch (e) {
       console.error(e);
     } finally {
@@ -347,6 +354,26 @@ export default function HomePage() {
     }
   };
 
+  const loadMorePosts = async () => {
+    if (!currentUser || !feedCursor || feedLoadingMore) return;
+    setFeedLoadingMore(true);
+    try {
+      const page = await getFeedPage(currentUser.profession, currentUser.id, feedCursor);
+      // Posts pushed over the WebSocket may already be on screen
+      setPosts((prev) => [
+        ...prev,
+        ...page.items.filter((p) => !prev.some((existing) => existing.id === p.id)),
+      ]);
+      setFeedCursor(page.nextCursor);
+      setFeedHasMore(page.hasMore);
+    } catch (e) {
+      console.error(e);
+      toast.error("Failed to load more posts");
+    } finally {
+      setFeedLoadingMore(false);
+    }
+  };
+
   const fetchUnreadMessageCount = async (userId: number) => {
     try {
       const count = await getUnreadMessageCount(userId);
@@ -612,8 +639,12 @@ export default function HomePage() {
       } else if (topic.includes("/connections/")) {
         if (currentUser?.id) {
           fetchPendingRequests(currentUser.id);
-          fetchUnreadNotificationCount(currentUser.id);
         }
+      } else if (topic.endsWith("/unread-count")) {
+        const { count } = message as { count: number };
+        setCurrentUser((prev) =>
+          prev ? { ...prev, unreadNotificationCount: count } : null
+        );
       }
     },
     [currentUser?.id]
@@ -624,6 +655,7 @@ export default function HomePage() {
         `/topic/posts/${currentUser.community}`,
         `/topic/posts/${currentUser.community}/update`,
         `/topic/connections/${currentUser.id}`,
+        `/queue/notifications/${currentUser.id}/unread-count`,
       ]
     : [];
 
@@ -948,30 +980,11 @@ export default function HomePage() {
                           />
                         </div>
 
-                        {post.comments.length > 0 && (
-                          <div className="bg-muted/50 rounded-xl p-3 mt-3 space-y-3 border border-border">
-                            {post.comments.map((c) => (
-                              <div key={c.id} className="flex gap-2 text-sm">
-                                <Avatar className="w-6 h-6 mt-1">
-                                  <AvatarImage
-                                    src={getImageUrl(c.user.profileImageUrl)}
-                                  />
-                                  <AvatarFallback className="text-[10px]">
-                                    {getInitial(c.user.name)}
-                                  </AvatarFallback>
-                                </Avatar>
-                                <div className="bg-card p-2 px-3 rounded-lg shadow-sm border border-border flex-1">
-                                  <span className="font-semibold text-card-foreground text-xs block mb-0.5">
-                                    {c.user.name}
-                                  </span>
-                                  <span className="text-foreground">
-                                    {c.content}
-                                  </span>
-                                </div>
-                              </div>
-                            ))}
-                          </div>
-                        )}
+                        <PostComments
+                          postId={post.id}
+                          comments={post.comments}
+                          commentsCount={post.commentsCount}
+                        />
 
                         {commentingOnPost === post.id && (
                           <div className="flex gap-2 mt-3 animate-in fade-in slide-in-from-top-2">
@@ -1003,6 +1016,17 @@ export default function HomePage() {
                 })}
               </StaggerContainer>
             )}
+            {!postsLoading && feedHasMore && (
+              <div className="flex justify-center">
+                <Button
+                  variant="outline"
+                  onClick={loadMorePosts}
+                  disabled={feedLoadingMore}
+                >
+                  {feedLoadingMore ? "Loading..." : "Load more posts"}
+                </Button>
+              </div>
+            )}
           </div>
         </section>
 
@@ -30,14 +30,18 @@ import {
 // API
 import {
     getConversations,
-    getConversation,
+    getConversationPage,
+    getOnlineConnections,
     sendMessage,
     markMessagesAsRead,
     deleteMessage,
     uploadMessageImage,
     ConversationResponse,
+    MessageAck,
     MessageResponse,
     LoginResponse,
+    PresenceUpdate,
+    applyPresenceUpdates,
 } from "@/lib/api";
 
 // Utils
@@ -114,11 +118,19 @@ export default function MessagesPage() {
     const [conversations, setConversations] = useState<ConversationResponse[]>([]);
     const [selectedConversation, setSelectedConversation] = useState<ConversationResponse | null>(null);
     const [messages, setMessages] = useState<MessageResponse[]>([]);
+    // Latest messages for WebSocket callbacks, which otherwise see the state of their first render
+    const messagesRef = useRef<MessageResponse[]>([]);
     const [messageInput, setMessageInput] = useState("");
     const [searchQuery, setSearchQuery] = useState("");
     const [loading, setLoading] = useState(true);
     const [stompClient, setStompClient] = useState<Client | null>(null);
     const messagesEndRef = useRef<HTMLDivElement>(null);
+    const messagesContainerRef = useRef<HTMLDivElement>(null);
+    // Cursor for the next older page of the open conversation (null once the start is reached)
+    const [olderCursor, setOlderCursor] = useState<string | null>(null);
+    const [loadingOlder, setLoadingOlder] = useState(false);
+    // Set while prepending older messages so the view stays put instead of jumping to the bottom
+    const prependScrollHeightRef = useRef<number | null>(null);
     const selectedConversationRef = useRef<ConversationResponse | null>(null);
     const [unreadCount, setUnreadCount] = useState(0);
     const [deleteDialogOpen, setDeleteDialogOpen] = useState(false);
@@ -141,6 +153,13 @@ export default function MessagesPage() {
     };
 
     useEffect(() => {
+        messagesRef.current = messages;
+        const container = messagesContainerRef.current;
+        if (prependScrollHeightRef.current !== null && container) {
+            container.scrollTop = container.scrollHeight - prependScrollHeightRef.current;
+            prependScrollHeightRef.current = null;
+            return;
+        }
         scrollToBottom();
     }, [messages]);
 
@@ -161,13 +180,14 @@ export default function MessagesPage() {
         };
     }, [showEmojiPicker]);
 
-    // Fetch Online Status API
-    const fetchOnlineStatus = async () => {
+    // Fetch Online Status API (my connections only; unchanged polls are 304s)
+    const onlineEtagRef = useRef<string | null>(null);
+    const fetchOnlineStatus = async (userId: number) => {
         try {
-            const response = await fetch("http://localhost:8080/api/users/online-status");
-            if (response.ok) {
-                const data = await response.json();
-                setOnlineUsers(new Set(data));
+            const snapshot = await getOnlineConnections(userId, onlineEtagRef.current);
+            if (snapshot) {
+                onlineEtagRef.current = snapshot.etag;
+                setOnlineUsers(new Set(snapshot.onlineIds));
             }
         } catch (error) {
             console.error("Failed to fetch online status", error);
@@ -195,10 +215,10 @@ export default function MessagesPage() {
             loadConversations(user.id);
             
             // 1. Initial Fetch
-            fetchOnlineStatus();
+            fetchOnlineStatus(user.id);
 
             // 2. Poll every 5 seconds (Backup mechanism)
-            const interval = setInterval(fetchOnlineStatus, 5000);
+            const interval = setInterval(() => fetchOnlineStatus(user.id), 5000);
             return () => clearInterval(interval);
 
         } catch (error) {
@@ -248,10 +268,13 @@ export default function MessagesPage() {
             client.subscribe(`/queue/read/${currentUser.id}`, (message) => {
                 const body = JSON.parse(message.body);
                 const readerId = typeof body === 'number' ? body : body.readerId;
-                
+                // High-water mark: everything up to this id was read (absent on older servers)
+                const lastReadMessageId: number | null = typeof body === 'object' ? body.lastReadMessageId ?? null : null;
+
                 setMessages((prev) =>
                     prev.map((msg) =>
                         msg.senderId === currentUser.id && msg.receiverId === readerId
+                            && (lastReadMessageId === null || msg.id <= lastReadMessageId)
                             ? { ...msg, isRead: true }
                             : msg
                     )
@@ -259,6 +282,30 @@ export default function MessagesPage() {
                 loadConversations(currentUser.id!);
             });
 
+            // 2b. Write-behind acks: attach the stored id, or resend if the server gave up
+            client.subscribe(`/queue/messages/ack/${currentUser.id}`, (message) => {
+                const ack: MessageAck = JSON.parse(message.body);
+                if (ack.status === 'PERSISTED' && ack.messageId !== null) {
+                    setMessages((prev) =>
+                        prev.map((msg) =>
+                            msg.clientMessageId === ack.clientMessageId ? { ...msg, id: ack.messageId as number } : msg
+                        )
+                    );
+                    return;
+                }
+                // The resend is pushed back like a new message, so drop the unsaved copy first
+                const failed = messagesRef.current.find((msg) => msg.clientMessageId === ack.clientMessageId);
+                setMessages((prev) => prev.filter((msg) => msg.clientMessageId !== ack.clientMessageId));
+                if (failed && failed.senderId === currentUser.id) {
+                    sendMessage({
+                        senderId: failed.senderId,
+                        receiverId: failed.receiverId,
+                        content: failed.content,
+                        clientMessageId: failed.clientMessageId,
+                    }).catch(() => toast.error("Failed to send message"));
+                }
+            });
+
             // 3. Listen for Deletions
             client.subscribe(`/queue/delete/${currentUser.id}`, (message) => {
                 const deletedMessageId = parseInt(message.body);
@@ -266,29 +313,11 @@ export default function MessagesPage() {
                 loadConversations(currentUser.id!);
             });
 
-            // 4. Listen for Online Status Updates
-            client.subscribe(`/topic/online-status`, (message) => {
+            // 4. Listen for presence changes of my connections (batched)
+            client.subscribe(`/queue/presence/${currentUser.id}`, (message) => {
                 try {
-                    const body = JSON.parse(message.body);
-                    let userId: number;
-                    let status: string = 'ONLINE';
-
-                    if (typeof body === 'object' && body !== null) {
-                        userId = Number(body.userId);
-                        status = body.status;
-                    } else {
-                        userId = Number(body);
-                    }
-
-                    setOnlineUsers(prev => {
-                        const newSet = new Set(prev);
-                        if (status === 'ONLINE') {
-                            newSet.add(userId);
-                        } else {
-                            newSet.delete(userId);
-                        }
-                        return newSet;
-                    });
+                    const updates: PresenceUpdate[] = JSON.parse(message.body);
+                    setOnlineUsers(prev => applyPresenceUpdates(prev, updates));
                 } catch (e) {
                     console.error("Error parsing online status", e);
                 }
@@ -324,8 +353,9 @@ export default function MessagesPage() {
         selectedConversationRef.current = conversation;
         
         try {
-            const msgs = await getConversation(currentUser.id, conversation.userId);
-            setMessages(msgs);
+            const page = await getConversationPage(currentUser.id, conversation.userId);
+            setMessages(page.items);
+            setOlderCursor(page.hasMore ? page.nextCursor : null);
             await markMessagesAsRead(currentUser.id, conversation.userId);
             loadConversations(currentUser.id);
         } catch (error) {
@@ -334,6 +364,31 @@ export default function MessagesPage() {
         }
     };
 
+    // Scrolling near the top pulls in the previous page of history
+    const loadOlderMessages = async () => {
+        const conversation = selectedConversationRef.current;
+        if (!currentUser?.id || !conversation || !olderCursor || loadingOlder) return;
+
+        setLoadingOlder(true);
+        try {
+            const page = await getConversationPage(currentUser.id, conversation.userId, olderCursor);
+            if (selectedConversationRef.current?.userId !== conversation.userId) return;
+            prependScrollHeightRef.current = messagesContainerRef.current?.scrollHeight ?? null;
+            setMessages((prev) => [...page.items, ...prev]);
+            setOlderCursor(page.hasMore ? page.nextCursor : null);
+        } catch (error) {
+            console.error("Failed to load older messages:", error);
+        } finally {
+            setLoadingOlder(false);
+        }
+    };
+
+    const handleMessagesScroll = (event: React.UIEvent<HTMLDivElement>) => {
+        if (event.currentTarget.scrollTop < 80) {
+            loadOlderMessages();
+        }
+    };
+
     const handleSendMessage = async () => {
         if (!messageInput.trim() || !selectedConversation || !currentUser?.id) return;
 
@@ -342,6 +397,7 @@ export default function MessagesPage() {
                 senderId: currentUser.id,
                 receiverId: selectedConversation.userId,
                 content: messageInput.trim(),
+                clientMessageId: crypto.randomUUID(),
             };
             await sendMessage(messageRequest);
             setMessageInput("");
@@ -570,8 +626,17 @@ export default function MessagesPage() {
                                     </div>
                                 </div>
 
-                                <div className="flex-1 p-4 overflow-y-auto bg-muted/20">
+                                <div
+                                    ref={messagesContainerRef}
+                                    onScroll={handleMessagesScroll}
+                                    className="flex-1 p-4 overflow-y-auto bg-muted/20"
+                                >
                                     <div className="space-y-3">
+                                        {loadingOlder && (
+                                            <div className="flex justify-center py-2">
+                                                <Loader2 className="w-4 h-4 animate-spin text-muted-foreground" />
+                                            </div>
+                                        )}
                                         {messages.map((message, index) => {
                                             const isSent = message.senderId === currentUser.id;
                                             const { text, imageUrl } = parseMessageContent(message.content);
@@ -581,7 +646,7 @@ export default function MessagesPage() {
                                             const isGrouped = nextMessage && nextMessage.senderId === message.senderId;
                                             
                                             return (
-                                                <div key={message.id} className={`flex ${isSent ? "justify-end" : "justify-start"} group ${isGrouped ? 'mb-1' : 'mb-3'}`}>
+                                                <div key={message.id ?? message.clientMessageId} className={`flex ${isSent ? "justify-end" : "justify-start"} group ${isGrouped ? 'mb-1' : 'mb-3'}`}>
                                                     <div className={`max-w-[70%] rounded-lg px-4 py-2 relative shadow-sm ${
                                                         isSent 
                                                             ? "bg-gradient-to-br from-primary to-primary/80 text-white rounded-tr-none" 
@@ -35,11 +35,13 @@ import {
   getAcceptedConnections,
   getUsersByProfession,
   getUnreadMessageCount,
-  getUnreadCount
+  getUnreadCount,
+  getOnlineConnections,
+  PresenceUpdate,
+  applyPresenceUpdates
 } from "@/lib/api"
 // <--- 1. IMPORT WEBSOCKET HOOK
 import { useWebSocket } from "@/hooks/useWebSocket" 
-import axios from "axios" // Ensure axios is installed or use fetch
 
 // --- LOCAL TYPE EXTENSIONS ---
 type UserWithImage = UserProfileResponse & { profileImageUrl?: string | null };
@@ -97,10 +99,10 @@ export default function DashboardPage() {
   const router = useRouter()
 
   // <--- 3. FETCH INITIAL ONLINE USERS
-  const fetchOnlineUsers = async () => {
+  const fetchOnlineUsers = async (userId: number) => {
     try {
-      const res = await axios.get<number[]>('http://localhost:8080/api/users/online-status');
-      setOnlineUsers(new Set(res.data));
+      const snapshot = await getOnlineConnections(userId);
+      if (snapshot) setOnlineUsers(new Set(snapshot.onlineIds));
     } catch (error) {
       console.error("Failed to fetch online users", error);
     }
@@ -151,7 +153,7 @@ export default function DashboardPage() {
             fetchUsersByProfession(userProfession),
             fetchUnreadMessageCount(userId),
             fetchUnreadNotificationCount(userId),
-            fetchOnlineUsers() // <--- Fetch initial online list
+            fetchOnlineUsers(userId) // <--- Fetch initial online list
           ]);
           
         } catch (err) {
@@ -170,20 +172,16 @@ export default function DashboardPage() {
   useWebSocket({
     url: 'http://localhost:8080/ws',
     userId: currentUser?.id,
-    topics: ['/topic/online-status'],
+    topics: currentUser?.id
+      ? [`/queue/presence/${currentUser.id}`, `/queue/notifications/${currentUser.id}/unread-count`]
+      : [],
     enabled: !!currentUser?.id,
     onMessage: (topic, message) => {
-      if (topic === '/topic/online-status') {
-        const { userId, status } = message;
-        setOnlineUsers(prev => {
-          const newSet = new Set(prev);
-          if (status === 'ONLINE') {
-            newSet.add(Number(userId));
-          } else {
-            newSet.delete(Number(userId));
-          }
-          return newSet;
-        });
+      if (topic.startsWith('/queue/presence/')) {
+        setOnlineUsers(prev => applyPresenceUpdates(prev, message as PresenceUpdate[]));
+      } else if (topic.endsWith('/unread-count')) {
+        const { count } = message as { count: number };
+        setCurrentUser((prev) => (prev ? { ...prev, unreadNotificationCount: count } : null));
       }
     }
   });
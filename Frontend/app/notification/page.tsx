@@ -1,6 +1,6 @@
 "use client";
 
-import { useState, useEffect } from "react";
+import { useState, useEffect, useCallback, useMemo, useRef } from "react";
 import { useRouter } from "next/navigation";
 import { Card, CardContent } from "@/components/ui/card";
 import { Avatar, AvatarFallback, AvatarImage } from "@/components/ui/avatar";
@@ -9,7 +9,8 @@ import { Badge } from "@/components/ui/badge";
 import { Heart, MessageSquare, UserPlus, Trash2, CheckCheck, Bell } from "lucide-react";
 import toast from "react-hot-toast";
 import { Header } from "@/components/header";
-import { getUnreadMessageCount } from "@/lib/api";
+import { getUnreadMessageCount, getNotificationsSince, getUnreadCount } from "@/lib/api";
+import { useWebSocket } from "@/hooks/useWebSocket";
 
 // API Types
 interface NotificationDTO {
@@ -24,6 +25,8 @@ interface NotificationDTO {
         name: string;
         profileImageUrl?: string;
     };
+    actorCount?: number;   // distinct actors folded into a LIKE/COMMENT notification; message already says "and N others ..."
+    recentActors?: { id: number; name: string; profileImageUrl?: string }[];
 }
 
 interface LoginResponse {
@@ -45,8 +48,17 @@ interface CurrentUser {
 // API Functions (inline to avoid import issues)
 const BASE = process.env.NEXT_PUBLIC_API_BASE ?? "http://localhost:8080/api";
 
-const getNotifications = async (userId: number): Promise<NotificationDTO[]> => {
-    const res = await fetch(`${BASE}/notifications/${userId}`, { cache: "no-store" });
+interface NotificationPage {
+    items: NotificationDTO[];
+    nextCursor: string | null;
+    hasMore: boolean;
+}
+
+// Newest first; pass nextCursor back to load older notifications
+const getNotificationsPage = async (userId: number, cursor?: string | null): Promise<NotificationPage> => {
+    const params = new URLSearchParams();
+    if (cursor) params.set("cursor", cursor);
+    const res = await fetch(`${BASE}/notifications/${userId}/page?${params}`, { cache: "no-store" });
     if (!res.ok) throw new Error("Failed to fetch notifications");
     return res.json();
 };
@@ -79,12 +91,36 @@ const deleteNotification = async (notificationId: number): Promise<string> => {
     return data.message;
 };
 
+// Catch-up position: a folded aggregate keeps its id but is pushed again with a later createdAt
+type NotificationPosition = Pick<NotificationDTO, "createdAt" | "id">;
+
+// "2024-01-01T12:00" / "2024-01-01T12:00:05.12" -> fixed width, so strings compare in time order
+const sortableTime = (createdAt: string) => {
+    const [dateTime, fraction = ""] = createdAt.split(".");
+    return `${dateTime.length === 16 ? `${dateTime}:00` : dateTime}.${fraction.padEnd(9, "0")}`;
+};
+
+const newestPosition = (items: NotificationDTO[], current: NotificationPosition | null): NotificationPosition | null =>
+    items.reduce<NotificationPosition | null>((newest, n) => {
+        if (!newest) return { createdAt: n.createdAt, id: n.id };
+        const a = sortableTime(n.createdAt);
+        const b = sortableTime(newest.createdAt);
+        return a > b || (a === b && n.id > newest.id) ? { createdAt: n.createdAt, id: n.id } : newest;
+    }, current);
+
 export default function NotificationsPage() {
     const [notifications, setNotifications] = useState<NotificationDTO[]>([]);
     const [loading, setLoading] = useState(true);
     const [error, setError] = useState<string | null>(null);
     const [currentUser, setCurrentUser] = useState<CurrentUser | null>(null);
+    const [olderCursor, setOlderCursor] = useState<string | null>(null);
+    const [loadingOlder, setLoadingOlder] = useState(false);
+    // Server-side count: older pages may not be loaded yet
+    const [unreadTotal, setUnreadTotal] = useState<number | null>(null);
     const router = useRouter();
+    // Newest notification on screen by (createdAt, id), null if there is none yet; undefined until
+    // the first load so a connect doesn't refetch everything
+    const lastSeenRef = useRef<NotificationPosition | null | undefined>(undefined);
 
     useEffect(() => {
         console.log("NotificationsPage mounted");
@@ -114,6 +150,7 @@ export default function NotificationsPage() {
 
             fetchNotifications(user.id);
             fetchUnreadCount(user.id);
+            getUnreadCount(user.id).then(setUnreadTotal).catch(console.error);
         } catch (error) {
             console.error("Failed to parse user data:", error);
             sessionStorage.removeItem("user");
@@ -128,9 +165,11 @@ export default function NotificationsPage() {
         setError(null);
         
         try {
-            const data = await getNotifications(userId);
-            console.log("Notifications received:", data);
-            setNotifications(data);
+            const page = await getNotificationsPage(userId);
+            console.log("Notifications received:", page.items);
+            setNotifications(page.items);
+            setOlderCursor(page.hasMore ? page.nextCursor : null);
+            lastSeenRef.current = newestPosition(page.items, null);
         } catch (error) {
             console.error("Error fetching notifications:", error);
             const errorMessage = error instanceof Error ? error.message : "Failed to load notifications";
@@ -141,6 +180,69 @@ export default function NotificationsPage() {
         }
     };
 
+    const loadOlderNotifications = async () => {
+        if (!currentUser || !olderCursor || loadingOlder) return;
+        setLoadingOlder(true);
+        try {
+            const page = await getNotificationsPage(currentUser.id, olderCursor);
+            setNotifications((prev) => {
+                const known = new Set(prev.map((n) => n.id));
+                return [...prev, ...page.items.filter((n) => !known.has(n.id))];
+            });
+            setOlderCursor(page.hasMore ? page.nextCursor : null);
+        } catch (error) {
+            console.error("Error loading older notifications:", error);
+            toast.error("Failed to load older notifications");
+        } finally {
+            setLoadingOlder(false);
+        }
+    };
+
+    // Newest first; an aggregated notification that gained actors is pushed again under the
+    // same id, so it replaces the shown copy and moves to the top
+    const mergeNotifications = useCallback((incoming: NotificationDTO[]) => {
+        if (incoming.length === 0) return;
+        lastSeenRef.current = newestPosition(incoming, lastSeenRef.current ?? null);
+        setNotifications((prev) => {
+            const updated = new Set(incoming.map((n) => n.id));
+            const fresh = [...incoming].sort((a, b) => b.id - a.id);
+            return [...fresh, ...prev.filter((n) => !updated.has(n.id))];
+        });
+    }, []);
+
+    const handleSocketMessage = useCallback((topic: string, message: unknown) => {
+        if (topic.endsWith("/unread-count")) {
+            setUnreadTotal((message as { count: number }).count);
+        } else if (topic.startsWith("/queue/notifications/")) {
+            mergeNotifications([message as NotificationDTO]);
+        }
+    }, [mergeNotifications]);
+
+    const catchUpNotifications = useCallback(async () => {
+        if (!currentUser || lastSeenRef.current === undefined) return;
+        try {
+            mergeNotifications(await getNotificationsSince(currentUser.id, lastSeenRef.current));
+        } catch (e) {
+            console.error(e);
+        }
+    }, [currentUser?.id, mergeNotifications]);
+
+    const notificationTopics = useMemo(
+        () => (currentUser
+            ? [`/queue/notifications/${currentUser.id}`, `/queue/notifications/${currentUser.id}/unread-count`]
+            : []),
+        [currentUser?.id]
+    );
+
+    useWebSocket({
+        url: "http://localhost:8080/ws",
+        userId: currentUser?.id,
+        topics: notificationTopics,
+        enabled: !!currentUser,
+        onMessage: handleSocketMessage,
+        onConnect: catchUpNotifications,
+    });
+
     const fetchUnreadCount = async (userId: number) => {
         try {
             const count = await getUnreadMessageCount(userId);
@@ -213,7 +315,7 @@ export default function NotificationsPage() {
         }
     };
 
-    const unreadCount = notifications.filter((n) => !n.isRead).length;
+    const unreadCount = unreadTotal ?? notifications.filter((n) => !n.isRead).length;
 
     if (loading) {
         return (
@@ -348,6 +450,14 @@ export default function NotificationsPage() {
                         ))
                     )}
                 </div>
+
+                {olderCursor && (
+                    <div className="flex justify-center mt-6">
+                        <Button variant="outline" onClick={loadOlderNotifications} disabled={loadingOlder}>
+                            {loadingOlder ? "Loading..." : "Load older notifications"}
+                        </Button>
+                    </div>
+                )}
             </main>
         </div>
     );
@@ -20,6 +20,7 @@ import {
 } from "@/lib/api";
 import { Badge } from "@/components/ui/badge"
 import { Header } from "@/components/header"
+import { PostComments } from "@/components/post-comments"
 import { Tabs, TabsContent, TabsList, TabsTrigger } from "@/components/ui/tabs"
 import { 
   DropdownMenu, 
@@ -668,28 +669,11 @@ export default function ProfilePage() {
                               </Button>
                             </div>
 
-                            {post.comments.length > 0 && (
-                              <div className="bg-muted/50 rounded-xl p-3 mt-3 space-y-3 border border-border">
-                                {post.comments.map((c) => (
-                                  <div key={c.id} className="flex gap-2 text-sm">
-                                    <Avatar className="w-6 h-6 mt-1">
-                                      <AvatarImage src={getImageUrl(c.user.profileImageUrl)} />
-                                      <AvatarFallback className="text-[10px]">
-                                        {c.user.name.charAt(0)}
-                                      </AvatarFallback>
-                                    </Avatar>
-                                    <div className="bg-card p-2 px-3 rounded-lg shadow-sm border border-border flex-1">
-                                      <span className="font-semibold text-card-foreground text-xs block mb-0.5">
-                                        {c.user.name}
-                                      </span>
-                                      <span className="text-foreground">
-                                        {c.content}
-                                      </span>
-                                    </div>
-                                  </div>
-                                ))}
-                              </div>
-                            )}
+                            <PostComments
+                              postId={post.id}
+                              comments={post.comments}
+                              commentsCount={post.commentsCount}
+                            />
 
                             {commentingOnPost === post.id && (
                               <div className="flex gap-2 mt-3 animate-in fade-in slide-in-from-top-2">
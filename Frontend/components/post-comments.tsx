@@ -0,0 +1,88 @@
+"use client";
+
+import { useState } from "react";
+import toast from "react-hot-toast";
+import { Avatar, AvatarFallback, AvatarImage } from "@/components/ui/avatar";
+import { getCommentsPage, CommentResponse } from "@/lib/api";
+
+interface PostCommentsProps {
+  postId: number;
+  // Newest few comments embedded in the feed response
+  comments: CommentResponse[];
+  commentsCount: number;
+}
+
+const getImageUrl = (url: string | null | undefined) => {
+  if (!url) return "/placeholder.svg";
+  if (url.startsWith("http")) return url;
+  return `http://localhost:8080${url}`;
+};
+
+export function PostComments({ postId, comments, commentsCount }: PostCommentsProps) {
+  // Older comments fetched page by page, newest first like the preview
+  const [loaded, setLoaded] = useState<CommentResponse[] | null>(null);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [hasMore, setHasMore] = useState(false);
+  const [loading, setLoading] = useState(false);
+
+  // The preview stays on top so comments added after the first page still show
+  const shown = loaded
+    ? [...comments, ...loaded.filter((c) => !comments.some((p) => p.id === c.id))]
+    : comments;
+  const canLoadMore = loaded ? hasMore : commentsCount > comments.length;
+
+  const loadMore = async () => {
+    if (loading) return;
+    setLoading(true);
+    try {
+      const page = await getCommentsPage(postId, loaded ? nextCursor : null);
+      setLoaded((prev) => {
+        const base = prev ?? [];
+        return [...base, ...page.items.filter((c) => !base.some((b) => b.id === c.id))];
+      });
+      setNextCursor(page.nextCursor);
+      setHasMore(page.hasMore);
+    } catch {
+      toast.error("Failed to load comments");
+    } finally {
+      setLoading(false);
+    }
+  };
+
+  if (shown.length === 0) return null;
+
+  return (
+    <div className="bg-muted/50 rounded-xl p-3 mt-3 space-y-3 border border-border">
+      {shown.map((c) => (
+        <div key={c.id} className="flex gap-2 text-sm">
+          <Avatar className="w-6 h-6 mt-1">
+            <AvatarImage src={getImageUrl(c.user.profileImageUrl)} />
+            <AvatarFallback className="text-[10px]">
+              {c.user.name?.charAt(0).toUpperCase() || "U"}
+            </AvatarFallback>
+          </Avatar>
+          <div className="bg-card p-2 px-3 rounded-lg shadow-sm border border-border flex-1">
+            <span className="font-semibold text-card-foreground text-xs block mb-0.5">
+              {c.user.name}
+            </span>
+            <span className="text-foreground">{c.content}</span>
+          </div>
+        </div>
+      ))}
+      {canLoadMore && (
+        <button
+          type="button"
+          onClick={loadMore}
+          disabled={loading}
+          className="text-xs font-medium text-muted-foreground hover:text-foreground transition-colors disabled:opacity-50"
+        >
+          {loading
+            ? "Loading comments..."
+            : loaded
+              ? "Load more comments"
+              : `View all ${commentsCount} comments`}
+        </button>
+      )}
+    </div>
+  );
+}
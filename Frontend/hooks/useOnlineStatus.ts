@@ -1,6 +1,6 @@
 import { useState, useEffect } from 'react';
-import axios from 'axios';
 import { useWebSocket } from './useWebSocket';
+import { PresenceUpdate, applyPresenceUpdates, getOnlineConnections } from '@/lib/api';
 
 export function useOnlineStatus(currentUserId?: number) {
   const [onlineUsers, setOnlineUsers] = useState<Set<number>>(new Set());
@@ -11,8 +11,8 @@ export function useOnlineStatus(currentUserId?: number) {
 
     const fetchStatus = async () => {
       try {
-        const res = await axios.get<number[]>('http://localhost:8080/api/users/online-status');
-        setOnlineUsers(new Set(res.data));
+        const snapshot = await getOnlineConnections(currentUserId);
+        if (snapshot) setOnlineUsers(new Set(snapshot.onlineIds));
       } catch (error) {
         console.error("Failed to fetch online users", error);
       }
@@ -25,20 +25,11 @@ export function useOnlineStatus(currentUserId?: number) {
   useWebSocket({
     url: 'http://localhost:8080/ws',
     userId: currentUserId,
-    topics: ['/topic/online-status'],
+    topics: currentUserId ? [`/queue/presence/${currentUserId}`] : [],
     enabled: !!currentUserId,
     onMessage: (topic, message) => {
-      if (topic === '/topic/online-status') {
-        const { userId, status } = message;
-        setOnlineUsers((prev) => {
-          const newSet = new Set(prev);
-          if (status === 'ONLINE') {
-            newSet.add(Number(userId));
-          } else {
-            newSet.delete(Number(userId));
-          }
-          return newSet;
-        });
+      if (topic.startsWith('/queue/presence/')) {
+        setOnlineUsers((prev) => applyPresenceUpdates(prev, message as PresenceUpdate[]));
       }
     },
   });
@@ -6,11 +6,12 @@ interface UseWebSocketOptions {
   url: string;
   topics: string[];
   onMessage: (topic: string, message: any) => void;
+  onConnect?: () => void;   // runs on every (re)connect, e.g. to fetch what was missed while offline
   enabled?: boolean;
   userId?: number;
 }
 
-export const useWebSocket = ({ url, topics, onMessage, enabled = true, userId }: UseWebSocketOptions) => {
+export const useWebSocket = ({ url, topics, onMessage, onConnect, enabled = true, userId }: UseWebSocketOptions) => {
   const clientRef = useRef<Client | null>(null);
   const subscriptionsRef = useRef<{ [key: string]: any }>({});
 
@@ -47,6 +48,7 @@ export const useWebSocket = ({ url, topics, onMessage, enabled = true, userId }:
             });
           }
         });
+        onConnect?.();
       },
       onDisconnect: () => {
         console.log('[WebSocket] Disconnected');
@@ -58,7 +60,7 @@ export const useWebSocket = ({ url, topics, onMessage, enabled = true, userId }:
 
     client.activate();
     clientRef.current = client;
-  }, [url, topics, onMessage, enabled, userId]);
+  }, [url, topics, onMessage, onConnect, enabled, userId]);
 
   const disconnect = useCallback(() => {
     if (clientRef.current) {
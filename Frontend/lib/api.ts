@@ -181,6 +181,8 @@ export interface NotificationDTO {
         name: string;
         profileImageUrl?: string;
     };
+    actorCount?: number;   // distinct actors folded into a LIKE/COMMENT notification; message already says "and N others ..."
+    recentActors?: { id: number; name: string; profileImageUrl?: string }[];
 }
 
 
@@ -389,6 +391,21 @@ export const getPostsByProfession = async (profession: string, userId: number):
     return await response.json();
 };
 
+// Keyset-paged feed, newest first; pass nextCursor back to load the next page
+export const getFeedPage = async (
+    profession: string,
+    userId: number,
+    cursor?: string | null,
+    limit?: number
+): Promise<CursorPageResponse<PostResponse>> => {
+    const params = new URLSearchParams({ profession, userId: String(userId) });
+    if (cursor) params.set('cursor', cursor);
+    if (limit) params.set('limit', String(limit));
+    const response = await fetch(`${BASE}/posts/by-profession/page?${params}`);
+    if (!response.ok) throw new Error('Failed to fetch posts');
+    return await response.json();
+};
+
 export const getPostsByUserId = async (userId: number, currentUserId: number): Promise<PostResponse[]> => {
     const response = await fetch(`${BASE}/posts/user/${userId}?currentUserId=${currentUserId}`);
     if (response.status === 204) return [];
@@ -428,6 +445,21 @@ export const addComment = async (postId: number, commentData: CommentRequest): P
     return await response.json();
 };
 
+// Newest comments first; pass nextCursor back to load older ones (the feed only embeds a preview)
+export const getCommentsPage = async (
+    postId: number,
+    cursor?: string | null,
+    limit?: number
+): Promise<CursorPageResponse<CommentResponse>> => {
+    const params = new URLSearchParams();
+    if (cursor) params.set('cursor', cursor);
+    if (limit) params.set('limit', String(limit));
+    const query = params.toString();
+    const response = await fetch(`${BASE}/posts/${postId}/comments${query ? `?${query}` : ''}`);
+    if (!response.ok) throw new Error('Failed to fetch comments');
+    return await response.json();
+};
+
 export const reportPost = async (postId: number, userId: number, reason: string): Promise<{ message: string }> => {
     const response = await fetch(`${BASE}/posts/${postId}/report?userId=${userId}&reason=${encodeURIComponent(reason)}`, {
         method: 'POST',
@@ -453,6 +485,27 @@ export const getUnreadCount = async (userId: number): Promise<number> => {
     return data.count;
 };
 
+// Reconnect catch-up: notifications created or updated since `since` (the newest one the client has),
+// oldest first; all of them without `since`. Position is (createdAt, id): a folded aggregate keeps
+// its id but moves createdAt forward
+export const getNotificationsSince = async (
+    userId: number,
+    since: Pick<NotificationDTO, 'createdAt' | 'id'> | null
+): Promise<NotificationDTO[]> => {
+    const missed: NotificationDTO[] = [];
+    let params: URLSearchParams | null = since
+        ? new URLSearchParams({ createdAt: since.createdAt, id: String(since.id) })
+        : new URLSearchParams();
+    while (params) {
+        const response = await fetch(`${BASE}/notifications/${userId}/since?${params}`);
+        if (!response.ok) throw new Error('Failed to fetch missed notifications');
+        const page: CursorPageResponse<NotificationDTO> = await response.json();
+        missed.push(...page.items);
+        params = page.hasMore && page.nextCursor ? new URLSearchParams({ after: page.nextCursor }) : null;
+    }
+    return missed;
+};
+
 export const markNotificationAsRead = async (notificationId: number): Promise<NotificationDTO> => {
     const response = await fetch(`${BASE}/notifications/${notificationId}/read`, {
         method: 'PUT',
@@ -486,6 +539,7 @@ export interface MessageRequest {
     senderId: number;
     receiverId: number;
     content: string;
+    clientMessageId?: string; // reuse it when resending so the server stores the message once
 }
 
 export interface MessageResponse {
@@ -499,8 +553,34 @@ export interface MessageResponse {
     content: string;
     timestamp: string;
     isRead: boolean;
+    clientMessageId?: string;
+}
+
+// Sent on /queue/messages/ack/{userId} when the server runs write-behind persistence
+export interface MessageAck {
+    clientMessageId: string;
+    messageId: number | null;
+    status: 'PERSISTED' | 'FAILED';
+}
+
+// Batched presence changes pushed on /queue/presence/{userId} (accepted connections only)
+export interface PresenceUpdate {
+    userId: number;
+    status: 'ONLINE' | 'OFFLINE';
 }
 
+export const applyPresenceUpdates = (online: Set<number>, updates: PresenceUpdate[]): Set<number> => {
+    const next = new Set(online);
+    updates.forEach(({ userId, status }) => {
+        if (status === 'ONLINE') {
+            next.add(Number(userId));
+        } else {
+            next.delete(Number(userId));
+        }
+    });
+    return next;
+};
+
 export interface ConversationResponse {
     userId: number;
     userName: string;
@@ -527,6 +607,53 @@ export const getConversation = async (userId1: number, userId2: number): Promise
     return await response.json();
 };
 
+export interface CursorPageResponse<T> {
+    items: T[];
+    nextCursor: string | null;
+    hasMore: boolean;
+}
+
+// Newest page of a conversation, or the page older than `before` (items are in chronological order)
+export const getConversationPage = async (
+    userId1: number,
+    userId2: number,
+    before?: string | null,
+    limit?: number
+): Promise<CursorPageResponse<MessageResponse>> => {
+    const params = new URLSearchParams({ userId1: String(userId1), userId2: String(userId2) });
+    if (before) params.set('before', before);
+    if (limit) params.set('limit', String(limit));
+    const response = await fetch(`${BASE}/messages/conversation/page?${params}`);
+    if (!response.ok) throw new Error('Failed to fetch conversation');
+    return await response.json();
+};
+
+export interface OnlineSnapshot {
+    onlineIds: number[];
+    etag: string | null;   // only set for single-page snapshots, pass it back when polling
+}
+
+// Online users among my connections; resolves to null when the etag still matches (304)
+export const getOnlineConnections = async (userId: number, etag?: string | null): Promise<OnlineSnapshot | null> => {
+    const onlineIds: number[] = [];
+    let after: string | null = null;
+    let snapshotEtag: string | null = null;
+    do {
+        const params = new URLSearchParams({ limit: '1000' });
+        if (after) params.set('after', after);
+        const headers: Record<string, string> = !after && etag ? { 'If-None-Match': etag } : {};
+        const response = await fetch(`${BASE}/users/${userId}/online-connections?${params}`, { headers });
+        if (response.status === 304) return null;
+        if (!response.ok) throw new Error('Failed to fetch online connections');
+
+        const page: CursorPageResponse<number> = await response.json();
+        if (!after && !page.hasMore) snapshotEtag = response.headers.get('ETag');
+        onlineIds.push(...page.items);
+        after = page.hasMore ? page.nextCursor : null;
+    } while (after);
+    return { onlineIds, etag: snapshotEtag };
+};
+
 export const getConversations = async (userId: number): Promise<ConversationResponse[]> => {
     console.log(`[API] Fetching conversations for user ${userId} from ${BASE}/messages/conversations/${userId}`);
     const response = await fetch(`${BASE}/messages/conversations/${userId}`);
@@ -23,6 +23,8 @@ public class CorsConfig {
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS")
                         // Allow all headers
                         .allowedHeaders("*")
+                        // Lets the frontend read ETags for If-None-Match polling
+                        .exposedHeaders("ETag")
                         // If you ever use cookies / auth headers
                         .allowCredentials(true);
             }
@@ -1,11 +1,27 @@
 package com.community.profession_connect.config;
 
-import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.http.util.EntityUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -17,24 +33,101 @@ public class OpenAIClient {
     @Value("${openai.api.key}")
     private String apiKey;
 
-    // Single constant URL – no need to pass it each time
-    private static final String OPENAI_URL = "https://api.openai.com/v1/chat/completions";
+    // Overridable so tests and benchmarks can point at a local stub
+    @Value("${openai.api.url:https://api.openai.com/v1/chat/completions}")
+    private String apiUrl = "https://api.openai.com/v1/chat/completions";
+
+    @Value("${openai.http.max-connections:20}")
+    private int maxConnections = 20;
+
+    @Value("${openai.http.max-connections-per-route:10}")
+    private int maxConnectionsPerRoute = 10;
+
+    @Value("${openai.http.connect-timeout-ms:5000}")
+    private long connectTimeoutMs = 5000;
+
+    @Value("${openai.http.read-timeout-ms:60000}")
+    private long readTimeoutMs = 60000;
+
+    @Value("${openai.http.idle-eviction-seconds:30}")
+    private long idleEvictionSeconds = 30;
+
+    @Value("${openai.http.http2-enabled:false}")
+    private boolean http2Enabled = false;
+
+    // One shared, pooled client: connections (and their TLS sessions) are kept alive and reused
+    private CloseableHttpClient client;
+    private CloseableHttpAsyncClient http2Client;
+
+    @PostConstruct
+    public void init() {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .build();
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .build();
+
+        if (http2Enabled) {
+            // HTTP/2 is negotiated via ALPN; a single multiplexed connection serves concurrent calls
+            http2Client = HttpAsyncClients.custom()
+                    .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+                            .setMaxConnTotal(maxConnections)
+                            .setMaxConnPerRoute(maxConnectionsPerRoute)
+                            .setDefaultConnectionConfig(connectionConfig)
+                            .setDefaultTlsConfig(TlsConfig.custom()
+                                    .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                                    .build())
+                            .build())
+                    .setDefaultRequestConfig(requestConfig)
+                    .evictIdleConnections(TimeValue.ofSeconds(idleEvictionSeconds))
+                    .build();
+            http2Client.start();
+        } else {
+            client = HttpClients.custom()
+                    .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                            .setMaxConnTotal(maxConnections)
+                            .setMaxConnPerRoute(maxConnectionsPerRoute)
+                            .setDefaultConnectionConfig(connectionConfig)
+                            .build())
+                    .setDefaultRequestConfig(requestConfig)
+                    .evictIdleConnections(TimeValue.ofSeconds(idleEvictionSeconds))
+                    .evictExpiredConnections()
+                    .build();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (client != null) {
+            client.close(CloseMode.GRACEFUL);
+        }
+        if (http2Client != null) {
+            http2Client.close(CloseMode.GRACEFUL);
+        }
+    }
 
     /**
      * Call OpenAI Chat Completions API with a JSON body.
      */
     public String callApi(String body) throws Exception {
-        try (CloseableHttpClient client = HttpClients.createDefault()) {
-
-            HttpPost post = new HttpPost(OPENAI_URL);
-            post.setHeader("Authorization", "Bearer " + apiKey);
-            post.setHeader("Content-Type", "application/json");
+        if (http2Client != null) {
+            SimpleHttpRequest request = SimpleRequestBuilder.post(apiUrl)
+                    .setHeader("Authorization", "Bearer " + apiKey)
+                    .setBody(body, ContentType.APPLICATION_JSON)
+                    .build();
+            SimpleHttpResponse response = http2Client.execute(request, null).get();
+            return response.getBodyText();
+        }
 
-            post.setEntity(new StringEntity(body, StandardCharsets.UTF_8));
+        HttpPost post = new HttpPost(apiUrl);
+        post.setHeader("Authorization", "Bearer " + apiKey);
+        post.setEntity(new StringEntity(body, ContentType.APPLICATION_JSON));
 
-            try (CloseableHttpResponse response = client.execute(post)) {
-                return EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
-            }
-        }
+        // The response handler consumes the entity so the connection goes back to the pool
+        return client.execute(post, response ->
+                EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8));
     }
 }
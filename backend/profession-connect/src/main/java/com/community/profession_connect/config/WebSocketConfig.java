@@ -1,25 +1,205 @@
 package com.community.profession_connect.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 import org.springframework.web.socket.server.HandshakeInterceptor;
 
 import java.util.Map;
+import java.util.concurrent.ThreadFactory;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // "simple": in-JVM broker, subscriptions only reach clients of this node.
+    // "relay": every node forwards /topic and /queue to one external STOMP broker
+    // (ActiveMQ / Artemis; RabbitMQ needs "." instead of "/" inside queue names).
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode = "simple";
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost = "localhost";
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort = 61613;
+
+    @Value("${websocket.broker.relay.virtual-host:}")
+    private String relayVirtualHost = "";
+
+    @Value("${websocket.broker.relay.client-login:guest}")
+    private String relayClientLogin = "guest";
+
+    @Value("${websocket.broker.relay.client-passcode:guest}")
+    private String relayClientPasscode = "guest";
+
+    @Value("${websocket.broker.relay.system-login:guest}")
+    private String relaySystemLogin = "guest";
+
+    @Value("${websocket.broker.relay.system-passcode:guest}")
+    private String relaySystemPasscode = "guest";
+
+    // Heartbeats on the shared "system" connection the node publishes through
+    @Value("${websocket.broker.relay.system-heartbeat-ms:10000}")
+    private long relaySystemHeartbeatMs = 10000;
+
+    // ------------------- CHANNELS / TRANSPORT -------------------
+
+    // 0 = two threads per CPU core, Spring's default
+    @Value("${websocket.inbound.core-pool-size:0}")
+    private int inboundCorePoolSize = 0;
+
+    @Value("${websocket.inbound.max-pool-size:64}")
+    private int inboundMaxPoolSize = 64;
+
+    @Value("${websocket.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity = 10000;
+
+    @Value("${websocket.outbound.core-pool-size:0}")
+    private int outboundCorePoolSize = 0;
+
+    @Value("${websocket.outbound.max-pool-size:64}")
+    private int outboundMaxPoolSize = 64;
+
+    @Value("${websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity = 10000;
+
+    // Only takes effect on a Java 21+ runtime; otherwise platform threads are used
+    @Value("${websocket.channels.virtual-threads:false}")
+    private boolean virtualThreads = false;
+
+    // A session that cannot take a message within this time, or lets this much pile up, is closed
+    @Value("${websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs = 10000;
+
+    @Value("${websocket.transport.send-buffer-size-limit-kb:512}")
+    private int sendBufferSizeLimitKb = 512;
+
+    @Value("${websocket.transport.message-size-limit-kb:64}")
+    private int messageSizeLimitKb = 64;
+
+    @Value("${websocket.transport.time-to-first-message-ms:60000}")
+    private int timeToFirstMessageMs = 60000;
+
+    // STOMP heartbeats of the simple broker: how often it sends / expects one (0 disables)
+    @Value("${websocket.heartbeat.server-ms:10000}")
+    private long heartbeatServerMs = 10000;
+
+    @Value("${websocket.heartbeat.client-ms:10000}")
+    private long heartbeatClientMs = 10000;
+
+    @Value("${websocket.sockjs.heartbeat-ms:25000}")
+    private long sockJsHeartbeatMs = 25000;
+
+    @Autowired(required = false)
+    private WebSocketTransportMonitor transportMonitor;
+
+    // The broker's own scheduler sends the heartbeats. A second TaskScheduler bean would leave
+    // @Scheduled jobs without a unique scheduler and put them all on one thread. Lazy because the
+    // bean is created by the same broker configuration that calls configureMessageBroker
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy @Qualifier("messageBrokerTaskScheduler") TaskScheduler taskScheduler) {
+        this.messageBrokerTaskScheduler = taskScheduler;
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("ws-inbound-"))
+                .corePoolSize(corePoolSize(inboundCorePoolSize))
+                .maxPoolSize(inboundMaxPoolSize)
+                .queueCapacity(inboundQueueCapacity);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("ws-outbound-"))
+                .corePoolSize(corePoolSize(outboundCorePoolSize))
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimitKb * 1024)
+                .setMessageSizeLimit(messageSizeLimitKb * 1024)
+                .setTimeToFirstMessage(timeToFirstMessageMs);
+        if (transportMonitor != null) {
+            registration.addDecoratorFactory(transportMonitor);
+        }
+    }
+
+    private ThreadPoolTaskExecutor channelExecutor(String threadNamePrefix) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setAllowCoreThreadTimeOut(true);
+        if (virtualThreads) {
+            ThreadFactory factory = virtualThreadFactory(threadNamePrefix);
+            if (factory != null) {
+                executor.setThreadFactory(factory);
+            } else {
+                System.out.println("[WebSocketConfig] Virtual threads need Java 21+, using platform threads for " + threadNamePrefix);
+            }
+        }
+        return executor;
+    }
+
+    private static int corePoolSize(int configured) {
+        return configured > 0 ? configured : Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    // Thread.ofVirtual().name(prefix, 0).factory(), looked up reflectively so the build stays on Java 17
+    static ThreadFactory virtualThreadFactory(String threadNamePrefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, threadNamePrefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    // ------------------- BROKER -------------------
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayClientLogin)
+                    .setClientPasscode(relayClientPasscode)
+                    .setSystemLogin(relaySystemLogin)
+                    .setSystemPasscode(relaySystemPasscode)
+                    .setSystemHeartbeatSendInterval(relaySystemHeartbeatMs)
+                    .setSystemHeartbeatReceiveInterval(relaySystemHeartbeatMs);
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+            System.out.println("[WebSocketConfig] STOMP broker relay to " + relayHost + ":" + relayPort);
+        } else {
+            config.enableSimpleBroker("/topic", "/queue")
+                    .setHeartbeatValue(new long[]{heartbeatServerMs, heartbeatClientMs})
+                    .setTaskScheduler(messageBrokerTaskScheduler);
+        }
         config.setApplicationDestinationPrefixes("/app");
     }
 
@@ -48,6 +228,7 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                                                WebSocketHandler wsHandler, Exception exception) {
                     }
                 })
-                .withSockJS();
+                .withSockJS()
+                .setHeartbeatTime(sockJsHeartbeatMs);
     }
 }
\ No newline at end of file
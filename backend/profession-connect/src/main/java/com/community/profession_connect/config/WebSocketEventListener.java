@@ -4,7 +4,6 @@ import com.community.profession_connect.service.OnlineUserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.GenericMessage;
 import org.springframework.stereotype.Component;
@@ -19,9 +18,6 @@ public class WebSocketEventListener {
     @Autowired
     private OnlineUserService onlineUserService;
 
-    @Autowired
-    private SimpMessagingTemplate messagingTemplate;
-
     @EventListener
     public void handleWebSocketConnectListener(SessionConnectedEvent event) {
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
@@ -41,13 +37,9 @@ public class WebSocketEventListener {
         if (sessionAttributes != null && sessionAttributes.containsKey("userId")) {
             Long userId = (Long) sessionAttributes.get("userId");
 
-            // 1. Add user to the Online Map
-            onlineUserService.userConnected(userId);
+            // Count this session; PresenceFanoutService tells connections if it is the user's first
+            onlineUserService.sessionConnected(userId, headerAccessor.getSessionId());
             System.out.println("[WebSocket] User Connected: " + userId);
-
-            // 2. Broadcast the "ONLINE" status to everyone
-            messagingTemplate.convertAndSend("/topic/online-status",
-                    Map.of("userId", userId, "status", "ONLINE"));
         }
     }
 
@@ -58,11 +50,9 @@ public class WebSocketEventListener {
 
         if (sessionAttributes != null && sessionAttributes.containsKey("userId")) {
             Long userId = (Long) sessionAttributes.get("userId");
-            onlineUserService.userDisconnected(userId);
+            // Connections are told only once the user's last session is gone
+            onlineUserService.sessionDisconnected(userId, event.getSessionId());
             System.out.println("[WebSocket] User Disconnected: " + userId);
-
-            messagingTemplate.convertAndSend("/topic/online-status",
-                    Map.of("userId", userId, "status", "OFFLINE"));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.community.profession_connect.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts WebSocket sessions by how they ended and reports the STOMP channel executors.
+ *
+ * A session is "dropped" when Spring closes it as SESSION_NOT_RELIABLE, which is what happens
+ * to a slow consumer that exceeds the send-time or send-buffer limit; TOO_BIG_TO_PROCESS
+ * closes are clients that sent a frame over the message-size limit.
+ */
+@Component
+public class WebSocketTransportMonitor implements WebSocketHandlerDecoratorFactory {
+
+    private static final String[] CHANNEL_EXECUTORS = {
+            "clientInboundChannelExecutor", "clientOutboundChannelExecutor", "brokerChannelExecutor"
+    };
+
+    // Looked up per call: the executors are created after this decorator is registered
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong closed = new AtomicLong();
+    private final AtomicLong droppedSlowConsumers = new AtomicLong();
+    private final AtomicLong closedOversized = new AtomicLong();
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                opened.incrementAndGet();
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                recordClose(session.getId(), closeStatus);
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    void recordClose(String sessionId, CloseStatus closeStatus) {
+        closed.incrementAndGet();
+        if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+            droppedSlowConsumers.incrementAndGet();
+            System.out.println("[WebSocket] Dropped slow session " + sessionId + ": " + closeStatus.getReason());
+        } else if (CloseStatus.TOO_BIG_TO_PROCESS.equalsCode(closeStatus)) {
+            closedOversized.incrementAndGet();
+        }
+    }
+
+    // ------------------- METRICS -------------------
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sessionsOpened", opened.get());
+        stats.put("sessionsClosed", closed.get());
+        stats.put("sessionsOpen", opened.get() - closed.get());
+        stats.put("droppedSlowConsumers", droppedSlowConsumers.get());
+        stats.put("closedOversizedMessage", closedOversized.get());
+
+        for (String name : CHANNEL_EXECUTORS) {
+            if (applicationContext != null && applicationContext.containsBean(name)) {
+                stats.put(name, executorStats(applicationContext.getBean(name, ThreadPoolTaskExecutor.class)));
+            }
+        }
+        if (applicationContext != null && applicationContext.containsBean("webSocketMessageBrokerStats")) {
+            WebSocketMessageBrokerStats brokerStats =
+                    applicationContext.getBean("webSocketMessageBrokerStats", WebSocketMessageBrokerStats.class);
+            stats.put("sessions", brokerStats.getWebSocketSessionStatsInfo());
+            stats.put("stomp", brokerStats.getStompSubProtocolStatsInfo());
+        }
+        return stats;
+    }
+
+    static Map<String, Object> executorStats(ThreadPoolTaskExecutor executor) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", executor.getPoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("maxPoolSize", executor.getMaxPoolSize());
+        ThreadPoolExecutor pool = executor.getThreadPoolExecutor();
+        stats.put("queueSize", pool.getQueue().size());
+        stats.put("queueRemainingCapacity", pool.getQueue().remainingCapacity());
+        stats.put("completedTasks", pool.getCompletedTaskCount());
+        return stats;
+    }
+}
@@ -1,8 +1,10 @@
 package com.community.profession_connect.controller;
 
 import com.community.profession_connect.dto.ConversationResponse;
+import com.community.profession_connect.dto.CursorPageResponse;
 import com.community.profession_connect.dto.MessageRequest;
 import com.community.profession_connect.dto.MessageResponse;
+import com.community.profession_connect.dto.ReadReceipt;
 import com.community.profession_connect.service.MessageService;
 import com.community.profession_connect.service.FileStorageService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -67,6 +69,21 @@ public class MessageController {
         return ResponseEntity.ok(messages);
     }
 
+    // Keyset-paginated history: newest page first, then pass nextCursor back as "before" to scroll up
+    @GetMapping("/conversation/page")
+    public ResponseEntity<CursorPageResponse<MessageResponse>> getConversationPage(
+            @RequestParam Long userId1,
+            @RequestParam Long userId2,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(messageService.getConversationPage(userId1, userId2, before, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // Get all conversations for a user
     @GetMapping("/conversations/{userId}")
     public ResponseEntity<List<ConversationResponse>> getConversations(@PathVariable Long userId) {
@@ -82,15 +99,10 @@ public class MessageController {
             @RequestParam Long receiverId,
             @RequestParam Long senderId) {
 
-        // 1. Update the database state
-        messageService.markMessagesAsRead(receiverId, senderId);
-
-        // 2. Create a proper Read Receipt object
-        Map<String, Object> readReceipt = new HashMap<>();
-        readReceipt.put("readerId", receiverId);
-        readReceipt.put("timestamp", java.time.LocalDateTime.now().toString());
+        // 1. Update the database state in one bulk statement
+        ReadReceipt readReceipt = messageService.markMessagesAsRead(receiverId, senderId);
 
-        // 3. Notify sender that messages were read (Send the Map, not just ID)
+        // 2. Notify sender up to which message their messages were read
         messagingTemplate.convertAndSend("/queue/read/" + senderId, readReceipt);
 
         return ResponseEntity.ok().build();
@@ -0,0 +1,120 @@
+package com.community.profession_connect.controller;
+
+import com.community.profession_connect.config.WebSocketTransportMonitor;
+import com.community.profession_connect.service.AiModerationQueue;
+import com.community.profession_connect.service.ConnectionGraphCache;
+import com.community.profession_connect.service.FeedCache;
+import com.community.profession_connect.service.MessageWriteBehindQueue;
+import com.community.profession_connect.service.ModerationVerdictCache;
+import com.community.profession_connect.service.NotificationOutboxService;
+import com.community.profession_connect.service.NotificationPushService;
+import com.community.profession_connect.service.NotificationRetentionService;
+import com.community.profession_connect.service.OnlineUserService;
+import com.community.profession_connect.service.PresenceFanoutService;
+import com.community.profession_connect.service.UnreadCounterService;
+import com.community.profession_connect.service.UserSummaryCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+// Internal counters used to size caches and executors
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "http://localhost:3000")
+public class MetricsController {
+
+    private final FeedCache feedCache;
+    private final AiModerationQueue aiModerationQueue;
+    private final ModerationVerdictCache moderationVerdictCache;
+    private final MessageWriteBehindQueue messageWriteBehindQueue;
+    private final UserSummaryCache userSummaryCache;
+    private final OnlineUserService onlineUserService;
+    private final PresenceFanoutService presenceFanoutService;
+    private final ConnectionGraphCache connectionGraphCache;
+    private final WebSocketTransportMonitor webSocketTransportMonitor;
+    private final NotificationPushService notificationPushService;
+    private final NotificationRetentionService notificationRetentionService;
+    private final UnreadCounterService unreadCounterService;
+    private final NotificationOutboxService notificationOutboxService;
+
+    // Hot feed cache: hits, misses, evictions, cached posts
+    @GetMapping("/feed-cache")
+    public ResponseEntity<Map<String, Object>> getFeedCacheStats() {
+        return ResponseEntity.ok(feedCache.getStats());
+    }
+
+    // AI moderation pipeline: queue depth, in-flight calls, end-to-end latency
+    @GetMapping("/ai-moderation")
+    public ResponseEntity<Map<String, Object>> getAiModerationStats() {
+        return ResponseEntity.ok(aiModerationQueue.getStats());
+    }
+
+    // Duplicate-content verdict reuse: hit rate, evictions, memory footprint
+    @GetMapping("/moderation-cache")
+    public ResponseEntity<Map<String, Object>> getModerationCacheStats() {
+        return ResponseEntity.ok(moderationVerdictCache.getStats());
+    }
+
+    // Write-behind message persistence: queue depth, batch flush times, retries
+    @GetMapping("/message-write-behind")
+    public ResponseEntity<Map<String, Object>> getMessageWriteBehindStats() {
+        return ResponseEntity.ok(messageWriteBehindQueue.getStats());
+    }
+
+    // User summaries behind message/like/notification hot paths: hit rate, invalidations
+    @GetMapping("/user-summary-cache")
+    public ResponseEntity<Map<String, Object>> getUserSummaryCacheStats() {
+        return ResponseEntity.ok(userSummaryCache.getStats());
+    }
+
+    // Presence: this node's id, store in use, session churn and crash expiries
+    @GetMapping("/presence")
+    public ResponseEntity<Map<String, Object>> getPresenceStats() {
+        return ResponseEntity.ok(onlineUserService.getStats());
+    }
+
+    // Presence delta channel: transitions, coalescing, messages per transition
+    @GetMapping("/presence-fanout")
+    public ResponseEntity<Map<String, Object>> getPresenceFanoutStats() {
+        return ResponseEntity.ok(presenceFanoutService.getStats());
+    }
+
+    // Accepted-connection adjacency: hit rate, cached users and edges
+    @GetMapping("/connection-graph")
+    public ResponseEntity<Map<String, Object>> getConnectionGraphStats() {
+        return ResponseEntity.ok(connectionGraphCache.getStats());
+    }
+
+    // WebSocket transport: inbound/outbound/broker channel pools, queue sizes, dropped slow sessions
+    @GetMapping("/websocket")
+    public ResponseEntity<Map<String, Object>> getWebSocketStats() {
+        return ResponseEntity.ok(webSocketTransportMonitor.getStats());
+    }
+
+    // Notification push: notifications and unread counts delivered after commit, failed sends
+    @GetMapping("/notification-push")
+    public ResponseEntity<Map<String, Object>> getNotificationPushStats() {
+        return ResponseEntity.ok(notificationPushService.getStats());
+    }
+
+    // Notification retention: rows purged/archived and duration of the last run, totals
+    @GetMapping("/notification-retention")
+    public ResponseEntity<Map<String, Object>> getNotificationRetentionStats() {
+        return ResponseEntity.ok(notificationRetentionService.getStats());
+    }
+
+    // Unread badge counters: cache hit rate, deltas applied, counters fixed by the repair job
+    @GetMapping("/unread-counters")
+    public ResponseEntity<Map<String, Object>> getUnreadCounterStats() {
+        return ResponseEntity.ok(unreadCounterService.getStats());
+    }
+
+    // Notification outbox: events recorded, dispatched and pending, failed and dead-lettered ones
+    @GetMapping("/notification-outbox")
+    public ResponseEntity<Map<String, Object>> getNotificationOutboxStats() {
+        return ResponseEntity.ok(notificationOutboxService.getStats());
+    }
+}
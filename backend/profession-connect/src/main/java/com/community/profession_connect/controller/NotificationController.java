@@ -1,10 +1,14 @@
 package com.community.profession_connect.controller;
 
+import com.community.profession_connect.dto.CursorPageResponse;
 import com.community.profession_connect.dto.NotificationDTO;
+import com.community.profession_connect.service.KeysetCursor;
 import com.community.profession_connect.service.NotificationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -23,6 +27,42 @@ public class NotificationController {
         return ResponseEntity.ok(notifications);
     }
 
+    // Keyset-paginated feed: newest first, pass back nextCursor to load older notifications
+    @GetMapping("/{userId}/page")
+    public ResponseEntity<CursorPageResponse<NotificationDTO>> getNotificationsPage(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(notificationService.getNotificationsPage(userId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Reconnect catch-up: notifications created or updated since the newest one the client has
+    // (?createdAt=&id= of that notification), oldest first; later pages pass back ?after=nextCursor.
+    // New ones are pushed on /queue/notifications/{userId} while the socket is up.
+    @GetMapping("/{userId}/since")
+    public ResponseEntity<CursorPageResponse<NotificationDTO>> getNotificationsSince(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdAt,
+            @RequestParam(required = false) Long id,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            KeysetCursor position = null;
+            if (after != null && !after.isBlank()) {
+                position = KeysetCursor.decode(after);
+            } else if (createdAt != null && id != null) {
+                position = new KeysetCursor(createdAt, id);
+            }
+            return ResponseEntity.ok(notificationService.getNotificationsSince(userId, position, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     // Get unread count
     @GetMapping("/{userId}/unread-count")
     public ResponseEntity<Map<String, Long>> getUnreadCount(@PathVariable Long userId) {
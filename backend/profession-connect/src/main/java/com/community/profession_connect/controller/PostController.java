@@ -2,6 +2,7 @@ package com.community.profession_connect.controller;
 
 import com.community.profession_connect.dto.CommentRequest;
 import com.community.profession_connect.dto.CommentResponse;
+import com.community.profession_connect.dto.CursorPageResponse;
 import com.community.profession_connect.dto.PostRequest;
 import com.community.profession_connect.dto.PostResponse;
 import com.community.profession_connect.service.FileStorageService;
@@ -47,6 +48,21 @@ public class PostController {
         return ResponseEntity.ok(posts);
     }
 
+    // Keyset-paginated feed: pass back nextCursor from the previous page to scroll further
+    @GetMapping("/by-profession/page")
+    public ResponseEntity<CursorPageResponse<PostResponse>> getPostsByProfessionPage(
+        @RequestParam String profession,
+        @RequestParam Long userId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
+    ) {
+        try {
+            return ResponseEntity.ok(postService.getFeedPage(profession, userId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<PostResponse>> getPostsByUserId(
         @PathVariable Long userId,
@@ -100,10 +116,18 @@ public class PostController {
         return ResponseEntity.ok(response);
     }
 
+    // Newest comments first; pass back nextCursor to load older ones
     @GetMapping("/{postId}/comments")
-    public ResponseEntity<List<CommentResponse>> getComments(@PathVariable Long postId) {
-        List<CommentResponse> comments = postService.getCommentsByPostId(postId);
-        return ResponseEntity.ok(comments);
+    public ResponseEntity<CursorPageResponse<CommentResponse>> getComments(
+        @PathVariable Long postId,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer limit
+    ) {
+        try {
+            return ResponseEntity.ok(postService.getCommentsPage(postId, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping("/{postId}/image")
@@ -1,5 +1,6 @@
 package com.community.profession_connect.controller;
 
+import com.community.profession_connect.dto.CursorPageResponse;
 import com.community.profession_connect.dto.LoginRequest;
 import com.community.profession_connect.dto.LoginResponse;
 import com.community.profession_connect.dto.RegistrationRequest;
@@ -11,6 +12,9 @@ import com.community.profession_connect.service.OnlineUserService;
 import com.community.profession_connect.service.PhoneVerificationService;
 import com.community.profession_connect.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -50,10 +54,47 @@ public class UserController {
     // --------------------------------------------------------------------------------
     // <--- 6. ADD THIS NEW ENDPOINT FOR ONLINE STATUS
     // --------------------------------------------------------------------------------
+    // Every online user on the platform; the frontend uses /{userId}/online-connections instead
     @GetMapping("/online-status")
     public ResponseEntity<Set<Long>> getOnlineUsers() {
         return ResponseEntity.ok(onlineUserService.getOnlineUsers());
     }
+
+    // Online ids among the user's connections (or ?ids=), ascending and paged by ?after=.
+    // Poll with If-None-Match: an unchanged page is answered with 304 and no body.
+    @GetMapping("/{userId}/online-connections")
+    public ResponseEntity<CursorPageResponse<Long>> getOnlineConnections(
+            @PathVariable Long userId,
+            @RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        CursorPageResponse<Long> page;
+        try {
+            page = onlineUserService.getOnlineSnapshot(userId, ids, after, limit);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String etag = snapshotEtag(page);
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(page);
+    }
+
+    // Content hash of the page, so any online/offline change in it yields a new tag
+    private static String snapshotEtag(CursorPageResponse<Long> page) {
+        long hash = 1125899906842597L;
+        for (Long id : page.getItems()) {
+            hash = 31 * hash + id;
+        }
+        hash = 31 * hash + (page.isHasMore() ? 1 : 0);
+        return "\"" + Long.toHexString(hash) + "-" + page.getItems().size() + "\"";
+    }
     // --------------------------------------------------------------------------------
 
     @PostMapping("/register")
@@ -0,0 +1,16 @@
+package com.community.profession_connect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+    private List<T> items;
+    private String nextCursor;   // opaque token, null when there is nothing more to load
+    private boolean hasMore;
+}
@@ -0,0 +1,15 @@
+package com.community.profession_connect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Pushed on /queue/messages/ack/{userId} once a write-behind message is stored (or given up on)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageAck {
+    private String clientMessageId;
+    private Long messageId;   // null when status is FAILED
+    private String status;    // PERSISTED | FAILED (client should resend with the same clientMessageId)
+}
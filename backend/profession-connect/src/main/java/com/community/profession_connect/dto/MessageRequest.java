@@ -7,4 +7,5 @@ public class MessageRequest {
     private Long senderId;
     private Long receiverId;
     private String content;
+    private String clientMessageId; // optional; makes resends idempotent
 }
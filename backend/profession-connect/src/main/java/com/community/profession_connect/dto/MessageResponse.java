@@ -20,4 +20,5 @@ public class MessageResponse {
     private String content;
     private LocalDateTime timestamp;
     private boolean isRead;
+    private String clientMessageId; // id is null until a write-behind message is persisted
 }
@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -16,7 +17,9 @@ public class NotificationDTO {
     private Boolean isRead;
     private LocalDateTime createdAt;
     private Long relatedEntityId;
-    private ActorDTO actor;
+    private ActorDTO actor;            // latest actor
+    private Integer actorCount;        // distinct actors folded into this notification
+    private List<ActorDTO> recentActors;
 
     @Data
     @NoArgsConstructor
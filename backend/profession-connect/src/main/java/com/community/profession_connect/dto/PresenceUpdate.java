@@ -0,0 +1,14 @@
+package com.community.profession_connect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One entry of the batch pushed on /queue/presence/{userId}
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceUpdate {
+    private Long userId;
+    private String status;   // ONLINE | OFFLINE
+}
@@ -0,0 +1,18 @@
+package com.community.profession_connect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Pushed on /queue/read/{senderId}: every message up to lastReadMessageId is now read
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadReceipt {
+    private Long readerId;
+    private LocalDateTime timestamp;
+    private Long lastReadMessageId; // null when there was nothing unread
+    private int readCount;
+}
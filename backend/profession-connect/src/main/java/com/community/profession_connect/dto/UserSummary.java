@@ -0,0 +1,16 @@
+package com.community.profession_connect.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// The few user fields hot paths need (names on messages, FK validation); cached by UserSummaryCache
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+    private Long id;
+    private String name;
+    private String profession;
+    private String profileImageUrl;
+}
@@ -0,0 +1,53 @@
+package com.community.profession_connect.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Read notifications moved out of the live table by NotificationRetentionService (mode=archive).
+// Plain id columns instead of relations: archived rows must not hold up user deletes.
+@Entity
+@Table(name = "notifications_archive",
+        indexes = @Index(name = "idx_notifications_archive_user", columnList = "user_id, created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedNotification {
+
+    // Same id as the live row it was moved from
+    @Id
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationType type;
+
+    @Column(nullable = false)
+    private String message;
+
+    @Column(name = "is_read", nullable = false)
+    private Boolean isRead;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "related_entity_id")
+    private Long relatedEntityId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "actor_id", nullable = false)
+    private Long actorId;
+
+    @Column(name = "actor_count")
+    private Integer actorCount;
+
+    @Column(name = "recent_actor_ids")
+    private String recentActorIds;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,41 @@
+package com.community.profession_connect.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// One row per side of a conversation: what the owner sees in their inbox for one counterpart
+@Entity
+@Table(name = "conversation_summaries",
+        uniqueConstraints = @UniqueConstraint(name = "uk_conversation_summaries_side", columnNames = {"owner_id", "counterpart_id"}),
+        indexes = @Index(name = "idx_conversation_summaries_inbox", columnList = "owner_id, last_message_time"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConversationSummary {
+
+    public static final int PREVIEW_LENGTH = 255;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(name = "counterpart_id", nullable = false)
+    private Long counterpartId;
+
+    @Column(name = "last_message_id", nullable = false)
+    private Long lastMessageId;
+
+    @Column(name = "last_message_preview", length = PREVIEW_LENGTH)
+    private String lastMessagePreview;
+
+    @Column(name = "last_message_time", nullable = false)
+    private LocalDateTime lastMessageTime;
+
+    // Messages from the counterpart the owner has not read yet
+    @Column(name = "unread_count", nullable = false)
+    private long unreadCount;
+}
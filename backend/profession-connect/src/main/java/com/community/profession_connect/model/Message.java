@@ -5,7 +5,12 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages",
+        uniqueConstraints = @UniqueConstraint(name = "uk_messages_client_message_id", columnNames = "client_message_id"),
+        indexes = {
+                @Index(name = "idx_messages_conversation", columnList = "pair_low_id, pair_high_id, timestamp, id"),
+                @Index(name = "idx_messages_receiver_unread", columnList = "receiver_id, is_read, sender_id")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,11 +34,28 @@ public class Message {
     @Column(nullable = false)
     private LocalDateTime timestamp;
 
-    @Column(nullable = false)
+    // Explicit name: idx_messages_receiver_unread refers to it
+    @Column(name = "is_read", nullable = false)
     private boolean isRead = false;
 
+    // Canonical conversation key (smaller user id, larger user id): one index seek per conversation
+    // instead of OR-ing both directions. Nullable only until historic rows are backfilled.
+    @Column(name = "pair_low_id")
+    private Long pairLowId;
+
+    @Column(name = "pair_high_id")
+    private Long pairHighId;
+
+    // Sender-side id; lets write-behind replays and client resends be inserted at most once
+    @Column(name = "client_message_id", length = 64)
+    private String clientMessageId;
+
     @PrePersist
     protected void onCreate() {
         timestamp = LocalDateTime.now();
+        if (sender != null && receiver != null) {
+            pairLowId = Math.min(sender.getId(), receiver.getId());
+            pairHighId = Math.max(sender.getId(), receiver.getId());
+        }
     }
 }
@@ -7,7 +7,13 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications",
+        uniqueConstraints = @UniqueConstraint(name = "uk_notifications_open_group", columnNames = {"user_id", "group_key"}),
+        indexes = {
+                @Index(name = "idx_notifications_user_created", columnList = "user_id, created_at, id"),
+                @Index(name = "idx_notifications_retention", columnList = "is_read, created_at"),
+                @Index(name = "idx_notifications_user_unread", columnList = "user_id, is_read")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,10 +30,11 @@ public class Notification {
     @Column(nullable = false)
     private String message;
 
-    @Column(nullable = false)
+    // Explicit names: the @Index column lists above refer to them
+    @Column(name = "is_read", nullable = false)
     private Boolean isRead = false;
 
-    @Column(nullable = false)
+    @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
     @Column
@@ -38,8 +45,25 @@ public class Notification {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    // User who performed the action (actor)
+    // User who performed the action (actor); the latest one on an aggregated row
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "actor_id", nullable = false)
     private User actor;
+
+    // ------------------- AGGREGATION -------------------
+    // LIKE and COMMENT events on one post fold into a single row per time window.
+    // Nullable because rows written before aggregation have none of these; read as one actor.
+
+    // Distinct actors folded into this row
+    @Column(name = "actor_count")
+    private Integer actorCount = 1;
+
+    // Most recent distinct actor ids, newest first, comma separated
+    @Column(name = "recent_actor_ids")
+    private String recentActorIds;
+
+    // "TYPE:entityId:windowBucket" while the row is unread and still absorbs events. Cleared on read,
+    // so the next event opens a fresh unread row; MySQL allows any number of NULLs under the unique key.
+    @Column(name = "group_key", length = 64)
+    private String groupKey;
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.community.profession_connect.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// One distinct actor folded into an aggregated notification; keeps actor_count exact
+@Entity
+@Table(name = "notification_actors")
+@IdClass(NotificationActor.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationActor {
+
+    @Id
+    @Column(name = "notification_id")
+    private Long notificationId;
+
+    @Id
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long notificationId;
+        private Long actorId;
+    }
+}
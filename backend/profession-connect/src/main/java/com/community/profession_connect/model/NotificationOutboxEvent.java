@@ -0,0 +1,55 @@
+package com.community.profession_connect.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// A notification still to be created, written in the same transaction as the like, comment or
+// connection that caused it and turned into a notification by NotificationOutboxService.
+// Plain id columns: the dispatcher only needs the keys, and pending rows must not block deletes.
+@Entity
+@Table(name = "notification_outbox",
+        uniqueConstraints = @UniqueConstraint(name = "uk_notification_outbox_key", columnNames = "idempotency_key"),
+        indexes = @Index(name = "idx_notification_outbox_pending", columnList = "processed_at, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // e.g. LIKE:{postId}:{likerId}; a second event with the same key is ignored
+    @Column(name = "idempotency_key", nullable = false, length = 128)
+    private String idempotencyKey;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationType type;
+
+    // Recipient
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "actor_id", nullable = false)
+    private Long actorId;
+
+    @Column(name = "related_entity_id")
+    private Long relatedEntityId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 255)
+    private String lastError;
+
+    // Null while pending; set in the transaction that created the notification
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
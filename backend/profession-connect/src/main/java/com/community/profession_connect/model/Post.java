@@ -6,7 +6,10 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "posts")
+@Table(name = "posts", indexes = {
+        // Keyset feed pagination: WHERE profession = ? AND deleted = false ORDER BY created_at DESC, id DESC
+        @Index(name = "idx_posts_feed", columnList = "profession, deleted, created_at, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,6 +33,8 @@ public class Post {
 
     private Integer likesCount = 0;
 
+    private Integer commentsCount = 0;
+
     private String imageUrl;
 
     // ---------------- AI SYSTEM FIELDS ----------------
@@ -80,6 +85,7 @@ public class Post {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         if (likesCount == null) likesCount = 0;
+        if (commentsCount == null) commentsCount = 0;
     }
 }
 
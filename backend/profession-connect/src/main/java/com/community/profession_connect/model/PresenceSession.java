@@ -0,0 +1,32 @@
+package com.community.profession_connect.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// One open WebSocket session, shared between backend nodes when presence.store=jdbc
+@Entity
+@Table(name = "presence_sessions",
+        indexes = {
+                @Index(name = "idx_presence_sessions_user", columnList = "user_id"),
+                @Index(name = "idx_presence_sessions_node", columnList = "node_id"),
+                @Index(name = "idx_presence_sessions_last_seen", columnList = "last_seen")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceSession {
+
+    @Id
+    @Column(name = "session_id", length = 64)
+    private String sessionId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "node_id", nullable = false, length = 64)
+    private String nodeId;
+
+    // Epoch millis of the holding node's last heartbeat
+    @Column(name = "last_seen", nullable = false)
+    private long lastSeen;
+}
@@ -0,0 +1,21 @@
+package com.community.profession_connect.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Per-user lock row for presence.store=jdbc: session changes of one user run one at a time
+@Entity
+@Table(name = "presence_users")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceUser {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Epoch millis of the user's last session change
+    @Column(name = "updated_at", nullable = false)
+    private long updatedAt;
+}
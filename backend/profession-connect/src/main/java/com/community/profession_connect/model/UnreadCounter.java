@@ -0,0 +1,30 @@
+package com.community.profession_connect.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+// Maintained unread badge counts per user, kept by UnreadCounterService so badges are a
+// primary-key read instead of a COUNT over notifications or messages
+@Entity
+@Table(name = "unread_counters")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UnreadCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private long notifications;
+
+    @Column(nullable = false)
+    private long messages;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
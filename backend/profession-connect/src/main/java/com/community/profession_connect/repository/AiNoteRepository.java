@@ -4,9 +4,13 @@ import com.community.profession_connect.model.AiNote;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AiNoteRepository extends JpaRepository<AiNote, Long> {
     List<AiNote> findByPostId(Long postId);
+
+    // AI notes for a whole page of posts in one round-trip
+    List<AiNote> findByPostIdIn(Collection<Long> postIds);
 }
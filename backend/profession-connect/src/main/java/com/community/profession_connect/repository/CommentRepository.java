@@ -1,9 +1,45 @@
 package com.community.profession_connect.repository;
 
 import com.community.profession_connect.model.Comment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     List<Comment> findByPostIdOrderByCreatedAtDesc(Long postId);
+
+    // IDs of the newest :perPost comments of every given post (feed previews)
+    @Query(value = "SELECT ranked.id FROM (" +
+                   "  SELECT c.id, ROW_NUMBER() OVER (PARTITION BY c.post_id ORDER BY c.created_at DESC, c.id DESC) AS rn " +
+                   "  FROM comments c WHERE c.post_id IN (:postIds)" +
+                   ") ranked WHERE ranked.rn <= :perPost",
+           nativeQuery = true)
+    List<Long> findPreviewCommentIds(@Param("postIds") Collection<Long> postIds, @Param("perPost") int perPost);
+
+    // Loads the preview comments picked above (author fetched in the same query)
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user " +
+           "WHERE c.id IN :ids " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findWithUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Keyset pagination: newest comments of a post
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user " +
+           "WHERE c.post.id = :postId " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findPageHead(@Param("postId") Long postId, Pageable pageable);
+
+    // Keyset pagination: the comments that follow the (createdAt, id) cursor
+    @Query("SELECT c FROM Comment c JOIN FETCH c.user " +
+           "WHERE c.post.id = :postId " +
+           "AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id)) " +
+           "ORDER BY c.createdAt DESC, c.id DESC")
+    List<Comment> findPageAfter(@Param("postId") Long postId,
+                                @Param("createdAt") LocalDateTime createdAt,
+                                @Param("id") Long id,
+                                Pageable pageable);
 }
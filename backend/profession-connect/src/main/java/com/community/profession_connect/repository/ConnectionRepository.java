@@ -45,7 +45,7 @@ public interface ConnectionRepository extends JpaRepository<Connection, Long> {
     );
 
     // Get all users that are connected (accepted) with the given user
-    @Query("SELECT c FROM Connection c WHERE " +
+    @Query("SELECT c FROM Connection c JOIN FETCH c.requester JOIN FETCH c.receiver WHERE " +
            "(c.requester.id = :userId OR c.receiver.id = :userId) " +
            "AND c.status = :status")
     List<Connection> findAcceptedConnectionsForUser(@Param("userId") Long userId, @Param("status") ConnectionStatus status);
@@ -0,0 +1,88 @@
+package com.community.profession_connect.repository;
+
+import com.community.profession_connect.model.ConversationSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ConversationSummaryRepository extends JpaRepository<ConversationSummary, Long> {
+
+    // Inbox: a single range scan on (owner_id, last_message_time)
+    List<ConversationSummary> findByOwnerIdOrderByLastMessageTimeDesc(Long ownerId);
+
+    /**
+     * Records a new message on one side of a conversation. Out-of-order writes never move the
+     * preview backwards; last_message_id is assigned last because MySQL applies the
+     * assignments left to right.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO conversation_summaries " +
+                   "(owner_id, counterpart_id, last_message_id, last_message_preview, last_message_time, unread_count) " +
+                   "VALUES (:ownerId, :counterpartId, :messageId, :preview, :time, :unreadDelta) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "last_message_preview = IF(:messageId > last_message_id, :preview, last_message_preview), " +
+                   "last_message_time = IF(:messageId > last_message_id, :time, last_message_time), " +
+                   "unread_count = unread_count + :unreadDelta, " +
+                   "last_message_id = GREATEST(last_message_id, :messageId)",
+           nativeQuery = true)
+    int upsertOnMessage(@Param("ownerId") Long ownerId,
+                        @Param("counterpartId") Long counterpartId,
+                        @Param("messageId") Long messageId,
+                        @Param("preview") String preview,
+                        @Param("time") LocalDateTime time,
+                        @Param("unreadDelta") int unreadDelta);
+
+    // Recount from the messages table so concurrent sends are never zeroed away
+    @Modifying
+    @Query(value = "UPDATE conversation_summaries SET unread_count = " +
+                   "(SELECT COUNT(*) FROM messages WHERE receiver_id = :ownerId AND sender_id = :counterpartId AND is_read = false) " +
+                   "WHERE owner_id = :ownerId AND counterpart_id = :counterpartId",
+           nativeQuery = true)
+    int recountUnread(@Param("ownerId") Long ownerId, @Param("counterpartId") Long counterpartId);
+
+    // ------------------- REBUILD -------------------
+
+    @Modifying
+    @Query(value = "DELETE FROM conversation_summaries WHERE " +
+                   "(owner_id = :userId1 AND counterpart_id = :userId2) OR " +
+                   "(owner_id = :userId2 AND counterpart_id = :userId1)",
+           nativeQuery = true)
+    int deletePair(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
+
+    // Both sides of one conversation, recomputed from the messages table
+    @Modifying
+    @Query(value = "INSERT INTO conversation_summaries " +
+                   "(owner_id, counterpart_id, last_message_id, last_message_preview, last_message_time, unread_count) " +
+                   "SELECT t.owner_id, t.counterpart_id, m.id, LEFT(m.content, 255), m.timestamp, t.unread " +
+                   "FROM (SELECT u.owner_id, u.counterpart_id, MAX(u.id) AS last_id, SUM(u.unread) AS unread FROM (" +
+                   "  SELECT sender_id AS owner_id, receiver_id AS counterpart_id, id, 0 AS unread FROM messages " +
+                   "  WHERE pair_low_id = LEAST(:userId1, :userId2) AND pair_high_id = GREATEST(:userId1, :userId2) " +
+                   "  UNION ALL " +
+                   "  SELECT receiver_id, sender_id, id, CASE WHEN is_read THEN 0 ELSE 1 END FROM messages " +
+                   "  WHERE pair_low_id = LEAST(:userId1, :userId2) AND pair_high_id = GREATEST(:userId1, :userId2)" +
+                   ") u GROUP BY u.owner_id, u.counterpart_id) t " +
+                   "JOIN messages m ON m.id = t.last_id",
+           nativeQuery = true)
+    int rebuildPair(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
+
+    @Modifying
+    @Query(value = "DELETE FROM conversation_summaries", nativeQuery = true)
+    int deleteAllSummaries();
+
+    @Modifying
+    @Query(value = "INSERT INTO conversation_summaries " +
+                   "(owner_id, counterpart_id, last_message_id, last_message_preview, last_message_time, unread_count) " +
+                   "SELECT t.owner_id, t.counterpart_id, m.id, LEFT(m.content, 255), m.timestamp, t.unread " +
+                   "FROM (SELECT u.owner_id, u.counterpart_id, MAX(u.id) AS last_id, SUM(u.unread) AS unread FROM (" +
+                   "  SELECT sender_id AS owner_id, receiver_id AS counterpart_id, id, 0 AS unread FROM messages " +
+                   "  UNION ALL " +
+                   "  SELECT receiver_id, sender_id, id, CASE WHEN is_read THEN 0 ELSE 1 END FROM messages" +
+                   ") u GROUP BY u.owner_id, u.counterpart_id) t " +
+                   "JOIN messages m ON m.id = t.last_id",
+           nativeQuery = true)
+    int rebuildAll();
+}
@@ -2,22 +2,56 @@ package com.community.profession_connect.repository;
 
 import com.community.profession_connect.model.Message;
 import com.community.profession_connect.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
 
     // Get all messages between two users, ordered by timestamp
-    @Query("SELECT m FROM Message m WHERE " +
-           "(m.sender.id = :userId1 AND m.receiver.id = :userId2) OR " +
-           "(m.sender.id = :userId2 AND m.receiver.id = :userId1) " +
+    default List<Message> findMessagesBetweenUsers(Long userId1, Long userId2) {
+        return findByPair(Math.min(userId1, userId2), Math.max(userId1, userId2));
+    }
+
+    @Query("SELECT m FROM Message m WHERE m.pairLowId = :lowId AND m.pairHighId = :highId " +
            "ORDER BY m.timestamp ASC")
-    List<Message> findMessagesBetweenUsers(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
+    List<Message> findByPair(@Param("lowId") Long lowId, @Param("highId") Long highId);
+
+    // ------------------- KEYSET PAGES -------------------
+    // Callers pass the canonical pair: lowId = min(userId1, userId2), highId = max(userId1, userId2)
+
+    // Newest messages of a conversation (newest first)
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender JOIN FETCH m.receiver " +
+           "WHERE m.pairLowId = :lowId AND m.pairHighId = :highId " +
+           "ORDER BY m.timestamp DESC, m.id DESC")
+    List<Message> findConversationLatest(@Param("lowId") Long lowId, @Param("highId") Long highId,
+                                         Pageable pageable);
+
+    // Messages older than the cursor (newest first), for scrolling back
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender JOIN FETCH m.receiver " +
+           "WHERE m.pairLowId = :lowId AND m.pairHighId = :highId " +
+           "AND (m.timestamp < :timestamp OR (m.timestamp = :timestamp AND m.id < :id)) " +
+           "ORDER BY m.timestamp DESC, m.id DESC")
+    List<Message> findConversationBefore(@Param("lowId") Long lowId, @Param("highId") Long highId,
+                                         @Param("timestamp") LocalDateTime timestamp, @Param("id") Long id,
+                                         Pageable pageable);
+
+    // Messages newer than the cursor (oldest first), for catching up
+    @Query("SELECT m FROM Message m JOIN FETCH m.sender JOIN FETCH m.receiver " +
+           "WHERE m.pairLowId = :lowId AND m.pairHighId = :highId " +
+           "AND (m.timestamp > :timestamp OR (m.timestamp = :timestamp AND m.id > :id)) " +
+           "ORDER BY m.timestamp ASC, m.id ASC")
+    List<Message> findConversationAfter(@Param("lowId") Long lowId, @Param("highId") Long highId,
+                                        @Param("timestamp") LocalDateTime timestamp, @Param("id") Long id,
+                                        Pageable pageable);
 
     // Get count of unread messages for a specific user
     @Query("SELECT COUNT(m) FROM Message m WHERE m.receiver.id = :userId AND m.isRead = false")
@@ -30,14 +64,57 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
            "FROM Message m WHERE m.sender.id = :userId OR m.receiver.id = :userId")
     List<User> findUsersWithConversations(@Param("userId") Long userId);
 
-    // Get the last message between current user and another user
-    @Query("SELECT m FROM Message m WHERE " +
-           "(m.sender.id = :userId1 AND m.receiver.id = :userId2) OR " +
-           "(m.sender.id = :userId2 AND m.receiver.id = :userId1) " +
-           "ORDER BY m.timestamp DESC")
-    List<Message> findLastMessageBetweenUsers(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
-
     // Count unread messages from a specific user
     @Query("SELECT COUNT(m) FROM Message m WHERE m.receiver.id = :receiverId AND m.sender.id = :senderId AND m.isRead = false")
     Long countUnreadMessagesFrom(@Param("receiverId") Long receiverId, @Param("senderId") Long senderId);
+
+    // Newest unread message from a sender; the high-water mark for a bulk mark-as-read
+    @Query("SELECT MAX(m.id) FROM Message m WHERE m.receiver.id = :receiverId AND m.sender.id = :senderId AND m.isRead = false")
+    Long findMaxUnreadIdFrom(@Param("receiverId") Long receiverId, @Param("senderId") Long senderId);
+
+    // Marks everything up to the high-water mark as read in one statement; later arrivals stay unread
+    @Modifying
+    @Query("UPDATE Message m SET m.isRead = true WHERE m.receiver.id = :receiverId AND m.sender.id = :senderId " +
+           "AND m.isRead = false AND m.id <= :maxId")
+    int markReadUpTo(@Param("receiverId") Long receiverId, @Param("senderId") Long senderId, @Param("maxId") Long maxId);
+
+    // ------------------- CONVERSATION KEY BACKFILL -------------------
+
+    // Fills the pair key of historic rows in bounded chunks so no single transaction locks the table
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE messages SET pair_low_id = LEAST(sender_id, receiver_id), " +
+                   "pair_high_id = GREATEST(sender_id, receiver_id) " +
+                   "WHERE pair_low_id IS NULL LIMIT :batchSize",
+           nativeQuery = true)
+    int backfillPairKeys(@Param("batchSize") int batchSize);
+
+    // Latest message per counterpart in one pass: MAX(id) per conversation side, joined back for the row
+    @Query(value = "SELECT t.counterpart_id AS counterpartId, m.id AS lastMessageId, " +
+                   "m.content AS content, m.timestamp AS timestamp " +
+                   "FROM (SELECT u.counterpart_id, MAX(u.id) AS last_id FROM (" +
+                   "  SELECT receiver_id AS counterpart_id, id FROM messages WHERE sender_id = :userId " +
+                   "  UNION ALL " +
+                   "  SELECT sender_id AS counterpart_id, id FROM messages WHERE receiver_id = :userId" +
+                   ") u GROUP BY u.counterpart_id) t " +
+                   "JOIN messages m ON m.id = t.last_id",
+           nativeQuery = true)
+    List<LastMessageView> findLastMessagePerCounterpart(@Param("userId") Long userId);
+
+    // Unread messages for a user, grouped by who sent them
+    @Query("SELECT m.sender.id AS counterpartId, COUNT(m) AS unreadCount FROM Message m " +
+           "WHERE m.receiver.id = :userId AND m.isRead = false GROUP BY m.sender.id")
+    List<UnreadCountView> countUnreadPerSender(@Param("userId") Long userId);
+
+    interface LastMessageView {
+        Long getCounterpartId();
+        Long getLastMessageId();
+        String getContent();
+        LocalDateTime getTimestamp();
+    }
+
+    interface UnreadCountView {
+        Long getCounterpartId();
+        Long getUnreadCount();
+    }
 }
@@ -0,0 +1,55 @@
+package com.community.profession_connect.repository;
+
+import com.community.profession_connect.model.NotificationOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutboxEvent, Long> {
+
+    // Duplicate idempotency keys are dropped by the unique index; returns 0 for a duplicate
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO notification_outbox " +
+                   "(idempotency_key, type, user_id, actor_id, related_entity_id, created_at, attempts) " +
+                   "VALUES (:idempotencyKey, :type, :userId, :actorId, :relatedEntityId, :now, 0)",
+           nativeQuery = true)
+    int insertIgnore(@Param("idempotencyKey") String idempotencyKey,
+                     @Param("type") String type,
+                     @Param("userId") Long userId,
+                     @Param("actorId") Long actorId,
+                     @Param("relatedEntityId") Long relatedEntityId,
+                     @Param("now") LocalDateTime now);
+
+    // ------------------- DISPATCH -------------------
+
+    // Oldest pending events, locked for this transaction; rows another node holds are skipped
+    @Query(value = "SELECT id FROM notification_outbox WHERE processed_at IS NULL " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Long> lockPendingIds(@Param("limit") int limit);
+
+    @Query(value = "SELECT id FROM notification_outbox WHERE id = :id AND processed_at IS NULL FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    Optional<Long> lockPendingId(@Param("id") Long id);
+
+    @Query("SELECT e FROM NotificationOutboxEvent e WHERE e.id IN :ids ORDER BY e.id")
+    List<NotificationOutboxEvent> findByIds(@Param("ids") List<Long> ids);
+
+    @Modifying
+    @Query("UPDATE NotificationOutboxEvent e SET e.processedAt = :now WHERE e.id IN :ids")
+    int markProcessed(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
+    @Query("SELECT COUNT(e) FROM NotificationOutboxEvent e WHERE e.processedAt IS NULL")
+    long countPending();
+
+    // Processed rows are kept for a while so late duplicates still hit the unique key
+    @Modifying
+    @Query(value = "DELETE FROM notification_outbox WHERE processed_at < :cutoff LIMIT :limit",
+           nativeQuery = true)
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -1,22 +1,130 @@
 package com.community.profession_connect.repository;
 
 import com.community.profession_connect.model.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
 
     List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
 
+    // Keyset pagination on idx_notifications_user_created: newest notifications of a user
+    @Query("SELECT n FROM Notification n JOIN FETCH n.actor " +
+           "WHERE n.user.id = :userId " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPageHead(@Param("userId") Long userId, Pageable pageable);
+
+    // Keyset pagination: the notifications that follow the (createdAt, id) cursor
+    @Query("SELECT n FROM Notification n JOIN FETCH n.actor " +
+           "WHERE n.user.id = :userId " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPageAfter(@Param("userId") Long userId,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Pageable pageable);
+
+    // Catch-up after a reconnect: walks idx_notifications_user_created upwards from the (createdAt, id)
+    // cursor. Folding an event into an aggregate moves its created_at forward, so the folded row
+    // comes back past the cursor even though its id is old
+    @Query("SELECT n FROM Notification n JOIN FETCH n.actor " +
+           "WHERE n.user.id = :userId " +
+           "AND (n.createdAt > :createdAt OR (n.createdAt = :createdAt AND n.id > :id)) " +
+           "ORDER BY n.createdAt ASC, n.id ASC")
+    List<Notification> findChangedSince(@Param("userId") Long userId,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Pageable pageable);
+
+    // Catch-up without a cursor: everything, oldest first
+    @Query("SELECT n FROM Notification n JOIN FETCH n.actor " +
+           "WHERE n.user.id = :userId " +
+           "ORDER BY n.createdAt ASC, n.id ASC")
+    List<Notification> findChangedSinceHead(@Param("userId") Long userId, Pageable pageable);
+
     @Query("SELECT COUNT(n) FROM Notification n WHERE n.user.id = :userId AND n.isRead = false")
     Long countUnreadByUserId(@Param("userId") Long userId);
 
+    // Reading closes any open aggregate, so later events start a new unread row
+    @Modifying
+    @Query("UPDATE Notification n SET n.isRead = true, n.groupKey = null WHERE n.user.id = :userId AND n.isRead = false")
+    int markAllAsReadByUserId(@Param("userId") Long userId);
+
+    // ------------------- AGGREGATION -------------------
+
+    /**
+     * Folds one LIKE/COMMENT event into the open row for its group, or opens one. The actor moves
+     * to the front of the recent ids; actor_count is left to {@link #addGroupActor} and
+     * {@link #incrementActorCount}, which count each distinct actor once. created_at follows the
+     * latest event so the row sorts with recent activity.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO notifications " +
+                   "(type, message, is_read, created_at, related_entity_id, user_id, actor_id, actor_count, recent_actor_ids, group_key) " +
+                   "VALUES (:type, :message, false, :now, :entityId, :userId, :actorId, 1, :actorIdText, :groupKey) " +
+                   "ON DUPLICATE KEY UPDATE " +
+                   "recent_actor_ids = SUBSTRING_INDEX(CONCAT_WS(',', :actorIdText, NULLIF(TRIM(BOTH ',' FROM " +
+                   "REPLACE(CONCAT(',', recent_actor_ids, ','), CONCAT(',', :actorIdText, ','), ',')), '')), ',', :maxRecent), " +
+                   "actor_id = :actorId, " +
+                   "created_at = :now",
+           nativeQuery = true)
+    int upsertAggregate(@Param("type") String type,
+                        @Param("message") String message,
+                        @Param("now") LocalDateTime now,
+                        @Param("entityId") Long entityId,
+                        @Param("userId") Long userId,
+                        @Param("actorId") Long actorId,
+                        @Param("actorIdText") String actorIdText,
+                        @Param("groupKey") String groupKey,
+                        @Param("maxRecent") int maxRecent);
+
+    @Query(value = "SELECT id FROM notifications WHERE user_id = :userId AND group_key = :groupKey", nativeQuery = true)
+    Optional<Long> findOpenGroupId(@Param("userId") Long userId, @Param("groupKey") String groupKey);
+
+    // 1 when the actor is new to the row, 0 when they were already folded in. IGNORE only
+    // skips the duplicate key: the table has no other constraint to hide.
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO notification_actors (notification_id, actor_id) VALUES (:notificationId, :actorId)",
+           nativeQuery = true)
+    int addGroupActor(@Param("notificationId") Long notificationId, @Param("actorId") Long actorId);
+
+    @Modifying
+    @Query(value = "UPDATE notifications SET actor_count = actor_count + 1 WHERE id = :id", nativeQuery = true)
+    int incrementActorCount(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "DELETE FROM notification_actors WHERE notification_id IN (:ids)", nativeQuery = true)
+    int deleteGroupActors(@Param("ids") List<Long> ids);
+
+    @Query("SELECT n FROM Notification n JOIN FETCH n.actor WHERE n.user.id = :userId AND n.groupKey = :groupKey")
+    Optional<Notification> findOpenGroup(@Param("userId") Long userId, @Param("groupKey") String groupKey);
+
+    // ------------------- RETENTION -------------------
+
+    // One retention batch, oldest first on idx_notifications_retention. SKIP LOCKED lets several
+    // nodes run the job at once without waiting on each other's batches.
+    @Query(value = "SELECT id FROM notifications WHERE is_read = true AND created_at < :cutoff " +
+                   "ORDER BY created_at, id LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<Long> lockExpiredReadIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "INSERT INTO notifications_archive " +
+                   "(id, type, message, is_read, created_at, related_entity_id, user_id, actor_id, actor_count, recent_actor_ids, archived_at) " +
+                   "SELECT id, type, message, is_read, created_at, related_entity_id, user_id, actor_id, actor_count, recent_actor_ids, :now " +
+                   "FROM notifications WHERE id IN (:ids)",
+           nativeQuery = true)
+    int archiveByIds(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now);
+
     @Modifying
-    @Query("UPDATE Notification n SET n.isRead = true WHERE n.user.id = :userId AND n.isRead = false")
-    void markAllAsReadByUserId(@Param("userId") Long userId);
-}
\ No newline at end of file
+    @Query(value = "DELETE FROM notifications WHERE id IN (:ids)", nativeQuery = true)
+    int deleteByIds(@Param("ids") List<Long> ids);
+}
@@ -1,16 +1,50 @@
 package com.community.profession_connect.repository;
 
 import com.community.profession_connect.model.Post;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface PostRepository extends JpaRepository<Post, Long> {
 
-    // Only posts that are NOT soft-deleted
-    List<Post> findByProfessionAndDeletedFalseOrderByCreatedAtDesc(String profession);
+    // Only posts that are NOT soft-deleted (author fetched in the same query)
+    @Query("SELECT p FROM Post p JOIN FETCH p.user " +
+           "WHERE p.profession = :profession AND p.deleted = false " +
+           "ORDER BY p.createdAt DESC")
+    List<Post> findByProfessionAndDeletedFalseOrderByCreatedAtDesc(@Param("profession") String profession);
+
+    // Keyset pagination: newest page of a profession feed (served by idx_posts_feed)
+    @Query("SELECT p FROM Post p JOIN FETCH p.user " +
+           "WHERE p.profession = :profession AND p.deleted = false " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findFeedHead(@Param("profession") String profession, Pageable pageable);
+
+    // Keyset pagination: the page that follows the (createdAt, id) cursor
+    @Query("SELECT p FROM Post p JOIN FETCH p.user " +
+           "WHERE p.profession = :profession AND p.deleted = false " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findFeedAfter(@Param("profession") String profession,
+                             @Param("createdAt") LocalDateTime createdAt,
+                             @Param("id") Long id,
+                             Pageable pageable);
 
     // Fetch posts by user ID (for user profile)
-    List<Post> findByUserIdAndDeletedFalseOrderByCreatedAtDesc(Long userId);
+    @Query("SELECT p FROM Post p JOIN FETCH p.user " +
+           "WHERE p.user.id = :userId AND p.deleted = false " +
+           "ORDER BY p.createdAt DESC")
+    List<Post> findByUserIdAndDeletedFalseOrderByCreatedAtDesc(@Param("userId") Long userId);
 
-}
+    // One-off backfill for posts created before commentsCount was denormalized
+    @Modifying
+    @Query("UPDATE Post p SET p.commentsCount = " +
+           "(SELECT COUNT(c) FROM Comment c WHERE c.post = p) " +
+           "WHERE p.commentsCount IS NULL")
+    int backfillCommentsCount();
 
+}
@@ -0,0 +1,48 @@
+package com.community.profession_connect.repository;
+
+import com.community.profession_connect.model.PresenceSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface PresenceSessionRepository extends JpaRepository<PresenceSession, String> {
+
+    long countByUserId(Long userId);
+
+    boolean existsByUserId(Long userId);
+
+    @Query("SELECT DISTINCT p.userId FROM PresenceSession p")
+    List<Long> findOnlineUserIds();
+
+    @Query("SELECT DISTINCT p.userId FROM PresenceSession p WHERE p.userId IN :userIds")
+    List<Long> findOnlineUserIdsIn(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query("UPDATE PresenceSession p SET p.lastSeen = :now WHERE p.nodeId = :nodeId")
+    int touchNode(@Param("nodeId") String nodeId, @Param("now") long now);
+
+    @Query("SELECT DISTINCT p.userId FROM PresenceSession p WHERE p.lastSeen < :cutoff")
+    List<Long> findUsersWithStaleSessions(@Param("cutoff") long cutoff);
+
+    // Takes (and creates if needed) the user's presence_users row lock until commit
+    @Modifying
+    @Query(value = "INSERT INTO presence_users (user_id, updated_at) VALUES (:userId, :now) " +
+                   "ON DUPLICATE KEY UPDATE updated_at = :now", nativeQuery = true)
+    int lockUser(@Param("userId") Long userId, @Param("now") long now);
+
+    // Locking read: sees sessions committed by other nodes, not this transaction's snapshot
+    @Query(value = "SELECT COUNT(*) FROM presence_sessions WHERE user_id = :userId FOR SHARE", nativeQuery = true)
+    long countLiveSessions(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM PresenceSession p WHERE p.userId = :userId AND p.lastSeen < :cutoff")
+    int deleteStaleForUser(@Param("userId") Long userId, @Param("cutoff") long cutoff);
+
+    @Modifying
+    @Query("DELETE FROM PresenceSession p WHERE p.sessionId = :sessionId")
+    int deleteBySessionId(@Param("sessionId") String sessionId);
+}
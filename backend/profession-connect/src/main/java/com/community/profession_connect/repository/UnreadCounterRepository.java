@@ -0,0 +1,67 @@
+package com.community.profession_connect.repository;
+
+import com.community.profession_connect.model.UnreadCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface UnreadCounterRepository extends JpaRepository<UnreadCounter, Long> {
+
+    // Deltas only touch existing rows; a user without one is counted on first read
+    @Modifying
+    @Query(value = "UPDATE unread_counters SET notifications = GREATEST(0, notifications + :delta), " +
+                   "updated_at = NOW(6) WHERE user_id = :userId",
+           nativeQuery = true)
+    int addNotifications(@Param("userId") Long userId, @Param("delta") long delta);
+
+    @Modifying
+    @Query(value = "UPDATE unread_counters SET messages = GREATEST(0, messages + :delta), " +
+                   "updated_at = NOW(6) WHERE user_id = :userId",
+           nativeQuery = true)
+    int addMessages(@Param("userId") Long userId, @Param("delta") long delta);
+
+    // First read for a user: count once, keep whatever a concurrent first read already stored
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO unread_counters (user_id, notifications, messages, updated_at) VALUES (:userId, " +
+                   "(SELECT COUNT(*) FROM notifications WHERE user_id = :userId AND is_read = false), " +
+                   "(SELECT COUNT(*) FROM messages WHERE receiver_id = :userId AND is_read = false), " +
+                   "NOW(6)) " +
+                   "ON DUPLICATE KEY UPDATE user_id = user_id",
+           nativeQuery = true)
+    int initialize(@Param("userId") Long userId);
+
+    // ------------------- REPAIR -------------------
+
+    // Stored and actual counts for the next batch of counters, walking the primary key
+    @Query(value = "SELECT c.user_id AS userId, c.notifications AS notifications, c.messages AS messages, " +
+                   "(SELECT COUNT(*) FROM notifications n WHERE n.user_id = c.user_id AND n.is_read = false) AS actualNotifications, " +
+                   "(SELECT COUNT(*) FROM messages m WHERE m.receiver_id = c.user_id AND m.is_read = false) AS actualMessages " +
+                   "FROM unread_counters c WHERE c.user_id > :afterUserId ORDER BY c.user_id LIMIT :limit",
+           nativeQuery = true)
+    List<CounterCheckView> checkBatch(@Param("afterUserId") Long afterUserId, @Param("limit") int limit);
+
+    // Compare-and-set: skipped if a delta landed since the check, the next run looks again
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE unread_counters SET notifications = :notifications, messages = :messages, updated_at = NOW(6) " +
+                   "WHERE user_id = :userId AND notifications = :seenNotifications AND messages = :seenMessages",
+           nativeQuery = true)
+    int repair(@Param("userId") Long userId,
+               @Param("notifications") long notifications,
+               @Param("messages") long messages,
+               @Param("seenNotifications") long seenNotifications,
+               @Param("seenMessages") long seenMessages);
+
+    interface CounterCheckView {
+        Long getUserId();
+        Long getNotifications();
+        Long getMessages();
+        Long getActualNotifications();
+        Long getActualMessages();
+    }
+}
@@ -1,7 +1,10 @@
 package com.community.profession_connect.repository;
 
+import com.community.profession_connect.dto.UserSummary;
 import com.community.profession_connect.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,5 +12,9 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     List<User> findByProfession(String profession);
     Optional<User> findByPhoneNumber(String phoneNumber);
-}
 
+    // Only the columns UserSummaryCache keeps, instead of the whole profile row
+    @Query("SELECT new com.community.profession_connect.dto.UserSummary(u.id, u.name, u.profession, u.profileImageUrl) " +
+           "FROM User u WHERE u.id = :id")
+    Optional<UserSummary> findSummaryById(@Param("id") Long id);
+}
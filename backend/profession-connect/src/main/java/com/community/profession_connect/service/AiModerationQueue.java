@@ -0,0 +1,261 @@
+package com.community.profession_connect.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs AI moderation of new posts off the request thread on a fixed pool of workers
+ * fed by a bounded queue.
+ *
+ * When the queue is full the submitting thread waits up to submit-timeout-ms for a free
+ * slot (backpressure); if none frees up the post is left unmoderated and counted as
+ * rejected. On shutdown queued posts are drained for up to shutdown-drain-seconds.
+ *
+ * With ai.moderation.batch.enabled, posts are first collected for batch.window-ms or until
+ * batch.max-size posts are waiting, then moderated with a single OpenAI request. Posts the
+ * batch answer does not cover are re-run one by one.
+ */
+@Component
+public class AiModerationQueue {
+
+    private final AiNoteService aiNoteService;
+
+    @Value("${ai.moderation.concurrency:4}")
+    private int concurrency = 4;
+
+    @Value("${ai.moderation.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    @Value("${ai.moderation.submit-timeout-ms:200}")
+    private long submitTimeoutMs = 200;
+
+    @Value("${ai.moderation.shutdown-drain-seconds:30}")
+    private long shutdownDrainSeconds = 30;
+
+    @Value("${ai.moderation.batch.enabled:false}")
+    private boolean batchEnabled = false;
+
+    @Value("${ai.moderation.batch.window-ms:500}")
+    private long batchWindowMs = 500;
+
+    @Value("${ai.moderation.batch.max-size:10}")
+    private int batchMaxSize = 10;
+
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService batchTimer;
+
+    // Posts waiting for the current batch window to close, with their enqueue time
+    private final List<Long> pendingPostIds = new ArrayList<>();
+    private final List<Long> pendingSince = new ArrayList<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong totalLatencyMs = new AtomicLong();
+    private final AtomicLong maxLatencyMs = new AtomicLong();
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong batchFallbacks = new AtomicLong();
+
+    public AiModerationQueue(AiNoteService aiNoteService) {
+        this.aiNoteService = aiNoteService;
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadFactory threadFactory = runnable ->
+                new Thread(runnable, "ai-moderation-" + threadNumber.incrementAndGet());
+
+        executor = new ThreadPoolExecutor(
+                concurrency, concurrency,
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                (task, pool) -> {
+                    // Backpressure: hold the caller briefly instead of spawning more work
+                    try {
+                        if (pool.isShutdown()
+                                || !pool.getQueue().offer(task, submitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                            throw new RejectedExecutionException("Moderation queue is full");
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for the moderation queue");
+                    }
+                });
+
+        if (batchEnabled) {
+            batchTimer = Executors.newSingleThreadScheduledExecutor(runnable ->
+                    new Thread(runnable, "ai-moderation-batcher"));
+        }
+    }
+
+    /**
+     * Queues a post for moderation. Returns false if it could not be queued in time.
+     */
+    public boolean submit(Long postId) {
+        long enqueuedAt = System.currentTimeMillis();
+        if (batchEnabled) {
+            collect(postId, enqueuedAt);
+            return true;
+        }
+        try {
+            executor.execute(() -> moderate(postId, enqueuedAt));
+            submitted.incrementAndGet();
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            System.out.println("[AI] Moderation skipped for post " + postId + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void moderate(Long postId, long enqueuedAt) {
+        inFlight.incrementAndGet();
+        try {
+            aiNoteService.analyzePost(postId);
+            completed.incrementAndGet();
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            System.out.println("[AI] Note Generation Failed: " + e.getMessage());
+        } finally {
+            inFlight.decrementAndGet();
+            recordLatency(System.currentTimeMillis() - enqueuedAt);
+        }
+    }
+
+    // ------------------- MICRO-BATCHING -------------------
+
+    private void collect(Long postId, long enqueuedAt) {
+        boolean full;
+        boolean firstInWindow;
+        synchronized (pendingPostIds) {
+            firstInWindow = pendingPostIds.isEmpty();
+            pendingPostIds.add(postId);
+            pendingSince.add(enqueuedAt);
+            full = pendingPostIds.size() >= batchMaxSize;
+        }
+
+        if (full) {
+            flushBatch();
+        } else if (firstInWindow) {
+            batchTimer.schedule(this::flushBatch, batchWindowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flushBatch() {
+        List<Long> postIds;
+        List<Long> since;
+        synchronized (pendingPostIds) {
+            if (pendingPostIds.isEmpty()) {
+                return;
+            }
+            postIds = new ArrayList<>(pendingPostIds);
+            since = new ArrayList<>(pendingSince);
+            pendingPostIds.clear();
+            pendingSince.clear();
+        }
+
+        try {
+            executor.execute(() -> moderateBatch(postIds, since));
+            submitted.addAndGet(postIds.size());
+        } catch (RejectedExecutionException e) {
+            rejected.addAndGet(postIds.size());
+            System.out.println("[AI] Moderation skipped for posts " + postIds + ": " + e.getMessage());
+        }
+    }
+
+    private void moderateBatch(List<Long> postIds, List<Long> since) {
+        inFlight.incrementAndGet();
+        try {
+            batchesSent.incrementAndGet();
+            List<Long> unresolved = aiNoteService.analyzePosts(postIds);
+            completed.addAndGet(postIds.size() - unresolved.size());
+
+            // Fall back to one request per post the batch answer did not cover
+            for (Long postId : unresolved) {
+                batchFallbacks.incrementAndGet();
+                try {
+                    aiNoteService.analyzePost(postId);
+                    completed.incrementAndGet();
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    System.out.println("[AI] Note Generation Failed for post " + postId + ": " + e.getMessage());
+                }
+            }
+        } catch (Exception e) {
+            failed.addAndGet(postIds.size());
+            System.out.println("[AI] Batch Note Generation Failed: " + e.getMessage());
+        } finally {
+            inFlight.decrementAndGet();
+            long now = System.currentTimeMillis();
+            for (Long enqueuedAt : since) {
+                recordLatency(now - enqueuedAt);
+            }
+        }
+    }
+
+    // End-to-end: time spent queued plus the OpenAI round-trip
+    private void recordLatency(long latencyMs) {
+        totalLatencyMs.addAndGet(latencyMs);
+        maxLatencyMs.accumulateAndGet(latencyMs, Math::max);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batchTimer != null) {
+            batchTimer.shutdownNow();
+            flushBatch();
+        }
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(shutdownDrainSeconds, TimeUnit.SECONDS)) {
+                int dropped = executor.shutdownNow().size();
+                System.out.println("[AI] Moderation drain timed out, " + dropped + " posts left unmoderated");
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ------------------- METRICS -------------------
+
+    public Map<String, Object> getStats() {
+        long finished = completed.get() + failed.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("concurrency", concurrency);
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("inFlight", inFlight.get());
+        stats.put("submitted", submitted.get());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        stats.put("rejected", rejected.get());
+        stats.put("avgLatencyMs", finished == 0 ? 0 : totalLatencyMs.get() / finished);
+        stats.put("maxLatencyMs", maxLatencyMs.get());
+        stats.put("batchEnabled", batchEnabled);
+        stats.put("batchesSent", batchesSent.get());
+        stats.put("batchFallbacks", batchFallbacks.get());
+        return stats;
+    }
+}
@@ -7,88 +7,290 @@ import com.community.profession_connect.repository.AiNoteRepository;
 import com.community.profession_connect.repository.PostRepository;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
-@RequiredArgsConstructor
 public class AiNoteService {
 
+    private static final String SINGLE_POST_PROMPT = """
+            You are a content-moderation and fact-checking assistant for a student community app.
+            Given this post, answer in JSON with ONLY this structure:
+            {
+              "auto_delete": true or false,
+              "category": "sexually explicit | hate speech | misinformation | safe | other",
+              "note": "short disclaimer to show under the post"
+            }
+            Important: Posts with images but minimal text are usually safe content sharing. Only flag if explicitly harmful.
+            """;
+
+    private static final String BATCH_PROMPT = """
+            You are a content-moderation and fact-checking assistant for a student community app.
+            You will receive a JSON array of posts, each with "post_id", "content" and "has_image".
+            Judge every post independently and answer in JSON with ONLY this structure:
+            {
+              "verdicts": [
+                {
+                  "post_id": the post_id you were given,
+                  "auto_delete": true or false,
+                  "category": "sexually explicit | hate speech | misinformation | safe | other",
+                  "note": "short disclaimer to show under the post"
+                }
+              ]
+            }
+            Return exactly one verdict per post.
+            Important: Posts with images but minimal text are usually safe content sharing. Only flag if explicitly harmful.
+            """;
+
     private final OpenAIClient openAIClient;
     private final AiNoteRepository aiNoteRepository;
     private final PostRepository postRepository;
     private final ObjectMapper objectMapper;
+    private final PostFeedAssembler postFeedAssembler;
+    private final FeedCache feedCache;
+    private final ModerationVerdictCache verdictCache;
+    private final TransactionTemplate transactionTemplate;
+
+    public AiNoteService(OpenAIClient openAIClient,
+                         AiNoteRepository aiNoteRepository,
+                         PostRepository postRepository,
+                         ObjectMapper objectMapper,
+                         PostFeedAssembler postFeedAssembler,
+                         FeedCache feedCache,
+                         ModerationVerdictCache verdictCache,
+                         PlatformTransactionManager transactionManager) {
+        this.openAIClient = openAIClient;
+        this.aiNoteRepository = aiNoteRepository;
+        this.postRepository = postRepository;
+        this.objectMapper = objectMapper;
+        this.postFeedAssembler = postFeedAssembler;
+        this.feedCache = feedCache;
+        this.verdictCache = verdictCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // ------------------- SINGLE POST -------------------
 
+    /**
+     * Moderates one post. Failures (post missing, OpenAI call or answer unusable) are thrown so
+     * the moderation queue counts them; nothing is written for a post that failed.
+     */
     @Transactional
     public void analyzePost(Long postId) {
+        Post post = postRepository.findById(postId)
+                .orElseThrow(() -> new IllegalArgumentException("Post not found: " + postId));
+
+        if (post.isDeleted()) return;
+
+        // Reposts and copy-pasted text reuse the verdict of an identical earlier post
+        String fingerprint = ModerationVerdictCache.fingerprint(post.getContent(), hasImage(post));
+        Verdict cached = verdictCache.get(fingerprint);
+        if (cached != null) {
+            applyVerdict(post, cached);
+            return;
+        }
+
+        // Build post content description including image info
+        StringBuilder postDescription = new StringBuilder("Post content:\n\"");
+        postDescription.append(post.getContent() != null ? post.getContent() : "");
+        postDescription.append("\"");
+
+        if (hasImage(post)) {
+            postDescription.append("\n[Post includes an image attachment]");
+        }
+
+        JsonNode result = callModel(SINGLE_POST_PROMPT, postDescription.toString());
+
+        Verdict verdict = Verdict.fromJson(result);
+        verdictCache.put(fingerprint, verdict);
+        applyVerdict(post, verdict);
+    }
+
+    // ------------------- MICRO-BATCH -------------------
+
+    /**
+     * Moderates several posts with one chat completion that returns a verdict per post ID.
+     * Each verdict is applied in its own transaction, so one post that fails to save does not
+     * undo the others.
+     *
+     * @return IDs of posts that got no usable verdict (call failed, unparseable answer, post
+     *         missing from the answer) or whose verdict could not be applied; the caller falls
+     *         back to analyzePost for those.
+     */
+    public List<Long> analyzePosts(List<Long> postIds) {
+        List<Long> unresolved = new ArrayList<>();
+        List<Post> pending = new ArrayList<>();
+        for (Post post : postRepository.findAllById(postIds)) {
+            if (post.isDeleted()) {
+                continue;
+            }
+            Verdict cached = verdictCache.get(ModerationVerdictCache.fingerprint(post.getContent(), hasImage(post)));
+            if (cached != null) {
+                applySeparately(post.getId(), cached, unresolved);
+            } else {
+                pending.add(post);
+            }
+        }
+        if (pending.isEmpty()) {
+            return unresolved;
+        }
+
+        Map<Long, Verdict> verdicts;
         try {
-            Post post = postRepository.findById(postId)
-                    .orElseThrow(() -> new IllegalArgumentException("Post not found: " + postId));
-
-            if (post.isDeleted()) return;
-
-            String systemPrompt = """
-                    You are a content-moderation and fact-checking assistant for a student community app.
-                    Given this post, answer in JSON with ONLY this structure:
-                    {
-                      "auto_delete": true or false,
-                      "category": "sexually explicit | hate speech | misinformation | safe | other",
-                      "note": "short disclaimer to show under the post"
-                    }
-                    Important: Posts with images but minimal text are usually safe content sharing. Only flag if explicitly harmful.
-                    """;
-
-            // Build post content description including image info
-            StringBuilder postDescription = new StringBuilder("Post content:\n\"");
-            postDescription.append(post.getContent() != null ? post.getContent() : "");
-            postDescription.append("\"");
-            
-            if (post.getImageUrl() != null && !post.getImageUrl().isEmpty()) {
-                postDescription.append("\n[Post includes an image attachment]");
+            ArrayNode posts = objectMapper.createArrayNode();
+            for (Post post : pending) {
+                ObjectNode item = posts.addObject();
+                item.put("post_id", post.getId());
+                item.put("content", post.getContent() != null ? post.getContent() : "");
+                item.put("has_image", hasImage(post));
             }
 
-            String body = """
-                    {
-                      "model": "gpt-4.1-mini",
-                      "messages": [
-                        { "role": "system", "content": %s },
-                        { "role": "user", "content": %s }
-                      ],
-                      "response_format": { "type": "json_object" }
-                    }
-                    """.formatted(
-                    objectMapper.writeValueAsString(systemPrompt),
-                    objectMapper.writeValueAsString(postDescription.toString())
-            );
-
-            String apiResponse = openAIClient.callApi(body);
-
-            JsonNode root = objectMapper.readTree(apiResponse);
-            JsonNode contentNode = root.path("choices").get(0)
-                    .path("message").path("content");
-
-            JsonNode result = objectMapper.readTree(contentNode.asText());
-
-            boolean autoDelete = result.path("auto_delete").asBoolean(false);
-            String category = result.path("category").asText("safe");
-            String noteText = result.path("note").asText("");
-
-            if (autoDelete) {
-                post.setDeleted(true);
-                postRepository.save(post);
+            JsonNode result = callModel(BATCH_PROMPT, objectMapper.writeValueAsString(posts));
+            verdicts = parseVerdicts(result);
+        } catch (Exception ex) {
+            System.out.println("[AI] analyzePosts failed, falling back to single calls: " + ex.getMessage());
+            verdicts = new HashMap<>();
+        }
+
+        for (Post post : pending) {
+            Verdict verdict = verdicts.get(post.getId());
+            if (verdict == null) {
+                unresolved.add(post.getId());
+            } else {
+                verdictCache.put(ModerationVerdictCache.fingerprint(post.getContent(), hasImage(post)), verdict);
+                applySeparately(post.getId(), verdict, unresolved);
             }
+        }
+        return unresolved;
+    }
 
-            AiNote note = new AiNote();
-            note.setPost(post);
-            note.setCategory(category);
-            note.setNoteText(noteText);
-            note.setAutoDelete(autoDelete);
+    // Re-reads the post inside the transaction: it may have been deleted while the batch waited
+    private void applySeparately(Long postId, Verdict verdict, List<Long> unresolved) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> postRepository.findById(postId)
+                    .filter(post -> !post.isDeleted())
+                    .ifPresent(post -> applyVerdict(post, verdict)));
+        } catch (RuntimeException e) {
+            System.out.println("[AI] Applying verdict to post " + postId + " failed: " + e.getMessage());
+            unresolved.add(postId);
+        }
+    }
+
+    Map<Long, Verdict> parseVerdicts(JsonNode result) {
+        Map<Long, Verdict> verdicts = new HashMap<>();
+        JsonNode items = result.path("verdicts");
+        if (!items.isArray()) {
+            return verdicts;
+        }
+        for (JsonNode item : items) {
+            // A verdict without a decision or a known post ID is treated as missing
+            if (!item.path("post_id").canConvertToLong() || !item.path("auto_delete").isBoolean()) {
+                continue;
+            }
+            verdicts.put(item.path("post_id").asLong(), Verdict.fromJson(item));
+        }
+        return verdicts;
+    }
 
-            aiNoteRepository.save(note);
+    // ------------------- SHARED -------------------
 
-        } catch (Exception ex) {
-            System.out.println("[AI] analyzePost failed: " + ex.getMessage());
+    // Unchecked, so a failed call also rolls back the surrounding transaction
+    private JsonNode callModel(String systemPrompt, String userContent) {
+        try {
+            return requestModel(systemPrompt, userContent);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("OpenAI call failed: " + e.getMessage(), e);
+        }
+    }
+
+    private JsonNode requestModel(String systemPrompt, String userContent) throws Exception {
+        String body = """
+                {
+                  "model": "gpt-4.1-mini",
+                  "messages": [
+                    { "role": "system", "content": %s },
+                    { "role": "user", "content": %s }
+                  ],
+                  "response_format": { "type": "json_object" }
+                }
+                """.formatted(
+                objectMapper.writeValueAsString(systemPrompt),
+                objectMapper.writeValueAsString(userContent)
+        );
+
+        String apiResponse = openAIClient.callApi(body);
+
+        JsonNode root = objectMapper.readTree(apiResponse);
+        JsonNode contentNode = root.path("choices").get(0)
+                .path("message").path("content");
+
+        return objectMapper.readTree(contentNode.asText());
+    }
+
+    private void applyVerdict(Post post, Verdict verdict) {
+        if (verdict.autoDelete) {
+            post.setDeleted(true);
+            postRepository.save(post);
+        }
+
+        AiNote note = new AiNote();
+        note.setPost(post);
+        note.setCategory(verdict.category);
+        note.setNoteText(verdict.noteText);
+        note.setAutoDelete(verdict.autoDelete);
+
+        aiNoteRepository.save(note);
+
+        // Keep the cached feed in step: hide auto-deleted posts, show the new note otherwise
+        if (verdict.autoDelete) {
+            feedCache.evict(post.getProfession(), post.getId());
+        } else {
+            feedCache.refresh(postFeedAssembler.assemble(post, null));
+        }
+    }
+
+    private static boolean hasImage(Post post) {
+        return post.getImageUrl() != null && !post.getImageUrl().isEmpty();
+    }
+
+    static class Verdict {
+        final boolean autoDelete;
+        final String category;
+        final String noteText;
+        // False when a field was missing from the answer and filled with its default
+        final boolean complete;
+
+        Verdict(boolean autoDelete, String category, String noteText) {
+            this(autoDelete, category, noteText, true);
+        }
+
+        private Verdict(boolean autoDelete, String category, String noteText, boolean complete) {
+            this.autoDelete = autoDelete;
+            this.category = category;
+            this.noteText = noteText;
+            this.complete = complete;
+        }
+
+        static Verdict fromJson(JsonNode node) {
+            boolean complete = node.path("auto_delete").isBoolean()
+                    && node.path("category").isTextual()
+                    && node.path("note").isTextual();
+            return new Verdict(
+                    node.path("auto_delete").asBoolean(false),
+                    node.path("category").asText("safe"),
+                    node.path("note").asText(""),
+                    complete);
         }
     }
 }
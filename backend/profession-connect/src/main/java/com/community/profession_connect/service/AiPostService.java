@@ -13,15 +13,21 @@ public class AiPostService {
     private final GeminiService geminiService;
     private final PostRepository postRepository;
     private final UserRepository userRepository;
+    private final PostFeedAssembler postFeedAssembler;
+    private final FeedCache feedCache;
 
     public AiPostService(
             GeminiService geminiService,
             PostRepository postRepository,
-            UserRepository userRepository
+            UserRepository userRepository,
+            PostFeedAssembler postFeedAssembler,
+            FeedCache feedCache
     ) {
         this.geminiService = geminiService;
         this.postRepository = postRepository;
         this.userRepository = userRepository;
+        this.postFeedAssembler = postFeedAssembler;
+        this.feedCache = feedCache;
     }
 
     public Post generateAiPost(String profession, String category) {
@@ -37,7 +43,9 @@ public class AiPostService {
         post.setDeleted(false);
         post.setUser(getSystemUser());
 
-        return postRepository.save(post);
+        Post saved = postRepository.save(post);
+        feedCache.refresh(postFeedAssembler.assemble(saved, null));
+        return saved;
     }
 
     private User getSystemUser() {
@@ -0,0 +1,164 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.model.Connection;
+import com.community.profession_connect.model.ConnectionStatus;
+import com.community.profession_connect.repository.ConnectionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accepted-connection adjacency per user, as a sorted long[] of counterpart ids.
+ *
+ * Presence fan-out and online-status lookups ask "who is this user connected to" on every
+ * transition; this keeps the answer in memory instead of re-running
+ * findAcceptedConnectionsForUser. ConnectionService invalidates both users when a connection
+ * is accepted or removed; entries also expire after ttl-seconds.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConnectionGraphCache {
+
+    private static final long[] NONE = new long[0];
+
+    private final ConnectionRepository connectionRepository;
+
+    @Value("${connections.graph-cache.ttl-seconds:600}")
+    private long ttlSeconds = 600;
+
+    @Value("${connections.graph-cache.max-entries:50000}")
+    private int maxEntries = 50000;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // Access-ordered so the least recently used adjacency is evicted first
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > maxEntries) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // ------------------- LOOKUP -------------------
+
+    /** Ids of the user's accepted connections, sorted ascending. Callers must not modify it. */
+    public long[] getConnectionIds(Long userId) {
+        if (userId == null) {
+            return NONE;
+        }
+        synchronized (this) {
+            Entry entry = entries.get(userId);
+            if (entry != null && !entry.isExpired(ttlSeconds)) {
+                hits.incrementAndGet();
+                return entry.connectionIds;
+            }
+            misses.incrementAndGet();
+        }
+
+        long[] loaded = load(userId);
+        synchronized (this) {
+            entries.put(userId, new Entry(loaded));
+        }
+        return loaded;
+    }
+
+    public boolean areConnected(Long userId, Long otherUserId) {
+        return otherUserId != null && Arrays.binarySearch(getConnectionIds(userId), otherUserId) >= 0;
+    }
+
+    private long[] load(Long userId) {
+        List<Connection> connections = connectionRepository.findAcceptedConnectionsForUser(userId, ConnectionStatus.ACCEPTED);
+        long[] ids = new long[connections.size()];
+        int count = 0;
+        for (Connection connection : connections) {
+            Long requesterId = connection.getRequester().getId();
+            ids[count++] = requesterId.equals(userId) ? connection.getReceiver().getId() : requesterId;
+        }
+        Arrays.sort(ids);
+
+        // Drop duplicates (a pair can hold a request in each direction)
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return distinct == ids.length ? ids : Arrays.copyOf(ids, distinct);
+    }
+
+    // ------------------- INVALIDATION -------------------
+
+    /** Drops both sides of a connection that changed; again after commit so a racing load is not kept. */
+    public void invalidate(Long userId, Long otherUserId) {
+        evict(userId, otherUserId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId, otherUserId);
+                }
+            });
+        }
+    }
+
+    private synchronized void evict(Long userId, Long otherUserId) {
+        if (entries.remove(userId) != null) {
+            invalidations.incrementAndGet();
+        }
+        if (entries.remove(otherUserId) != null) {
+            invalidations.incrementAndGet();
+        }
+    }
+
+    // ------------------- METRICS -------------------
+
+    public synchronized Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        long edges = 0;
+        for (Entry entry : entries.values()) {
+            edges += entry.connectionIds.length;
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("entries", entries.size());
+        stats.put("edges", edges);
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", ttlSeconds);
+        return stats;
+    }
+
+    private static class Entry {
+        private final long[] connectionIds;
+        private final long cachedAt = System.currentTimeMillis();
+
+        private Entry(long[] connectionIds) {
+            this.connectionIds = connectionIds;
+        }
+
+        private boolean isExpired(long ttlSeconds) {
+            return ttlSeconds > 0 && System.currentTimeMillis() - cachedAt > ttlSeconds * 1000;
+        }
+    }
+}
@@ -9,6 +9,7 @@ import com.community.profession_connect.repository.ConnectionRepository;
 import com.community.profession_connect.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Objects;
@@ -24,23 +25,28 @@ public class ConnectionService {
     @Autowired
     private UserRepository userRepository;
 
-    // ADD THIS: Inject NotificationService
     @Autowired
-    private NotificationService notificationService;
+    private UserSummaryCache userSummaryCache;
 
+    @Autowired
+    private ConnectionGraphCache connectionGraphCache;
+
+    // Notifications go through the outbox and are created in the background
+    @Autowired
+    private NotificationOutboxService notificationOutboxService;
+
+    @Transactional
     public String sendConnectionRequest(Long requesterId, Long receiverId) {
         Objects.requireNonNull(requesterId, "Requester ID must not be null");
         Objects.requireNonNull(receiverId, "Receiver ID must not be null");
 
-        Optional<User> requesterOpt = userRepository.findById(requesterId);
-        Optional<User> receiverOpt = userRepository.findById(receiverId);
-
-        if (requesterOpt.isEmpty() || receiverOpt.isEmpty()) {
+        if (userSummaryCache.find(requesterId).isEmpty() || userSummaryCache.find(receiverId).isEmpty()) {
             return "User not found";
         }
 
-        User requester = requesterOpt.get();
-        User receiver = receiverOpt.get();
+        // Only the ids are used below (query parameters and FKs), so no need to load the rows
+        User requester = userRepository.getReferenceById(requesterId);
+        User receiver = userRepository.getReferenceById(receiverId);
 
         // Check if connection already exists in either direction
         List<Connection> existingConnections = connectionRepository.findByRequesterAndReceiverOrReceiverAndRequester(
@@ -59,11 +65,13 @@ public class ConnectionService {
         connectionRepository.save(connection);
 
         // CREATE NOTIFICATION: Notify receiver about connection request
-        notificationService.createConnectionRequestNotification(receiverId, requesterId);
+        notificationOutboxService.recordConnectionRequest(receiverId, requesterId, connection.getId());
 
         return "Connection request sent successfully";
     }
 
+    // One transaction, so the accepted status and its outbox event commit together
+    @Transactional
     public String acceptConnectionRequest(Long connectionId) {
         Objects.requireNonNull(connectionId, "Connection ID must not be null");
 
@@ -81,11 +89,13 @@ public class ConnectionService {
 
         connection.setStatus(ConnectionStatus.ACCEPTED);
         connectionRepository.save(connection);
+        connectionGraphCache.invalidate(connection.getRequester().getId(), connection.getReceiver().getId());
 
         // CREATE NOTIFICATION: Notify requester that their request was accepted
-        notificationService.createConnectionAcceptedNotification(
+        notificationOutboxService.recordConnectionAccepted(
                 connection.getRequester().getId(),
-                connection.getReceiver().getId()
+                connection.getReceiver().getId(),
+                connection.getId()
         );
 
         return "Connection request accepted";
@@ -100,7 +110,9 @@ public class ConnectionService {
             return "Connection not found";
         }
 
+        Connection connection = connectionOpt.get();
         connectionRepository.deleteById(connectionId);
+        connectionGraphCache.invalidate(connection.getRequester().getId(), connection.getReceiver().getId());
         return "Connection request declined";
     }
 
@@ -0,0 +1,110 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.model.ConversationSummary;
+import com.community.profession_connect.model.Message;
+import com.community.profession_connect.repository.ConversationSummaryRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Keeps the materialized inbox (conversation_summaries) in step with the messages table.
+ *
+ * Every message write calls into this service inside the same transaction, so a summary row
+ * never shows a message that was rolled back. The rebuild job recomputes every row from the
+ * messages table; it runs once on startup when the table is empty and, optionally, on a cron.
+ */
+@Service
+public class ConversationSummaryService {
+
+    private final ConversationSummaryRepository conversationSummaryRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // When off, the inbox is computed from the messages table on every request
+    @Value("${messages.inbox.summary-enabled:true}")
+    private boolean enabled = true;
+
+    public ConversationSummaryService(ConversationSummaryRepository conversationSummaryRepository,
+                                      PlatformTransactionManager transactionManager) {
+        this.conversationSummaryRepository = conversationSummaryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Transactional(readOnly = true)
+    public List<ConversationSummary> getInbox(Long ownerId) {
+        return conversationSummaryRepository.findByOwnerIdOrderByLastMessageTimeDesc(ownerId);
+    }
+
+    // ------------------- WRITE PATH -------------------
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onMessageSent(Message message) {
+        Long senderId = message.getSender().getId();
+        Long receiverId = message.getReceiver().getId();
+        String preview = preview(message.getContent());
+
+        conversationSummaryRepository.upsertOnMessage(
+                senderId, receiverId, message.getId(), preview, message.getTimestamp(), 0);
+        conversationSummaryRepository.upsertOnMessage(
+                receiverId, senderId, message.getId(), preview, message.getTimestamp(), 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onMessagesRead(Long receiverId, Long senderId) {
+        conversationSummaryRepository.recountUnread(receiverId, senderId);
+    }
+
+    // Deletes are rare; recomputing the pair handles "was it the latest" and "was it unread" alike
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onMessageDeleted(Long senderId, Long receiverId) {
+        conversationSummaryRepository.deletePair(senderId, receiverId);
+        conversationSummaryRepository.rebuildPair(senderId, receiverId);
+    }
+
+    // ------------------- REBUILD -------------------
+
+    // Runs while the context starts, before the web server takes requests and before the
+    // write-behind flusher (which depends on this bean) starts. A message upserted first would
+    // make the table non-empty and skip the whole backfill. @PostConstruct runs on the raw bean,
+    // so the transaction is opened by hand
+    @PostConstruct
+    public void backfillIfEmpty() {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (conversationSummaryRepository.count() == 0) {
+                int rows = conversationSummaryRepository.rebuildAll();
+                if (rows > 0) {
+                    System.out.println("[Inbox] Backfilled " + rows + " conversation summaries");
+                }
+            }
+        });
+    }
+
+    // Disabled by default ("-"); set a cron to periodically repair drift
+    @Scheduled(cron = "${messages.inbox.summary-rebuild-cron:-}")
+    @Transactional
+    public void rebuildAll() {
+        conversationSummaryRepository.deleteAllSummaries();
+        int rows = conversationSummaryRepository.rebuildAll();
+        System.out.println("[Inbox] Rebuilt " + rows + " conversation summaries");
+    }
+
+    static String preview(String content) {
+        if (content == null) {
+            return "";
+        }
+        return content.length() <= ConversationSummary.PREVIEW_LENGTH
+                ? content
+                : content.substring(0, ConversationSummary.PREVIEW_LENGTH);
+    }
+}
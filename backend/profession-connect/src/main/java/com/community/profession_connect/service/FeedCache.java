@@ -0,0 +1,297 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.dto.PostResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-memory cache of the newest posts of each profession feed.
+ *
+ * Every profession keeps a "window" of its most recent posts as viewer-independent
+ * snapshots (likedByCurrentUser is always false here; the caller overlays it per viewer).
+ * Feed pages that fall inside the window are served from memory. Writes patch the
+ * affected snapshot in place after the surrounding transaction commits, and least
+ * recently used professions are evicted once max-professions is reached.
+ */
+@Component
+public class FeedCache {
+
+    @Value("${feed.cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${feed.cache.window-size:200}")
+    private int windowSize = 200;
+
+    @Value("${feed.cache.max-professions:16}")
+    private int maxProfessions = 16;
+
+    // Bounds staleness from writes made on other nodes
+    @Value("${feed.cache.ttl-seconds:30}")
+    private long ttlSeconds = 30;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong updates = new AtomicLong();
+
+    // Access-ordered so the least recently used profession is evicted first
+    private final Map<String, Window> windows = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Window> eldest) {
+            if (size() > maxProfessions) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    // ------------------- READ -------------------
+
+    /**
+     * Returns up to {@code count} snapshots that follow the cursor (or the newest ones when the
+     * cursor is null), or null when the window cannot answer and the caller must go to the DB.
+     */
+    public synchronized List<PostResponse> slice(String profession, KeysetCursor cursor, int count) {
+        Window window = windows.get(profession);
+        if (window == null || window.isExpired(ttlSeconds)) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        List<PostResponse> page = sliceOf(window, cursor, count);
+        if (page == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return page;
+    }
+
+    /**
+     * The whole feed of a profession, or null unless the window holds every visible post
+     * (feeds longer than window-size are only ever answered page by page).
+     */
+    public List<PostResponse> all(String profession) {
+        return slice(profession, null, Integer.MAX_VALUE);
+    }
+
+    public synchronized boolean contains(String profession) {
+        Window window = windows.get(profession);
+        return window != null && !window.isExpired(ttlSeconds);
+    }
+
+    /**
+     * Stores the newest posts of a profession as loaded from the DB and answers the page that
+     * triggered the load. {@code complete} means the window holds the entire feed.
+     */
+    public synchronized List<PostResponse> storeAndSlice(String profession, List<PostResponse> newestFirst,
+                                                         boolean complete, KeysetCursor cursor, int count) {
+        List<PostResponse> snapshots = new ArrayList<>();
+        for (PostResponse post : newestFirst) {
+            snapshots.add(snapshotOf(post));
+        }
+        Window window = new Window(snapshots, complete);
+        windows.put(profession, window);
+        return sliceOf(window, cursor, count);
+    }
+
+    private static List<PostResponse> sliceOf(Window window, KeysetCursor cursor, int count) {
+        int start = 0;
+        if (cursor != null) {
+            start = window.posts.size();
+            for (int i = 0; i < window.posts.size(); i++) {
+                if (isOlder(window.posts.get(i), cursor.getCreatedAt(), cursor.getId())) {
+                    start = i;
+                    break;
+                }
+            }
+        }
+
+        int end = start + count;
+        if (end > window.posts.size() && !window.complete) {
+            // Deep scroll past the cached window
+            return null;
+        }
+        return new ArrayList<>(window.posts.subList(start, Math.min(end, window.posts.size())));
+    }
+
+    // ------------------- WRITE-THROUGH -------------------
+
+    /**
+     * Brings the cached snapshot of a post in line with {@code post}: replaces it, inserts it
+     * if it now belongs to the window (new or restored post), or drops it if it was soft-deleted.
+     */
+    public void refresh(PostResponse post) {
+        if (!enabled || post == null || post.getProfession() == null) {
+            return;
+        }
+        PostResponse snapshot = snapshotOf(post);
+        afterCommit(() -> applyRefresh(snapshot));
+    }
+
+    /** Removes a post that was hard-deleted or hidden by moderation. */
+    public void evict(String profession, Long postId) {
+        if (!enabled || profession == null || postId == null) {
+            return;
+        }
+        afterCommit(() -> applyEvict(profession, postId));
+    }
+
+    private synchronized void applyRefresh(PostResponse snapshot) {
+        Window window = windows.get(snapshot.getProfession());
+        if (window == null) {
+            return;
+        }
+        updates.incrementAndGet();
+
+        int existing = -1;
+        for (int i = 0; i < window.posts.size(); i++) {
+            if (window.posts.get(i).getId().equals(snapshot.getId())) {
+                existing = i;
+                break;
+            }
+        }
+
+        if (snapshot.isDeleted()) {
+            if (existing >= 0) {
+                window.posts.remove(existing);
+            }
+            return;
+        }
+
+        // Edited, liked, commented: createdAt never changes, so the post keeps its slot
+        if (existing >= 0) {
+            window.posts.set(existing, snapshot);
+            return;
+        }
+
+        int position = window.posts.size();
+        for (int i = 0; i < window.posts.size(); i++) {
+            if (isOlder(window.posts.get(i), snapshot.getCreatedAt(), snapshot.getId())) {
+                position = i;
+                break;
+            }
+        }
+
+        // Beyond the last cached post of an incomplete window: its page is served by the DB
+        if (position == window.posts.size() && !window.complete) {
+            return;
+        }
+
+        window.posts.add(position, snapshot);
+        if (window.posts.size() > windowSize) {
+            window.posts.remove(window.posts.size() - 1);
+            window.complete = false;
+        }
+    }
+
+    private synchronized void applyEvict(String profession, Long postId) {
+        Window window = windows.get(profession);
+        if (window != null && window.posts.removeIf(p -> p.getId().equals(postId))) {
+            updates.incrementAndGet();
+        }
+    }
+
+    // ------------------- VIEWER OVERLAY -------------------
+
+    /** Copy of a snapshot for one viewer, so the shared snapshot is never mutated. */
+    public static PostResponse forViewer(PostResponse snapshot, boolean likedByCurrentUser) {
+        return new PostResponse(
+                snapshot.getId(),
+                snapshot.getContent(),
+                snapshot.getUser(),
+                snapshot.getProfession(),
+                snapshot.getCreatedAt(),
+                snapshot.getLikesCount(),
+                snapshot.getCommentsCount(),
+                likedByCurrentUser,
+                snapshot.getComments(),
+                snapshot.getImageUrl(),
+                snapshot.isDeleted(),
+                snapshot.getAiNotes());
+    }
+
+    private static PostResponse snapshotOf(PostResponse post) {
+        PostResponse snapshot = forViewer(post, false);
+        snapshot.setComments(post.getComments() != null ? List.copyOf(post.getComments()) : List.of());
+        snapshot.setAiNotes(post.getAiNotes() != null ? List.copyOf(post.getAiNotes()) : List.of());
+        return snapshot;
+    }
+
+    // ------------------- METRICS -------------------
+
+    public synchronized Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        int cachedPosts = windows.values().stream().mapToInt(w -> w.posts.size()).sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.put("evictions", evictions.get());
+        stats.put("updates", updates.get());
+        stats.put("professions", windows.size());
+        stats.put("cachedPosts", cachedPosts);
+        stats.put("windowSize", windowSize);
+        stats.put("maxProfessions", maxProfessions);
+        return stats;
+    }
+
+    // ------------------- HELPERS -------------------
+
+    // Feed order is (createdAt DESC, id DESC); true when post sorts after the given position
+    private static boolean isOlder(PostResponse post, LocalDateTime createdAt, Long id) {
+        int byTime = post.getCreatedAt().compareTo(createdAt);
+        return byTime < 0 || (byTime == 0 && post.getId() < id);
+    }
+
+    // Only touch the cache once the DB change is visible to everyone else
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static class Window {
+        private final List<PostResponse> posts;
+        private final long loadedAt = System.currentTimeMillis();
+        private boolean complete;
+
+        private Window(List<PostResponse> posts, boolean complete) {
+            this.posts = posts;
+            this.complete = complete;
+        }
+
+        private boolean isExpired(long ttlSeconds) {
+            return ttlSeconds > 0 && System.currentTimeMillis() - loadedAt > ttlSeconds * 1000;
+        }
+    }
+}
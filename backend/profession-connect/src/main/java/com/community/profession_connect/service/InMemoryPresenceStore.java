@@ -0,0 +1,122 @@
+package com.community.profession_connect.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Default presence store, local to one JVM. Several OnlineUserService instances can share one
+ * of these to stand in for a cluster in tests.
+ */
+@Component
+@ConditionalOnProperty(name = "presence.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryPresenceStore implements PresenceStore {
+
+    private final Map<String, Session> sessions = new HashMap<>();
+    // userId -> number of open sessions; a user is online while present here
+    private final Map<Long, Integer> sessionCounts = new HashMap<>();
+    // Same users as sessionCounts' keys, unboxed for bulk membership checks
+    private final LongHashSet onlineUsers = new LongHashSet(1024);
+
+    @Override
+    public synchronized boolean addSession(String sessionId, Long userId, String nodeId, long now) {
+        Session previous = sessions.put(sessionId, new Session(userId, nodeId, now));
+        if (previous != null) {
+            // Same session registered twice: only refresh it
+            return false;
+        }
+        if (sessionCounts.merge(userId, 1, Integer::sum) > 1) {
+            return false;
+        }
+        onlineUsers.add(userId);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean removeSession(String sessionId, Long userId) {
+        Session removed = sessions.remove(sessionId);
+        return removed != null && release(removed.userId);
+    }
+
+    @Override
+    public synchronized void heartbeat(String nodeId, long now) {
+        for (Session session : sessions.values()) {
+            if (session.nodeId.equals(nodeId)) {
+                session.lastSeen = now;
+            }
+        }
+    }
+
+    @Override
+    public synchronized Set<Long> expireSessions(long cutoff) {
+        Set<Long> wentOffline = new HashSet<>();
+        Iterator<Session> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            Session session = iterator.next();
+            if (session.lastSeen < cutoff) {
+                iterator.remove();
+                if (release(session.userId)) {
+                    wentOffline.add(session.userId);
+                }
+            }
+        }
+        return wentOffline;
+    }
+
+    @Override
+    public synchronized boolean isOnline(Long userId) {
+        return userId != null && onlineUsers.contains(userId);
+    }
+
+    @Override
+    public synchronized Set<Long> getOnlineUsers() {
+        return Set.copyOf(sessionCounts.keySet());
+    }
+
+    @Override
+    public synchronized long[] filterOnline(long[] userIds) {
+        long[] online = new long[userIds.length];
+        int count = 0;
+        for (long userId : userIds) {
+            if (onlineUsers.contains(userId)) {
+                online[count++] = userId;
+            }
+        }
+        long[] result = Arrays.copyOf(online, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    @Override
+    public synchronized int countSessions(Long userId) {
+        return sessionCounts.getOrDefault(userId, 0);
+    }
+
+    // Decrements the user's count; true when it reached zero
+    private boolean release(Long userId) {
+        Integer remaining = sessionCounts.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+        if (remaining != null) {
+            return false;
+        }
+        onlineUsers.remove(userId);
+        return true;
+    }
+
+    private static class Session {
+        private final Long userId;
+        private final String nodeId;
+        private long lastSeen;
+
+        private Session(Long userId, String nodeId, long lastSeen) {
+            this.userId = userId;
+            this.nodeId = nodeId;
+            this.lastSeen = lastSeen;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.model.PresenceSession;
+import com.community.profession_connect.repository.PresenceSessionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Presence shared by every backend node through the presence_sessions table.
+ *
+ * Every change to a user's sessions first locks that user's presence_users row, so changes
+ * for one user run one at a time across nodes, and the remaining sessions are counted with a
+ * locking read that sees what the other nodes committed. Each online and offline transition
+ * is therefore reported exactly once.
+ */
+@Component
+@ConditionalOnProperty(name = "presence.store", havingValue = "jdbc")
+@RequiredArgsConstructor
+public class JdbcPresenceStore implements PresenceStore {
+
+    private final PresenceSessionRepository presenceSessionRepository;
+
+    @Override
+    @Transactional
+    public boolean addSession(String sessionId, Long userId, String nodeId, long now) {
+        presenceSessionRepository.lockUser(userId, now);
+        boolean firstSession = presenceSessionRepository.countLiveSessions(userId) == 0;
+        presenceSessionRepository.save(new PresenceSession(sessionId, userId, nodeId, now));
+        return firstSession;
+    }
+
+    @Override
+    @Transactional
+    public boolean removeSession(String sessionId, Long userId) {
+        presenceSessionRepository.lockUser(userId, System.currentTimeMillis());
+        if (presenceSessionRepository.deleteBySessionId(sessionId) == 0) {
+            return false;
+        }
+        return presenceSessionRepository.countLiveSessions(userId) == 0;
+    }
+
+    @Override
+    @Transactional
+    public void heartbeat(String nodeId, long now) {
+        presenceSessionRepository.touchNode(nodeId, now);
+    }
+
+    @Override
+    @Transactional
+    public Set<Long> expireSessions(long cutoff) {
+        List<Long> affected = presenceSessionRepository.findUsersWithStaleSessions(cutoff);
+        if (affected.isEmpty()) {
+            return Set.of();
+        }
+
+        // Ascending user id, the same order on every node, so two sweeps cannot deadlock
+        List<Long> userIds = new ArrayList<>(new TreeSet<>(affected));
+        long now = System.currentTimeMillis();
+        Set<Long> wentOffline = new HashSet<>();
+        for (Long userId : userIds) {
+            presenceSessionRepository.lockUser(userId, now);
+            if (presenceSessionRepository.deleteStaleForUser(userId, cutoff) > 0
+                    && presenceSessionRepository.countLiveSessions(userId) == 0) {
+                wentOffline.add(userId);
+            }
+        }
+        return wentOffline;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean isOnline(Long userId) {
+        return presenceSessionRepository.existsByUserId(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<Long> getOnlineUsers() {
+        return Set.copyOf(presenceSessionRepository.findOnlineUserIds());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long[] filterOnline(long[] userIds) {
+        if (userIds.length == 0) {
+            return userIds;
+        }
+        List<Long> candidates = new ArrayList<>(userIds.length);
+        for (long userId : userIds) {
+            candidates.add(userId);
+        }
+        long[] online = presenceSessionRepository.findOnlineUserIdsIn(candidates).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+        Arrays.sort(online);
+        return online;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int countSessions(Long userId) {
+        return (int) presenceSessionRepository.countByUserId(userId);
+    }
+}
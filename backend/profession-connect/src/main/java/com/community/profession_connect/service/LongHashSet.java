@@ -0,0 +1,130 @@
+package com.community.profession_connect.service;
+
+import java.util.Arrays;
+
+/**
+ * Set of primitive longs with open addressing and linear probing: one long[] slot per entry
+ * instead of a boxed Long and hash node, so a set of every online user id stays compact.
+ * Not thread-safe; callers synchronize.
+ */
+public class LongHashSet {
+
+    // Ids are positive database keys, so 0 can mark an empty slot
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] slots;
+    private int size;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        slots = new long[capacity];
+    }
+
+    public boolean add(long value) {
+        checkValue(value);
+        int index = indexOf(value, slots);
+        if (slots[index] == value) {
+            return false;
+        }
+        slots[index] = value;
+        size++;
+        if (size > slots.length * LOAD_FACTOR) {
+            resize(slots.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        return value != EMPTY && slots[indexOf(value, slots)] == value;
+    }
+
+    public boolean remove(long value) {
+        if (value == EMPTY) {
+            return false;
+        }
+        int index = indexOf(value, slots);
+        if (slots[index] != value) {
+            return false;
+        }
+        slots[index] = EMPTY;
+        size--;
+
+        // Shift later members of the probe run back so lookups do not stop at the new hole
+        int mask = slots.length - 1;
+        int hole = index;
+        int next = (index + 1) & mask;
+        while (slots[next] != EMPTY) {
+            int home = home(slots[next], mask);
+            boolean movable = hole <= next ? (home <= hole || home > next) : (home <= hole && home > next);
+            if (movable) {
+                slots[hole] = slots[next];
+                slots[next] = EMPTY;
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Members in ascending order. */
+    public long[] toSortedArray() {
+        long[] values = new long[size];
+        int count = 0;
+        for (long slot : slots) {
+            if (slot != EMPTY) {
+                values[count++] = slot;
+            }
+        }
+        Arrays.sort(values);
+        return values;
+    }
+
+    /** Approximate heap footprint of the table. */
+    public long approxBytes() {
+        return 16L + slots.length * 8L;
+    }
+
+    private void resize(int capacity) {
+        long[] resized = new long[capacity];
+        for (long slot : slots) {
+            if (slot != EMPTY) {
+                resized[indexOf(slot, resized)] = slot;
+            }
+        }
+        slots = resized;
+    }
+
+    // Slot holding value, or the empty slot where it would go
+    private static int indexOf(long value, long[] table) {
+        int mask = table.length - 1;
+        int index = home(value, mask);
+        while (table[index] != EMPTY && table[index] != value) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private static int home(long value, int mask) {
+        long mixed = value * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+
+    private static void checkValue(long value) {
+        if (value == EMPTY) {
+            throw new IllegalArgumentException("0 cannot be stored in a LongHashSet");
+        }
+    }
+}
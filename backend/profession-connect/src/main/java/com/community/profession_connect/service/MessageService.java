@@ -1,19 +1,27 @@
 package com.community.profession_connect.service;
 
 import com.community.profession_connect.dto.ConversationResponse;
+import com.community.profession_connect.dto.CursorPageResponse;
 import com.community.profession_connect.dto.MessageRequest;
 import com.community.profession_connect.dto.MessageResponse;
+import com.community.profession_connect.dto.ReadReceipt;
+import com.community.profession_connect.dto.UserSummary;
 import com.community.profession_connect.model.Connection;
 import com.community.profession_connect.model.ConnectionStatus;
+import com.community.profession_connect.model.ConversationSummary;
 import com.community.profession_connect.model.Message;
 import com.community.profession_connect.model.User;
 import com.community.profession_connect.repository.ConnectionRepository;
 import com.community.profession_connect.repository.MessageRepository;
 import com.community.profession_connect.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -32,21 +40,80 @@ public class MessageService {
     @Autowired
     private OnlineUserService onlineUserService;
 
+    @Autowired
+    private ConversationSummaryService conversationSummaryService;
+
+    @Autowired
+    private MessageWriteBehindQueue messageWriteBehindQueue;
+
+    @Autowired
+    private UserSummaryCache userSummaryCache;
+
+    @Autowired
+    private UnreadCounterService unreadCounterService;
+
+    @Value("${messages.page.default-size:50}")
+    private int defaultPageSize = 50;
+
+    @Value("${messages.page.max-size:200}")
+    private int maxPageSize = 200;
+
+    @Value("${messages.pair-key.backfill-batch-size:5000}")
+    private int pairKeyBackfillBatchSize = 5000;
+
     @Transactional
     public MessageResponse sendMessage(MessageRequest request) {
-        User sender = userRepository.findById(request.getSenderId())
+        // Names come from the summary cache; the FKs below are unloaded references
+        UserSummary sender = userSummaryCache.find(request.getSenderId())
                 .orElseThrow(() -> new RuntimeException("Sender not found"));
-        User receiver = userRepository.findById(request.getReceiverId())
+        UserSummary receiver = userSummaryCache.find(request.getReceiverId())
                 .orElseThrow(() -> new RuntimeException("Receiver not found"));
 
+        if (messageWriteBehindQueue.isEnabled()) {
+            MessageResponse queued = enqueueWriteBehind(request, sender, receiver);
+            if (queued != null) {
+                return queued;
+            }
+            // Queue full or journal unavailable: store synchronously below
+        }
+
         Message message = new Message();
-        message.setSender(sender);
-        message.setReceiver(receiver);
+        message.setSender(userRepository.getReferenceById(sender.getId()));
+        message.setReceiver(userRepository.getReferenceById(receiver.getId()));
         message.setContent(request.getContent());
         message.setRead(false);
+        message.setClientMessageId(request.getClientMessageId());
 
         Message savedMessage = messageRepository.save(message);
-        return convertToMessageResponse(savedMessage);
+        conversationSummaryService.onMessageSent(savedMessage);
+        unreadCounterService.onMessagesChanged(receiver.getId(), 1);
+
+        MessageResponse response = newMessageResponse(sender, receiver);
+        response.setId(savedMessage.getId());
+        response.setContent(savedMessage.getContent());
+        response.setTimestamp(savedMessage.getTimestamp());
+        response.setRead(savedMessage.isRead());
+        response.setClientMessageId(savedMessage.getClientMessageId());
+        return response;
+    }
+
+    // Low-latency mode: respond (and push) now, persist in the next write-behind batch
+    private MessageResponse enqueueWriteBehind(MessageRequest request, UserSummary sender, UserSummary receiver) {
+        String clientMessageId = request.getClientMessageId() != null && !request.getClientMessageId().isBlank()
+                ? request.getClientMessageId()
+                : UUID.randomUUID().toString();
+        MessageWriteBehindQueue.PendingMessage pending = new MessageWriteBehindQueue.PendingMessage(
+                clientMessageId, sender.getId(), receiver.getId(), request.getContent(), LocalDateTime.now());
+        if (!messageWriteBehindQueue.offer(pending)) {
+            return null;
+        }
+
+        MessageResponse response = newMessageResponse(sender, receiver);
+        response.setContent(request.getContent());
+        response.setTimestamp(pending.getTimestamp());
+        response.setRead(false);
+        response.setClientMessageId(clientMessageId);
+        return response;
     }
 
     public List<MessageResponse> getConversation(Long userId1, Long userId2) {
@@ -56,21 +123,83 @@ public class MessageService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * One page of a conversation, always in chronological order.
+     *
+     * Without a cursor: the newest messages, nextCursor points further back.
+     * With {@code before}: messages older than it, nextCursor points further back.
+     * With {@code after}: messages newer than it, nextCursor points further forward.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<MessageResponse> getConversationPage(Long userId1, Long userId2,
+                                                                   String before, String after, Integer limit) {
+        boolean hasBefore = before != null && !before.isBlank();
+        boolean hasAfter = after != null && !after.isBlank();
+        if (hasBefore && hasAfter) {
+            throw new IllegalArgumentException("Pass either before or after, not both");
+        }
+
+        int pageSize = (limit == null || limit <= 0) ? defaultPageSize : Math.min(limit, maxPageSize);
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+
+        Long lowId = Math.min(userId1, userId2);
+        Long highId = Math.max(userId1, userId2);
+
+        List<Message> messages;
+        if (hasAfter) {
+            KeysetCursor position = KeysetCursor.decode(after);
+            messages = messageRepository.findConversationAfter(
+                    lowId, highId, position.getCreatedAt(), position.getId(), window);
+        } else if (hasBefore) {
+            KeysetCursor position = KeysetCursor.decode(before);
+            messages = messageRepository.findConversationBefore(
+                    lowId, highId, position.getCreatedAt(), position.getId(), window);
+        } else {
+            messages = messageRepository.findConversationLatest(lowId, highId, window);
+        }
+
+        boolean hasMore = messages.size() > pageSize;
+        if (hasMore) {
+            messages = messages.subList(0, pageSize);
+        }
+
+        // The cursor continues from the far end of the page in the direction of travel
+        String nextCursor = null;
+        if (hasMore) {
+            Message last = messages.get(messages.size() - 1);
+            nextCursor = new KeysetCursor(last.getTimestamp(), last.getId()).encode();
+        }
+
+        List<MessageResponse> items = messages.stream()
+                .map(this::convertToMessageResponse)
+                .collect(Collectors.toCollection(ArrayList::new));
+        if (!hasAfter) {
+            Collections.reverse(items);
+        }
+        return new CursorPageResponse<>(items, nextCursor, hasMore);
+    }
+
     @Transactional
-    public void markMessagesAsRead(Long receiverId, Long senderId) {
-        List<Message> messages = messageRepository.findMessagesBetweenUsers(receiverId, senderId);
-        for (Message message : messages) {
-            if (message.getReceiver().getId().equals(receiverId) && !message.isRead()) {
-                message.setRead(true);
-                messageRepository.save(message);
-            }
+    public ReadReceipt markMessagesAsRead(Long receiverId, Long senderId) {
+        ReadReceipt receipt = new ReadReceipt(receiverId, LocalDateTime.now(), null, 0);
+
+        Long maxUnreadId = messageRepository.findMaxUnreadIdFrom(receiverId, senderId);
+        if (maxUnreadId == null) {
+            return receipt;
         }
+
+        receipt.setReadCount(messageRepository.markReadUpTo(receiverId, senderId, maxUnreadId));
+        receipt.setLastReadMessageId(maxUnreadId);
+        unreadCounterService.onMessagesChanged(receiverId, -receipt.getReadCount());
+        conversationSummaryService.onMessagesRead(receiverId, senderId);
+        return receipt;
     }
 
     public Long getUnreadMessageCount(Long userId) {
-        return messageRepository.countUnreadMessages(userId);
+        return unreadCounterService.getMessageCount(userId);
     }
 
+    @Transactional(readOnly = true)
     public List<ConversationResponse> getConversations(Long userId) {
         try {
             // Get all accepted connections for the user
@@ -94,42 +223,33 @@ public class MessageService {
             }
             
             System.out.println("Extracted " + connectedUsers.size() + " connected users");
-            
+
+            Map<Long, ConversationSummary> summaries = loadSummaries(userId);
+
             List<ConversationResponse> conversations = new ArrayList<>();
-            
+
             for (User user : connectedUsers) {
-                try {
-                    List<Message> lastMessages = messageRepository.findLastMessageBetweenUsers(userId, user.getId());
-                    
-                    ConversationResponse conversation = new ConversationResponse();
-                    conversation.setUserId(user.getId());
-                    conversation.setUserName(user.getName());
-                    conversation.setUserProfileImageUrl(user.getProfileImageUrl());
-                    conversation.setOnline(onlineUserService.isUserOnline(user.getId()));
-                    
-                    if (!lastMessages.isEmpty()) {
-                        Message lastMessage = lastMessages.get(0);
-                        Long unreadCount = messageRepository.countUnreadMessagesFrom(userId, user.getId());
-                        
-                        conversation.setLastMessage(lastMessage.getContent());
-                        conversation.setLastMessageTime(lastMessage.getTimestamp());
-                        conversation.setUnreadCount(unreadCount);
-                    } else {
-                        // User is connected but no messages yet
-                        conversation.setLastMessage("");
-                        conversation.setLastMessageTime(null);
-                        conversation.setUnreadCount(0L);
-                    }
-                    
-                    conversations.add(conversation);
-                    System.out.println("Added conversation for user: " + user.getName() + " (messages: " + !lastMessages.isEmpty() + ")");
-                } catch (Exception e) {
-                    // Log error but continue with other conversations
-                    System.err.println("Error fetching conversation for user " + user.getId() + ": " + e.getMessage());
-                    e.printStackTrace();
+                ConversationResponse conversation = new ConversationResponse();
+                conversation.setUserId(user.getId());
+                conversation.setUserName(user.getName());
+                conversation.setUserProfileImageUrl(user.getProfileImageUrl());
+                conversation.setOnline(onlineUserService.isUserOnline(user.getId()));
+
+                ConversationSummary summary = summaries.get(user.getId());
+                if (summary != null) {
+                    conversation.setLastMessage(summary.getLastMessagePreview());
+                    conversation.setLastMessageTime(summary.getLastMessageTime());
+                    conversation.setUnreadCount(summary.getUnreadCount());
+                } else {
+                    // User is connected but no messages yet
+                    conversation.setLastMessage("");
+                    conversation.setLastMessageTime(null);
+                    conversation.setUnreadCount(0L);
                 }
+
+                conversations.add(conversation);
             }
-            
+
             // Sort: users with messages first (by timestamp DESC), then users without messages (by name ASC)
             conversations.sort((c1, c2) -> {
                 boolean c1HasMessages = c1.getLastMessageTime() != null;
@@ -164,6 +284,66 @@ public class MessageService {
         }
     }
 
+    // Last message and unread count per counterpart, keyed by counterpart ID
+    private Map<Long, ConversationSummary> loadSummaries(Long userId) {
+        Map<Long, ConversationSummary> summaries = new HashMap<>();
+        if (conversationSummaryService.isEnabled()) {
+            for (ConversationSummary summary : conversationSummaryService.getInbox(userId)) {
+                summaries.put(summary.getCounterpartId(), summary);
+            }
+            return summaries;
+        }
+
+        // Fallback: two aggregate queries over the messages table
+        for (MessageRepository.LastMessageView view : messageRepository.findLastMessagePerCounterpart(userId)) {
+            ConversationSummary summary = new ConversationSummary();
+            summary.setOwnerId(userId);
+            summary.setCounterpartId(view.getCounterpartId());
+            summary.setLastMessageId(view.getLastMessageId());
+            summary.setLastMessagePreview(view.getContent());
+            summary.setLastMessageTime(view.getTimestamp());
+            summaries.put(view.getCounterpartId(), summary);
+        }
+        for (MessageRepository.UnreadCountView view : messageRepository.countUnreadPerSender(userId)) {
+            ConversationSummary summary = summaries.get(view.getCounterpartId());
+            if (summary != null) {
+                summary.setUnreadCount(view.getUnreadCount());
+            }
+        }
+        return summaries;
+    }
+
+    // ------------------- CONVERSATION KEY BACKFILL -------------------
+
+    // Rows written before the pair key existed; each chunk commits on its own. Runs while the
+    // context starts, before the web server takes requests, so the conversation queries (which
+    // only look at pair_low_id/pair_high_id) never miss an old message.
+    @PostConstruct
+    public void backfillPairKeys() {
+        long total = 0;
+        int updated;
+        do {
+            updated = messageRepository.backfillPairKeys(pairKeyBackfillBatchSize);
+            total += updated;
+        } while (updated == pairKeyBackfillBatchSize);
+
+        if (total > 0) {
+            System.out.println("[Messages] Backfilled conversation keys for " + total + " messages");
+        }
+    }
+
+    // Sender and receiver details of a just-sent message, without touching the User proxies
+    private static MessageResponse newMessageResponse(UserSummary sender, UserSummary receiver) {
+        MessageResponse response = new MessageResponse();
+        response.setSenderId(sender.getId());
+        response.setSenderName(sender.getName());
+        response.setSenderProfileImageUrl(sender.getProfileImageUrl());
+        response.setReceiverId(receiver.getId());
+        response.setReceiverName(receiver.getName());
+        response.setReceiverProfileImageUrl(receiver.getProfileImageUrl());
+        return response;
+    }
+
     private MessageResponse convertToMessageResponse(Message message) {
         MessageResponse response = new MessageResponse();
         response.setId(message.getId());
@@ -176,6 +356,7 @@ public class MessageService {
         response.setContent(message.getContent());
         response.setTimestamp(message.getTimestamp());
         response.setRead(message.isRead());
+        response.setClientMessageId(message.getClientMessageId());
         return response;
     }
 
@@ -190,7 +371,13 @@ public class MessageService {
         }
         
         Long receiverId = message.getReceiver().getId();
+        boolean wasUnread = !message.isRead();
         messageRepository.delete(message);
+        messageRepository.flush();
+        if (wasUnread) {
+            unreadCounterService.onMessagesChanged(receiverId, -1);
+        }
+        conversationSummaryService.onMessageDeleted(userId, receiverId);
         return receiverId;
     }
 }
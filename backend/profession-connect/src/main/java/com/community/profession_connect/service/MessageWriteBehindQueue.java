@@ -0,0 +1,578 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.dto.MessageAck;
+import com.community.profession_connect.model.Message;
+import com.community.profession_connect.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind persistence for chat messages (messages.write-behind.enabled).
+ *
+ * A message is appended to a local journal file and handed back to the caller, which pushes it
+ * over WebSocket straight away; a single flusher thread stores queued messages with JDBC batch
+ * INSERTs every flush-interval-ms. Rows are deduplicated on client_message_id, so journal
+ * replays after a crash and client resends are stored at most once; any other constraint or data
+ * error fails the message instead of being ignored.
+ *
+ * Each stored message is acknowledged to both parties on /queue/messages/ack/{userId} with its
+ * database id. A batch hit by a data error is retried one message at a time, so only the bad
+ * message fails. Other failures are retried with backoff up to max-attempts. A message that is
+ * not stored gets a FAILED ack on both sides; the sender is expected to resend with the same
+ * clientMessageId.
+ *
+ * The journal rolls over to a new segment every journal-segment-bytes, and segments whose
+ * messages have all been acknowledged are deleted, so it stays bounded under steady traffic and
+ * a restart only replays what was still pending.
+ */
+@Component
+public class MessageWriteBehindQueue {
+
+    // A duplicate client_message_id is a no-op; every other error still fails the statement
+    static final String INSERT_SQL = "INSERT INTO messages " +
+            "(sender_id, receiver_id, content, timestamp, is_read, pair_low_id, pair_high_id, client_message_id) " +
+            "VALUES (?, ?, ?, ?, false, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE id = id";
+
+    public static final String PERSISTED = "PERSISTED";
+    public static final String FAILED = "FAILED";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConversationSummaryService conversationSummaryService;
+    private final UnreadCounterService unreadCounterService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${messages.write-behind.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${messages.write-behind.queue-capacity:100000}")
+    private int queueCapacity = 100000;
+
+    @Value("${messages.write-behind.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${messages.write-behind.flush-interval-ms:50}")
+    private long flushIntervalMs = 50;
+
+    @Value("${messages.write-behind.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${messages.write-behind.journal-path:data/message-journal.log}")
+    private String journalPath = "data/message-journal.log";
+
+    // fsync every append; off trades crash durability for lower send latency
+    @Value("${messages.write-behind.journal-fsync:true}")
+    private boolean journalFsync = true;
+
+    @Value("${messages.write-behind.journal-segment-bytes:8388608}")
+    private long journalSegmentBytes = 8388608;
+
+    private LinkedBlockingQueue<PendingMessage> queue;
+    private ScheduledExecutorService flusher;
+    private FileChannel journal;
+    private final Object journalLock = new Object();
+
+    // Journal positions are counted in messages: the queue is FIFO in journal order, so the
+    // first ackedCount messages ever journaled are stored or given up on
+    private final ArrayDeque<Segment> closedSegments = new ArrayDeque<>();
+    private long nextSegment = 1;
+    private long appendedCount;
+    private volatile long ackedCount;
+
+    // A batch that failed and is waiting for its next attempt; only touched by the flusher thread
+    private List<PendingMessage> retryBatch = Collections.emptyList();
+    private int retryAttempts;
+
+    // Messages replayed from the journal at start, stored ahead of the queue. Unbounded: the journal
+    // keeps messages until they are acked, so it can hold more than queueCapacity and a bounded put
+    // would block start() before the flusher exists. Filled before the flusher starts, then only
+    // drained by it; concurrent so getStats can count it
+    private final ConcurrentLinkedQueue<PendingMessage> replayed = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong totalFlushMs = new AtomicLong();
+    private final AtomicLong maxFlushMs = new AtomicLong();
+
+    public MessageWriteBehindQueue(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   ConversationSummaryService conversationSummaryService,
+                                   UnreadCounterService unreadCounterService,
+                                   SimpMessagingTemplate messagingTemplate,
+                                   ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.conversationSummaryService = conversationSummaryService;
+        this.unreadCounterService = unreadCounterService;
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+
+        Path path = Paths.get(journalPath);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        replayJournal(path);
+        journal = openJournal();
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable ->
+                new Thread(runnable, "message-write-behind"));
+        flusher.scheduleWithFixedDelay(this::flushSafely, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // ------------------- ENQUEUE -------------------
+
+    /**
+     * Journals a message and queues it for the next batch. Returns false when the queue is full;
+     * the caller should then store the message synchronously.
+     */
+    public boolean offer(PendingMessage message) {
+        synchronized (journalLock) {
+            if (queue.remainingCapacity() == 0) {
+                rejected.incrementAndGet();
+                return false;
+            }
+            try {
+                appendToJournal(message);
+            } catch (IOException e) {
+                System.out.println("[Messages] Journal write failed, storing synchronously: " + e.getMessage());
+                rejected.incrementAndGet();
+                return false;
+            }
+            queue.add(message);
+        }
+        enqueued.incrementAndGet();
+        return true;
+    }
+
+    // Caller holds journalLock
+    private void appendToJournal(PendingMessage message) throws IOException {
+        if (journalSegmentBytes > 0 && journal.size() >= journalSegmentBytes) {
+            rollJournal();
+        }
+        byte[] line = (objectMapper.writeValueAsString(message) + "\n").getBytes(StandardCharsets.UTF_8);
+        journal.write(ByteBuffer.wrap(line));
+        if (journalFsync) {
+            journal.force(false);
+        }
+        appendedCount++;
+    }
+
+    // The active file becomes closed segment journal-path.N; new appends go to a fresh file
+    private void rollJournal() throws IOException {
+        journal.force(false);
+        journal.close();
+        Path closed = segmentPath(nextSegment++);
+        Files.move(Paths.get(journalPath), closed, StandardCopyOption.ATOMIC_MOVE);
+        closedSegments.addLast(new Segment(closed, appendedCount));
+        journal = openJournal();
+    }
+
+    private FileChannel openJournal() throws IOException {
+        return FileChannel.open(Paths.get(journalPath),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path segmentPath(long segment) {
+        return Paths.get(journalPath + "." + segment);
+    }
+
+    // Closed segments oldest first, then the active file
+    private void replayJournal(Path path) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        Path dir = path.toAbsolutePath().getParent();
+        String prefix = path.getFileName() + ".";
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, prefix + "*")) {
+            for (Path file : files) {
+                String suffix = file.getFileName().toString().substring(prefix.length());
+                if (suffix.matches("\\d+")) {
+                    segments.add(Long.parseLong(suffix));
+                }
+            }
+        }
+        Collections.sort(segments);
+
+        long before = appendedCount;
+        for (Long segment : segments) {
+            replayFile(segmentPath(segment));
+            closedSegments.addLast(new Segment(segmentPath(segment), appendedCount));
+            nextSegment = segment + 1;
+        }
+        replayFile(path);
+        if (appendedCount > before) {
+            System.out.println("[Messages] Replaying " + (appendedCount - before) + " journaled messages");
+        }
+    }
+
+    private void replayFile(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                replayed.add(objectMapper.readValue(line, PendingMessage.class));
+                appendedCount++;
+            } catch (IOException e) {
+                // A torn last line from a crash mid-append; that message was never pushed either
+                System.out.println("[Messages] Skipping unreadable journal entry: " + e.getMessage());
+            }
+        }
+    }
+
+    // ------------------- FLUSH -------------------
+
+    private void flushSafely() {
+        try {
+            while (flushOnce()) {
+                // keep draining while full batches are waiting
+            }
+        } catch (Exception e) {
+            System.out.println("[Messages] Write-behind flush failed: " + e.getMessage());
+        }
+    }
+
+    /** Stores one batch; returns true if another full batch may be waiting. */
+    boolean flushOnce() {
+        List<PendingMessage> batch;
+        if (!retryBatch.isEmpty()) {
+            batch = retryBatch;
+        } else {
+            batch = new ArrayList<>(batchSize);
+            // Replayed messages were journaled first, so they go first to keep journal order
+            while (batch.size() < batchSize && !replayed.isEmpty()) {
+                batch.add(replayed.poll());
+            }
+            queue.drainTo(batch, batchSize - batch.size());
+            if (batch.isEmpty()) {
+                truncateJournalIfDrained();
+                return false;
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            Map<String, Long> ids = transactionTemplate.execute(status -> persist(batch));
+            recordFlush(System.currentTimeMillis() - start);
+            retryBatch = Collections.emptyList();
+            retryAttempts = 0;
+            acknowledge(batch, ids);
+            releaseJournal(batch.size());
+            return batch.size() == batchSize;
+        } catch (DataIntegrityViolationException e) {
+            // A deleted receiver or oversized content: retrying the batch would fail the same way
+            failedBatches.incrementAndGet();
+            persistIndividually(batch);
+            return false;
+        } catch (RuntimeException e) {
+            failedBatches.incrementAndGet();
+            retryAttempts++;
+            if (retryAttempts >= maxAttempts) {
+                System.out.println("[Messages] Giving up on " + batch.size() + " messages after "
+                        + retryAttempts + " attempts: " + e.getMessage());
+                retryBatch = Collections.emptyList();
+                retryAttempts = 0;
+                batch.forEach(this::fail);
+                releaseJournal(batch.size());
+                return false;
+            }
+            retryBatch = batch;
+            backoff();
+            return false;
+        }
+    }
+
+    /**
+     * Stores messages one per transaction after a batch hit a data error. A message that fails
+     * on its own data gets FAILED; any other error sends the rest back to the retry path.
+     */
+    private void persistIndividually(List<PendingMessage> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            List<PendingMessage> single = List.of(batch.get(i));
+            try {
+                Map<String, Long> ids = transactionTemplate.execute(status -> persist(single));
+                acknowledge(single, ids);
+            } catch (DataIntegrityViolationException e) {
+                System.out.println("[Messages] Not storing message " + batch.get(i).getClientMessageId()
+                        + ": " + e.getMostSpecificCause().getMessage());
+                fail(batch.get(i));
+            } catch (RuntimeException e) {
+                retryBatch = new ArrayList<>(batch.subList(i, batch.size()));
+                retryAttempts = 1;
+                releaseJournal(i);
+                backoff();
+                return;
+            }
+        }
+        retryBatch = Collections.emptyList();
+        retryAttempts = 0;
+        releaseJournal(batch.size());
+    }
+
+    private Map<String, Long> persist(List<PendingMessage> batch) {
+        // Stored by an earlier attempt or before a restart: acknowledged, but not counted again
+        Map<String, Long> existing = findIds(batch);
+
+        List<PendingMessage> fresh = new ArrayList<>(batch.size());
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (PendingMessage message : batch) {
+            if (existing.containsKey(message.getClientMessageId())) {
+                duplicates.incrementAndGet();
+                continue;
+            }
+            fresh.add(message);
+            rows.add(new Object[]{
+                    message.getSenderId(),
+                    message.getReceiverId(),
+                    message.getContent(),
+                    Timestamp.valueOf(message.getTimestamp()),
+                    Math.min(message.getSenderId(), message.getReceiverId()),
+                    Math.max(message.getSenderId(), message.getReceiverId()),
+                    message.getClientMessageId()
+            });
+        }
+        if (fresh.isEmpty()) {
+            return existing;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+
+        Map<String, Long> ids = new HashMap<>(existing);
+        ids.putAll(findIds(fresh));
+        // One counter update per receiver instead of one per message
+        Map<Long, Long> unreadDeltas = new HashMap<>();
+        for (PendingMessage pending : fresh) {
+            Long id = ids.get(pending.getClientMessageId());
+            if (id != null) {
+                conversationSummaryService.onMessageSent(toMessage(pending, id));
+                unreadDeltas.merge(pending.getReceiverId(), 1L, Long::sum);
+            }
+        }
+        unreadDeltas.forEach(unreadCounterService::onMessagesChanged);
+        return ids;
+    }
+
+    private Map<String, Long> findIds(List<PendingMessage> batch) {
+        StringBuilder sql = new StringBuilder("SELECT id, client_message_id FROM messages WHERE client_message_id IN (");
+        Object[] args = new Object[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+            args[i] = batch.get(i).getClientMessageId();
+        }
+        sql.append(")");
+
+        Map<String, Long> ids = new HashMap<>();
+        for (Map<String, Object> row : jdbcTemplate.queryForList(sql.toString(), args)) {
+            ids.put((String) row.get("client_message_id"), ((Number) row.get("id")).longValue());
+        }
+        return ids;
+    }
+
+    private void acknowledge(List<PendingMessage> batch, Map<String, Long> ids) {
+        for (PendingMessage message : batch) {
+            Long id = ids.get(message.getClientMessageId());
+            if (id == null) {
+                // The batch committed without this row: it was not stored
+                fail(message);
+                continue;
+            }
+            persisted.incrementAndGet();
+            MessageAck ack = new MessageAck(message.getClientMessageId(), id, PERSISTED);
+            messagingTemplate.convertAndSend("/queue/messages/ack/" + message.getSenderId(), ack);
+            messagingTemplate.convertAndSend("/queue/messages/ack/" + message.getReceiverId(), ack);
+        }
+    }
+
+    // The receiver already has the message from the push, so it has to learn about the drop too
+    private void fail(PendingMessage message) {
+        dropped.incrementAndGet();
+        MessageAck ack = new MessageAck(message.getClientMessageId(), null, FAILED);
+        messagingTemplate.convertAndSend("/queue/messages/ack/" + message.getSenderId(), ack);
+        messagingTemplate.convertAndSend("/queue/messages/ack/" + message.getReceiverId(), ack);
+    }
+
+    // The next {@code count} journaled messages are settled; drop segments that hold only settled ones
+    private void releaseJournal(int count) {
+        synchronized (journalLock) {
+            ackedCount += count;
+            while (!closedSegments.isEmpty() && closedSegments.peekFirst().endCount <= ackedCount) {
+                Segment segment = closedSegments.pollFirst();
+                try {
+                    Files.deleteIfExists(segment.path);
+                } catch (IOException e) {
+                    System.out.println("[Messages] Journal segment delete failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void truncateJournalIfDrained() {
+        synchronized (journalLock) {
+            // Everything journaled so far is stored or given up on
+            if (queue.isEmpty() && replayed.isEmpty() && retryBatch.isEmpty() && ackedCount == appendedCount) {
+                try {
+                    if (journal.size() > 0) {
+                        journal.truncate(0);
+                    }
+                } catch (IOException e) {
+                    System.out.println("[Messages] Journal truncate failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void backoff() {
+        try {
+            Thread.sleep(flushIntervalMs * (1L << Math.min(retryAttempts, 6)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void recordFlush(long elapsedMs) {
+        flushes.incrementAndGet();
+        totalFlushMs.addAndGet(elapsedMs);
+        maxFlushMs.accumulateAndGet(elapsedMs, Math::max);
+    }
+
+    private static Message toMessage(PendingMessage pending, Long id) {
+        User sender = new User();
+        sender.setId(pending.getSenderId());
+        User receiver = new User();
+        receiver.setId(pending.getReceiverId());
+
+        Message message = new Message();
+        message.setId(id);
+        message.setSender(sender);
+        message.setReceiver(receiver);
+        message.setContent(pending.getContent());
+        message.setTimestamp(pending.getTimestamp());
+        message.setClientMessageId(pending.getClientMessageId());
+        return message;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+            // Store what is left; anything that still fails stays in the journal for the next start
+            while (!queue.isEmpty() || !replayed.isEmpty() || !retryBatch.isEmpty()) {
+                long before = persisted.get() + dropped.get();
+                flushOnce();
+                if (persisted.get() + dropped.get() == before && !retryBatch.isEmpty()) {
+                    break;
+                }
+            }
+            journal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.out.println("[Messages] Journal close failed: " + e.getMessage());
+        }
+    }
+
+    // ------------------- METRICS -------------------
+
+    public Map<String, Object> getStats() {
+        long flushCount = flushes.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("queueDepth", queue == null ? 0 : queue.size() + replayed.size());
+        stats.put("enqueued", enqueued.get());
+        stats.put("persisted", persisted.get());
+        stats.put("duplicates", duplicates.get());
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("dropped", dropped.get());
+        stats.put("rejected", rejected.get());
+        stats.put("flushes", flushCount);
+        stats.put("avgFlushMs", flushCount == 0 ? 0 : totalFlushMs.get() / flushCount);
+        stats.put("maxFlushMs", maxFlushMs.get());
+        synchronized (journalLock) {
+            stats.put("journalSegments", closedSegments.size() + 1);
+        }
+        return stats;
+    }
+
+    private static class Segment {
+        private final Path path;
+        // appendedCount when the segment was closed: its last message is number endCount
+        private final long endCount;
+
+        private Segment(Path path, long endCount) {
+            this.path = path;
+            this.endCount = endCount;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PendingMessage {
+        private String clientMessageId;
+        private Long senderId;
+        private Long receiverId;
+        private String content;
+        private LocalDateTime timestamp;
+    }
+}
@@ -0,0 +1,172 @@
+package com.community.profession_connect.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers recent moderation verdicts by content fingerprint so reposts and copy-pasted
+ * announcements are not sent to OpenAI again.
+ *
+ * The fingerprint is a SHA-256 of the post text with whitespace collapsed and case folded,
+ * plus whether the post has an image. Entries expire after ttl-seconds; the least recently
+ * used ones are dropped once max-entries or the approximate max-memory-kb is exceeded.
+ */
+@Component
+public class ModerationVerdictCache {
+
+    // Rough per-entry cost of the map node, key string and Verdict object
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    @Value("${ai.moderation.verdict-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${ai.moderation.verdict-cache.ttl-seconds:3600}")
+    private long ttlSeconds = 3600;
+
+    @Value("${ai.moderation.verdict-cache.max-entries:10000}")
+    private int maxEntries = 10000;
+
+    @Value("${ai.moderation.verdict-cache.max-memory-kb:4096}")
+    private long maxMemoryKb = 4096;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    // Access-ordered so the least recently used verdict is evicted first
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long approxBytes;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ------------------- FINGERPRINT -------------------
+
+    public static String fingerprint(String content, boolean hasImage) {
+        String normalized = content == null ? ""
+                : content.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(normalized.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) (hasImage ? 1 : 0));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ------------------- LOOKUP -------------------
+
+    /** Returns the cached verdict for a fingerprint, or null on a miss. */
+    public synchronized AiNoteService.Verdict get(String fingerprint) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry = entries.get(fingerprint);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.isExpired(ttlSeconds)) {
+            remove(fingerprint);
+            expirations.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.verdict;
+    }
+
+    /** Stores a verdict; one patched up from defaults is used once but never reused. */
+    public synchronized void put(String fingerprint, AiNoteService.Verdict verdict) {
+        if (!enabled || verdict == null) {
+            return;
+        }
+        if (!verdict.complete) {
+            skipped.incrementAndGet();
+            return;
+        }
+        remove(fingerprint);
+
+        Entry entry = new Entry(verdict, sizeOf(fingerprint, verdict));
+        entries.put(fingerprint, entry);
+        approxBytes += entry.bytes;
+
+        Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || approxBytes > maxMemoryKb * 1024) && eldest.hasNext()) {
+            Map.Entry<String, Entry> next = eldest.next();
+            if (next.getValue() == entry) {
+                break;
+            }
+            approxBytes -= next.getValue().bytes;
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private void remove(String fingerprint) {
+        Entry removed = entries.remove(fingerprint);
+        if (removed != null) {
+            approxBytes -= removed.bytes;
+        }
+    }
+
+    private static long sizeOf(String fingerprint, AiNoteService.Verdict verdict) {
+        long chars = fingerprint.length()
+                + (verdict.category != null ? verdict.category.length() : 0)
+                + (verdict.noteText != null ? verdict.noteText.length() : 0);
+        return ENTRY_OVERHEAD_BYTES + chars * 2;
+    }
+
+    // ------------------- METRICS -------------------
+
+    public synchronized Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.put("expirations", expirations.get());
+        stats.put("evictions", evictions.get());
+        stats.put("skippedIncomplete", skipped.get());
+        stats.put("entries", entries.size());
+        stats.put("approxMemoryKb", approxBytes / 1024);
+        stats.put("maxEntries", maxEntries);
+        stats.put("maxMemoryKb", maxMemoryKb);
+        stats.put("ttlSeconds", ttlSeconds);
+        return stats;
+    }
+
+    private static class Entry {
+        private final AiNoteService.Verdict verdict;
+        private final long bytes;
+        private final long cachedAt = System.currentTimeMillis();
+
+        private Entry(AiNoteService.Verdict verdict, long bytes) {
+            this.verdict = verdict;
+            this.bytes = bytes;
+        }
+
+        private boolean isExpired(long ttlSeconds) {
+            return ttlSeconds > 0 && System.currentTimeMillis() - cachedAt > ttlSeconds * 1000;
+        }
+    }
+}
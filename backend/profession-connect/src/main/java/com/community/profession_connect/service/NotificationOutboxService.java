@@ -0,0 +1,257 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.model.NotificationOutboxEvent;
+import com.community.profession_connect.model.NotificationType;
+import com.community.profession_connect.repository.NotificationOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactional outbox for notifications: likes, comments and connection changes record a
+ * small event row in their own transaction, and a background dispatcher turns pending events
+ * into notifications (and, after commit, WebSocket pushes) in batches.
+ *
+ * Delivery is at-least-once: a batch that fails is rolled back and retried event by event;
+ * an event that keeps failing is set aside after max-attempts with its last error. Each event
+ * carries an idempotency key, unique in the table, so recording the same like twice is a
+ * no-op, and the notification and the processed mark commit together, so a retried event
+ * never creates a second notification. Pending rows are locked with SKIP LOCKED, so several
+ * instances can dispatch side by side.
+ */
+@Service
+public class NotificationOutboxService {
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    // When off, notifications are created synchronously in the caller's transaction
+    @Value("${notifications.outbox.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${notifications.outbox.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${notifications.outbox.max-batches-per-poll:50}")
+    private int maxBatchesPerPoll = 50;
+
+    @Value("${notifications.outbox.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${notifications.outbox.processed-retention-hours:24}")
+    private long processedRetentionHours = 24;
+
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong purged = new AtomicLong();
+    private final AtomicLong maxBatchMs = new AtomicLong();
+
+    public NotificationOutboxService(NotificationOutboxRepository outboxRepository,
+                                     NotificationService notificationService,
+                                     PlatformTransactionManager transactionManager) {
+        this.outboxRepository = outboxRepository;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // ------------------- RECORD -------------------
+
+    // A like, unlike and like again within the retention window notifies once
+    @Transactional
+    public void recordLike(Long postOwnerId, Long likerId, Long postId) {
+        record("LIKE:" + postId + ":" + likerId, NotificationType.LIKE, postOwnerId, likerId, postId);
+    }
+
+    @Transactional
+    public void recordComment(Long postOwnerId, Long commenterId, Long postId, Long commentId) {
+        record("COMMENT:" + commentId, NotificationType.COMMENT, postOwnerId, commenterId, postId);
+    }
+
+    @Transactional
+    public void recordConnectionRequest(Long receiverId, Long requesterId, Long connectionId) {
+        record("CONNECTION_REQUEST:" + connectionId, NotificationType.CONNECTION_REQUEST, receiverId, requesterId, null);
+    }
+
+    @Transactional
+    public void recordConnectionAccepted(Long requesterId, Long accepterId, Long connectionId) {
+        record("CONNECTION_ACCEPTED:" + connectionId, NotificationType.CONNECTION_ACCEPTED, requesterId, accepterId, null);
+    }
+
+    private void record(String idempotencyKey, NotificationType type, Long userId, Long actorId, Long entityId) {
+        if (!enabled) {
+            create(type, userId, actorId, entityId);
+            return;
+        }
+        int rows = outboxRepository.insertIgnore(idempotencyKey, type.name(), userId, actorId, entityId, LocalDateTime.now());
+        if (rows == 0) {
+            duplicates.incrementAndGet();
+        } else {
+            recorded.incrementAndGet();
+        }
+    }
+
+    // ------------------- DISPATCH -------------------
+
+    @Scheduled(fixedDelayString = "${notifications.outbox.poll-interval-ms:500}")
+    public void scheduledDispatch() {
+        if (enabled) {
+            dispatchPending();
+        }
+    }
+
+    /** Drains pending events, up to max-batches-per-poll; returns the number dispatched. */
+    public synchronized int dispatchPending() {
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerPoll; i++) {
+            int count = dispatchBatch();
+            total += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    // Events dispatched by this batch; fewer than batch-size ends the poll, so a failing event
+    // waits for the next poll instead of using up its attempts at once
+    private int dispatchBatch() {
+        long started = System.currentTimeMillis();
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> {
+                List<Long> locked = outboxRepository.lockPendingIds(batchSize);
+                if (locked.isEmpty()) {
+                    return locked;
+                }
+                for (NotificationOutboxEvent event : outboxRepository.findByIds(locked)) {
+                    create(event.getType(), event.getUserId(), event.getActorId(), event.getRelatedEntityId());
+                }
+                outboxRepository.markProcessed(locked, LocalDateTime.now());
+                return locked;
+            });
+        } catch (RuntimeException e) {
+            // One bad event must not hold up the rest: retry the batch one event at a time
+            failedBatches.incrementAndGet();
+            System.out.println("[NotificationOutbox] Batch failed, retrying events one by one: " + e.getMessage());
+            return dispatchIndividually();
+        }
+
+        if (ids == null || ids.isEmpty()) {
+            return 0;
+        }
+        batches.incrementAndGet();
+        dispatched.addAndGet(ids.size());
+        maxBatchMs.accumulateAndGet(System.currentTimeMillis() - started, Math::max);
+        return ids.size();
+    }
+
+    private int dispatchIndividually() {
+        List<Long> ids = transactionTemplate.execute(status -> outboxRepository.lockPendingIds(batchSize));
+        if (ids == null) {
+            return 0;
+        }
+        int done = 0;
+        for (Long id : ids) {
+            if (dispatchOne(id)) {
+                done++;
+            }
+        }
+        return done;
+    }
+
+    private boolean dispatchOne(Long id) {
+        try {
+            Boolean done = transactionTemplate.execute(status -> {
+                // Re-lock: another instance may have taken it once the batch lock was released
+                if (outboxRepository.lockPendingId(id).isEmpty()) {
+                    return false;
+                }
+                NotificationOutboxEvent event = outboxRepository.findById(id).orElse(null);
+                if (event == null) {
+                    return false;
+                }
+                create(event.getType(), event.getUserId(), event.getActorId(), event.getRelatedEntityId());
+                outboxRepository.markProcessed(List.of(id), LocalDateTime.now());
+                return true;
+            });
+            if (Boolean.TRUE.equals(done)) {
+                dispatched.incrementAndGet();
+                return true;
+            }
+        } catch (RuntimeException e) {
+            failedAttempts.incrementAndGet();
+            transactionTemplate.executeWithoutResult(status -> recordFailure(id, e.getMessage()));
+        }
+        return false;
+    }
+
+    private void recordFailure(Long id, String error) {
+        outboxRepository.findById(id).ifPresent(event -> {
+            event.setAttempts(event.getAttempts() + 1);
+            event.setLastError(error != null && error.length() > 255 ? error.substring(0, 255) : error);
+            if (event.getAttempts() >= maxAttempts) {
+                // Kept with its error for inspection, no longer retried
+                event.setProcessedAt(LocalDateTime.now());
+                deadLettered.incrementAndGet();
+                System.out.println("[NotificationOutbox] Giving up on event " + id + " (" + event.getIdempotencyKey()
+                        + ") after " + event.getAttempts() + " attempts: " + error);
+            }
+            outboxRepository.save(event);
+        });
+    }
+
+    private void create(NotificationType type, Long userId, Long actorId, Long entityId) {
+        switch (type) {
+            case LIKE -> notificationService.createLikeNotification(userId, actorId, entityId);
+            case COMMENT -> notificationService.createCommentNotification(userId, actorId, entityId);
+            case CONNECTION_REQUEST -> notificationService.createConnectionRequestNotification(userId, actorId);
+            case CONNECTION_ACCEPTED -> notificationService.createConnectionAcceptedNotification(userId, actorId);
+            default -> throw new IllegalStateException("Unsupported outbox notification type " + type);
+        }
+    }
+
+    // ------------------- PURGE -------------------
+
+    @Scheduled(cron = "${notifications.outbox.purge-cron:0 15 * * * *}")
+    public void purgeProcessed() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(processedRetentionHours);
+        int rows;
+        do {
+            rows = transactionTemplate.execute(status -> outboxRepository.deleteProcessedBefore(cutoff, batchSize));
+            purged.addAndGet(rows);
+        } while (rows == batchSize);
+    }
+
+    // ------------------- METRICS -------------------
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("recorded", recorded.get());
+        stats.put("duplicates", duplicates.get());
+        stats.put("dispatched", dispatched.get());
+        stats.put("pending", outboxRepository.countPending());
+        stats.put("batches", batches.get());
+        stats.put("maxBatchMs", maxBatchMs.get());
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("failedAttempts", failedAttempts.get());
+        stats.put("deadLettered", deadLettered.get());
+        stats.put("purged", purged.get());
+        return stats;
+    }
+}
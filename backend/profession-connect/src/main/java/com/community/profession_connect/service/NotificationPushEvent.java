@@ -0,0 +1,16 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.dto.NotificationDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+// Published by NotificationService when a user's notifications change; notification is null
+// when only the unread count moved (read, read-all, delete)
+@Getter
+@AllArgsConstructor
+@ToString
+public class NotificationPushEvent {
+    private final Long userId;
+    private final NotificationDTO notification;
+}
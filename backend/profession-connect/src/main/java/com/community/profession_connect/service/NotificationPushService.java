@@ -0,0 +1,80 @@
+package com.community.profession_connect.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessagingException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes notification changes to the affected user so the client does not have to poll.
+ *
+ * Runs after the surrounding transaction commits, so a like or connection request that is
+ * rolled back never reaches the client. New notifications go to /queue/notifications/{userId};
+ * the fresh unread count goes to /queue/notifications/{userId}/unread-count with the same
+ * {"count": n} body as the REST endpoint. Clients that were disconnected catch up through
+ * GET /api/notifications/{userId}/since.
+ */
+@Service
+public class NotificationPushService {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final UnreadCounterService unreadCounterService;
+    // The count is read after the event's transaction committed; joining that finished transaction
+    // would lose the counter row a user's first read inserts, so the read gets its own
+    private final TransactionTemplate countTransaction;
+
+    @Value("${notifications.push.enabled:true}")
+    private boolean enabled = true;
+
+    private final AtomicLong notificationsPushed = new AtomicLong();
+    private final AtomicLong countsPushed = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+
+    public NotificationPushService(SimpMessagingTemplate messagingTemplate,
+                                   UnreadCounterService unreadCounterService,
+                                   PlatformTransactionManager transactionManager) {
+        this.messagingTemplate = messagingTemplate;
+        this.unreadCounterService = unreadCounterService;
+        this.countTransaction = new TransactionTemplate(transactionManager);
+        this.countTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Without a transaction (e.g. called from a non-transactional path) the push happens right away
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onNotificationChanged(NotificationPushEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Long userId = event.getUserId();
+        try {
+            if (event.getNotification() != null) {
+                messagingTemplate.convertAndSend("/queue/notifications/" + userId, event.getNotification());
+                notificationsPushed.incrementAndGet();
+            }
+            Long count = countTransaction.execute(status -> unreadCounterService.getNotificationCount(userId));
+            messagingTemplate.convertAndSend("/queue/notifications/" + userId + "/unread-count", Map.of("count", count));
+            countsPushed.incrementAndGet();
+        } catch (MessagingException e) {
+            // The row is committed; the client picks it up on its next catch-up
+            failures.incrementAndGet();
+            System.out.println("[NotificationPush] Failed to push to user " + userId + ": " + e.getMessage());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("notificationsPushed", notificationsPushed.get());
+        stats.put("countsPushed", countsPushed.get());
+        stats.put("failures", failures.get());
+        return stats;
+    }
+}
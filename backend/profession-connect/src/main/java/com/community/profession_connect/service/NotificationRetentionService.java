@@ -0,0 +1,163 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prunes read notifications older than read-max-age-days so the live table stays small.
+ *
+ * Works in batches of batch-size rows, each in its own short transaction, with a pause in
+ * between, so no run holds locks on the table for long. mode=archive copies each batch into
+ * notifications_archive before deleting it; mode=delete drops it. A run stops after
+ * max-batches-per-run and the rest waits for the next run. Unread notifications are never
+ * touched.
+ */
+@Service
+public class NotificationRetentionService {
+
+    public static final String MODE_ARCHIVE = "archive";
+    public static final String MODE_DELETE = "delete";
+
+    private final NotificationRepository notificationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${notifications.retention.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${notifications.retention.mode:archive}")
+    private String mode = MODE_ARCHIVE;
+
+    @Value("${notifications.retention.read-max-age-days:90}")
+    private int readMaxAgeDays = 90;
+
+    @Value("${notifications.retention.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${notifications.retention.max-batches-per-run:200}")
+    private int maxBatchesPerRun = 200;
+
+    @Value("${notifications.retention.batch-pause-ms:50}")
+    private long batchPauseMs = 50;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalPurged = new AtomicLong();
+    private final AtomicLong totalArchived = new AtomicLong();
+    private final AtomicLong failedRuns = new AtomicLong();
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public NotificationRetentionService(NotificationRepository notificationRepository,
+                                        PlatformTransactionManager transactionManager) {
+        this.notificationRepository = notificationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(cron = "${notifications.retention.cron:0 30 3 * * *}")
+    public void scheduledRun() {
+        if (enabled) {
+            runOnce();
+        }
+    }
+
+    /** One retention pass; returns the number of rows removed from the live table. */
+    public synchronized long runOnce() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long started = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(readMaxAgeDays);
+        boolean archive = MODE_ARCHIVE.equalsIgnoreCase(mode);
+
+        long purged = 0;
+        long archived = 0;
+        int batches = 0;
+        long maxBatchMs = 0;
+        String error = null;
+        try {
+            while (batches < maxBatchesPerRun) {
+                long batchStarted = System.currentTimeMillis();
+                int[] result = transactionTemplate.execute(status -> purgeBatch(cutoff, archive));
+                maxBatchMs = Math.max(maxBatchMs, System.currentTimeMillis() - batchStarted);
+                if (result == null || result[0] == 0) {
+                    break;
+                }
+                batches++;
+                purged += result[0];
+                archived += result[1];
+                if (result[0] < batchSize) {
+                    break;
+                }
+                if (batchPauseMs > 0) {
+                    Thread.sleep(batchPauseMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "interrupted";
+        } catch (RuntimeException e) {
+            // Committed batches stay committed; the rest is picked up by the next run
+            failedRuns.incrementAndGet();
+            error = e.getMessage();
+            System.out.println("[NotificationRetention] Run failed after " + purged + " rows: " + e.getMessage());
+        }
+
+        long durationMs = System.currentTimeMillis() - started;
+        runs.incrementAndGet();
+        totalPurged.addAndGet(purged);
+        totalArchived.addAndGet(archived);
+
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("startedAt", startedAt.toString());
+        run.put("cutoff", cutoff.toString());
+        run.put("mode", archive ? MODE_ARCHIVE : MODE_DELETE);
+        run.put("purged", purged);
+        run.put("archived", archived);
+        run.put("batches", batches);
+        run.put("durationMs", durationMs);
+        run.put("maxBatchMs", maxBatchMs);
+        run.put("complete", error == null && batches < maxBatchesPerRun);
+        if (error != null) {
+            run.put("error", error);
+        }
+        lastRun = run;
+
+        if (purged > 0) {
+            System.out.println("[NotificationRetention] Removed " + purged + " read notifications older than "
+                    + readMaxAgeDays + " days in " + batches + " batches, " + durationMs + " ms");
+        }
+        return purged;
+    }
+
+    // { rows removed, rows archived }
+    private int[] purgeBatch(LocalDateTime cutoff, boolean archive) {
+        List<Long> ids = notificationRepository.lockExpiredReadIds(cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return new int[]{0, 0};
+        }
+        int archived = archive ? notificationRepository.archiveByIds(ids, LocalDateTime.now()) : 0;
+        notificationRepository.deleteGroupActors(ids);
+        int deleted = notificationRepository.deleteByIds(ids);
+        return new int[]{deleted, archived};
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("mode", mode);
+        stats.put("readMaxAgeDays", readMaxAgeDays);
+        stats.put("batchSize", batchSize);
+        stats.put("runs", runs.get());
+        stats.put("failedRuns", failedRuns.get());
+        stats.put("totalPurged", totalPurged.get());
+        stats.put("totalArchived", totalArchived.get());
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+}
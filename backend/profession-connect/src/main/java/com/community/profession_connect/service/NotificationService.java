@@ -1,12 +1,19 @@
 package com.community.profession_connect.service;
 
+import com.community.profession_connect.dto.CursorPageResponse;
 import com.community.profession_connect.dto.NotificationDTO;
+import com.community.profession_connect.dto.UserSummary;
 import com.community.profession_connect.model.*;
 import com.community.profession_connect.repository.NotificationRepository;
 import com.community.profession_connect.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -16,8 +23,32 @@ public class NotificationService {
 
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
+    private final UserSummaryCache userSummaryCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UnreadCounterService unreadCounterService;
 
-    // Get all notifications for a user
+    @Value("${notifications.catch-up.default-size:50}")
+    private int defaultCatchUpSize = 50;
+
+    @Value("${notifications.catch-up.max-size:200}")
+    private int maxCatchUpSize = 200;
+
+    @Value("${notifications.page.default-size:20}")
+    private int defaultPageSize = 20;
+
+    @Value("${notifications.page.max-size:100}")
+    private int maxPageSize = 100;
+
+    @Value("${notifications.aggregation.enabled:true}")
+    private boolean aggregationEnabled = true;
+
+    @Value("${notifications.aggregation.window-minutes:1440}")
+    private long aggregationWindowMinutes = 1440;
+
+    @Value("${notifications.aggregation.recent-actors:5}")
+    private int recentActors = 5;
+
+    // Get all notifications for a user (unbounded; the feed uses getNotificationsPage)
     public List<NotificationDTO> getUserNotifications(Long userId) {
         List<Notification> notifications = notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
         return notifications.stream()
@@ -25,33 +56,115 @@ public class NotificationService {
                 .collect(Collectors.toList());
     }
 
+    /** Newest notifications first; pass nextCursor back as {@code cursor} to load older ones. */
+    public CursorPageResponse<NotificationDTO> getNotificationsPage(Long userId, String cursor, Integer limit) {
+        int pageSize = (limit == null || limit <= 0) ? defaultPageSize : Math.min(limit, maxPageSize);
+
+        // Fetch one extra row to know whether another page exists
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+        List<Notification> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = notificationRepository.findPageHead(userId, window);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            rows = notificationRepository.findPageAfter(userId, position.getCreatedAt(), position.getId(), window);
+        }
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Notification last = rows.get(rows.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        List<NotificationDTO> items = rows.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        return new CursorPageResponse<>(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Reconnect catch-up: the user's notifications created or updated after {@code after}, oldest
+     * first. The position is (createdAt, id) rather than the id alone, because an aggregate that
+     * folds a new event keeps its id but moves createdAt forward. nextCursor is the position of the
+     * last row of the page; pass it back until hasMore is false. Without a position every
+     * notification is returned.
+     */
+    public CursorPageResponse<NotificationDTO> getNotificationsSince(Long userId, KeysetCursor after, Integer limit) {
+        int pageSize = (limit == null || limit <= 0) ? defaultCatchUpSize : Math.min(limit, maxCatchUpSize);
+
+        // One row past the page tells whether there is more
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+        List<Notification> rows = after == null
+                ? notificationRepository.findChangedSinceHead(userId, window)
+                : notificationRepository.findChangedSince(userId, after.getCreatedAt(), after.getId(), window);
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        String nextCursor = after == null ? null : after.encode();
+        if (!rows.isEmpty()) {
+            Notification last = rows.get(rows.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        List<NotificationDTO> items = rows.stream()
+                .map(this::convertToDTO)
+                .collect(Collectors.toList());
+        return new CursorPageResponse<>(items, nextCursor, hasMore);
+    }
+
     // Mark a notification as read
     @Transactional
     public NotificationDTO markAsRead(Long notificationId) {
         Notification notification = notificationRepository.findById(notificationId)
                 .orElseThrow(() -> new RuntimeException("Notification not found"));
+        boolean wasUnread = !Boolean.TRUE.equals(notification.getIsRead());
         notification.setIsRead(true);
+        notification.setGroupKey(null);
         notificationRepository.save(notification);
+        if (wasUnread) {
+            unreadCounterService.onNotificationsChanged(notification.getUser().getId(), -1);
+            eventPublisher.publishEvent(new NotificationPushEvent(notification.getUser().getId(), null));
+        }
         return convertToDTO(notification);
     }
 
     // Mark all notifications as read
     @Transactional
     public void markAllAsRead(Long userId) {
-        notificationRepository.markAllAsReadByUserId(userId);
+        int read = notificationRepository.markAllAsReadByUserId(userId);
+        unreadCounterService.onNotificationsChanged(userId, -read);
+        eventPublisher.publishEvent(new NotificationPushEvent(userId, null));
     }
 
     // Delete a notification
     @Transactional
     public void deleteNotification(Long notificationId) {
-        notificationRepository.deleteById(notificationId);
+        notificationRepository.findById(notificationId).ifPresent(notification -> {
+            notificationRepository.deleteGroupActors(List.of(notification.getId()));
+            notificationRepository.delete(notification);
+            if (!Boolean.TRUE.equals(notification.getIsRead())) {
+                unreadCounterService.onNotificationsChanged(notification.getUser().getId(), -1);
+                eventPublisher.publishEvent(new NotificationPushEvent(notification.getUser().getId(), null));
+            }
+        });
     }
 
-    // Get unread count
+    // Get unread count (maintained counter, not a COUNT over notifications)
     public Long getUnreadCount(Long userId) {
-        return notificationRepository.countUnreadByUserId(userId);
+        return unreadCounterService.getNotificationCount(userId);
     }
 
+    // The create* methods get ids their callers have already resolved, so user and actor are
+    // unloaded references: the INSERT only needs the foreign keys. The pushed copy takes the
+    // actor from the summary cache instead of initializing the reference.
+
     // Create a like notification
     @Transactional
     public void createLikeNotification(Long postOwnerId, Long likerId, Long postId) {
@@ -59,11 +172,13 @@ public class NotificationService {
         if (postOwnerId.equals(likerId)) {
             return;
         }
+        if (aggregationEnabled) {
+            aggregate(NotificationType.LIKE, "liked your post", postOwnerId, likerId, postId);
+            return;
+        }
 
-        User postOwner = userRepository.findById(postOwnerId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        User liker = userRepository.findById(likerId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User postOwner = userRepository.getReferenceById(postOwnerId);
+        User liker = userRepository.getReferenceById(likerId);
 
         Notification notification = new Notification();
         notification.setType(NotificationType.LIKE);
@@ -73,7 +188,7 @@ public class NotificationService {
         notification.setRelatedEntityId(postId);
         notification.setIsRead(false);
 
-        notificationRepository.save(notification);
+        saveAndPush(notification, likerId);
     }
 
     // Create a comment notification
@@ -83,11 +198,13 @@ public class NotificationService {
         if (postOwnerId.equals(commenterId)) {
             return;
         }
+        if (aggregationEnabled) {
+            aggregate(NotificationType.COMMENT, "commented on your post", postOwnerId, commenterId, postId);
+            return;
+        }
 
-        User postOwner = userRepository.findById(postOwnerId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        User commenter = userRepository.findById(commenterId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User postOwner = userRepository.getReferenceById(postOwnerId);
+        User commenter = userRepository.getReferenceById(commenterId);
 
         Notification notification = new Notification();
         notification.setType(NotificationType.COMMENT);
@@ -97,16 +214,14 @@ public class NotificationService {
         notification.setRelatedEntityId(postId);
         notification.setIsRead(false);
 
-        notificationRepository.save(notification);
+        saveAndPush(notification, commenterId);
     }
 
     // Create a connection accepted notification
     @Transactional
     public void createConnectionAcceptedNotification(Long requesterId, Long accepterId) {
-        User requester = userRepository.findById(requesterId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        User accepter = userRepository.findById(accepterId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User requester = userRepository.getReferenceById(requesterId);
+        User accepter = userRepository.getReferenceById(accepterId);
 
         Notification notification = new Notification();
         notification.setType(NotificationType.CONNECTION_ACCEPTED);
@@ -115,16 +230,14 @@ public class NotificationService {
         notification.setActor(accepter);
         notification.setIsRead(false);
 
-        notificationRepository.save(notification);
+        saveAndPush(notification, accepterId);
     }
 
     // Create a connection request notification
     @Transactional
     public void createConnectionRequestNotification(Long receiverId, Long requesterId) {
-        User receiver = userRepository.findById(receiverId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        User requester = userRepository.findById(requesterId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        User receiver = userRepository.getReferenceById(receiverId);
+        User requester = userRepository.getReferenceById(requesterId);
 
         Notification notification = new Notification();
         notification.setType(NotificationType.CONNECTION_REQUEST);
@@ -133,25 +246,93 @@ public class NotificationService {
         notification.setActor(requester);
         notification.setIsRead(false);
 
+        saveAndPush(notification, requesterId);
+    }
+
+    /**
+     * Folds a LIKE/COMMENT into the recipient's open notification for the same post and time
+     * window ("Alice and 41 others liked your post"), so a popular post costs one row per window
+     * instead of one per event. The upsert locks the group row, so concurrent folds run one at a
+     * time; notification_actors records who is already counted, so a repeat actor (unlike and
+     * like again, a second comment) only moves to the front of the recent actors.
+     */
+    private void aggregate(NotificationType type, String message, Long userId, Long actorId, Long entityId) {
+        long bucket = System.currentTimeMillis() / (aggregationWindowMinutes * 60_000L);
+        String groupKey = type + ":" + entityId + ":" + bucket;
+        int rows = notificationRepository.upsertAggregate(type.name(), message, LocalDateTime.now(), entityId,
+                userId, actorId, String.valueOf(actorId), groupKey, recentActors);
+
+        // MySQL reports 1 for a new row and 2 for a fold into an open one; only a new row is a new unread
+        if (rows == 1) {
+            unreadCounterService.onNotificationsChanged(userId, 1);
+        }
+
+        // A new row already counts its first actor
+        notificationRepository.findOpenGroupId(userId, groupKey).ifPresent(notificationId -> {
+            if (notificationRepository.addGroupActor(notificationId, actorId) == 1 && rows != 1) {
+                notificationRepository.incrementActorCount(notificationId);
+            }
+        });
+
+        // Re-read the folded row: the push carries its id, count and recent actors
+        notificationRepository.findOpenGroup(userId, groupKey).ifPresent(notification ->
+                eventPublisher.publishEvent(new NotificationPushEvent(userId, convertToDTO(notification))));
+    }
+
+    private void saveAndPush(Notification notification, Long actorId) {
         notificationRepository.save(notification);
+        unreadCounterService.onNotificationsChanged(notification.getUser().getId(), 1);
+
+        NotificationDTO dto = toDTO(notification);
+        dto.setActor(actorSummary(actorId));
+        // Delivered by NotificationPushService once this transaction commits
+        eventPublisher.publishEvent(new NotificationPushEvent(notification.getUser().getId(), dto));
     }
 
     // Convert entity to DTO
     private NotificationDTO convertToDTO(Notification notification) {
+        NotificationDTO dto = toDTO(notification);
+
+        NotificationDTO.ActorDTO actorDTO = new NotificationDTO.ActorDTO();
+        actorDTO.setId(notification.getActor().getId());
+        actorDTO.setName(notification.getActor().getName());
+        actorDTO.setProfileImageUrl(notification.getActor().getProfileImageUrl());
+        dto.setActor(actorDTO);
+
+        return dto;
+    }
+
+    private NotificationDTO toDTO(Notification notification) {
         NotificationDTO dto = new NotificationDTO();
         dto.setId(notification.getId());
         dto.setType(notification.getType());
-        dto.setMessage(notification.getMessage());
         dto.setIsRead(notification.getIsRead());
         dto.setCreatedAt(notification.getCreatedAt());
         dto.setRelatedEntityId(notification.getRelatedEntityId());
 
-        NotificationDTO.ActorDTO actorDTO = new NotificationDTO.ActorDTO();
-        actorDTO.setId(notification.getActor().getId());
-        actorDTO.setName(notification.getActor().getName());
-        actorDTO.setProfileImageUrl(notification.getActor().getProfileImageUrl());
-        dto.setActor(actorDTO);
+        // Rendered after the latest actor's name: "and 41 others liked your post"
+        int actorCount = notification.getActorCount() != null ? notification.getActorCount() : 1;
+        dto.setActorCount(actorCount);
+        dto.setMessage(actorCount > 1
+                ? "and " + (actorCount - 1) + (actorCount == 2 ? " other " : " others ") + notification.getMessage()
+                : notification.getMessage());
 
+        List<NotificationDTO.ActorDTO> recent = new ArrayList<>();
+        if (notification.getRecentActorIds() != null) {
+            for (String id : notification.getRecentActorIds().split(",")) {
+                if (!id.isBlank()) {
+                    recent.add(actorSummary(Long.valueOf(id.trim())));
+                }
+            }
+        }
+        dto.setRecentActors(recent);
         return dto;
     }
-}
\ No newline at end of file
+
+    private NotificationDTO.ActorDTO actorSummary(Long actorId) {
+        UserSummary actor = userSummaryCache.find(actorId).orElse(null);
+        return actor != null
+                ? new NotificationDTO.ActorDTO(actor.getId(), actor.getName(), actor.getProfileImageUrl())
+                : new NotificationDTO.ActorDTO(actorId, null, null);
+    }
+}
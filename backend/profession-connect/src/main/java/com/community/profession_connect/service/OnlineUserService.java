@@ -1,35 +1,174 @@
 package com.community.profession_connect.service;
 
+import com.community.profession_connect.dto.CursorPageResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Presence for this backend node, backed by a (possibly shared) PresenceStore.
+ *
+ * Every WebSocket session is counted separately, so a user stays online until their last tab
+ * closes. Sessions belong to the node that accepted them; the node heartbeats them every
+ * heartbeat-interval-ms, and any node drops sessions not heartbeated for session-ttl-ms, which
+ * clears presence left behind by a crashed node. Online/offline transitions are published as
+ * PresenceChangeEvent.
+ */
 @Service
 public class OnlineUserService {
 
-    // ConcurrentKeySet is thread-safe and efficient
-    private final Set<Long> onlineUsers = ConcurrentHashMap.newKeySet();
+    private final PresenceStore presenceStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConnectionGraphCache connectionGraphCache;
+
+    @Value("${presence.session-ttl-ms:35000}")
+    private long sessionTtlMs = 35000;
+
+    @Value("${presence.snapshot.default-size:500}")
+    private int defaultSnapshotSize = 500;
+
+    @Value("${presence.snapshot.max-size:1000}")
+    private int maxSnapshotSize = 1000;
+
+    private final String nodeId;
+
+    private final AtomicLong connects = new AtomicLong();
+    private final AtomicLong disconnects = new AtomicLong();
+    private final AtomicLong expiredUsers = new AtomicLong();
+
+    public OnlineUserService(PresenceStore presenceStore,
+                             ApplicationEventPublisher eventPublisher,
+                             ConnectionGraphCache connectionGraphCache,
+                             @Value("${presence.node-id:}") String nodeId) {
+        this.presenceStore = presenceStore;
+        this.eventPublisher = eventPublisher;
+        this.connectionGraphCache = connectionGraphCache;
+        // Fresh id per start, so sessions a crashed run left behind simply expire
+        this.nodeId = nodeId == null || nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    // ------------------- SESSIONS -------------------
 
-    public void userConnected(Long userId) {
-        if (userId != null) {
-            onlineUsers.add(userId);
-            System.out.println("User connected: " + userId + ", Total online: " + onlineUsers.size());
+    public void sessionConnected(Long userId, String sessionId) {
+        if (userId == null || sessionId == null) {
+            return;
+        }
+        connects.incrementAndGet();
+        if (presenceStore.addSession(sessionId, userId, nodeId, System.currentTimeMillis())) {
+            System.out.println("[Presence] User online: " + userId);
+            eventPublisher.publishEvent(new PresenceChangeEvent(userId, true));
         }
     }
 
-    public void userDisconnected(Long userId) {
-        if (userId != null) {
-            onlineUsers.remove(userId);
-            System.out.println("User disconnected: " + userId + ", Total online: " + onlineUsers.size());
+    public void sessionDisconnected(Long userId, String sessionId) {
+        if (userId == null || sessionId == null) {
+            return;
+        }
+        disconnects.incrementAndGet();
+        if (presenceStore.removeSession(sessionId, userId)) {
+            System.out.println("[Presence] User offline: " + userId);
+            eventPublisher.publishEvent(new PresenceChangeEvent(userId, false));
         }
     }
 
     public boolean isUserOnline(Long userId) {
-        return userId != null && onlineUsers.contains(userId);
+        return userId != null && presenceStore.isOnline(userId);
+    }
+
+    /** The online members of {@code userIds}, sorted ascending, in one store lookup. */
+    public long[] filterOnline(long[] userIds) {
+        return presenceStore.filterOnline(userIds);
     }
 
     // Fix: Expose this so Controller can send the initial list to Frontend
     public Set<Long> getOnlineUsers() {
-        return Set.copyOf(onlineUsers);
+        return presenceStore.getOnlineUsers();
+    }
+
+    /**
+     * Online ids among the user's accepted connections, or among {@code requestedIds} when given,
+     * in ascending order and paged by the last id of the previous page.
+     */
+    public CursorPageResponse<Long> getOnlineSnapshot(Long userId, List<Long> requestedIds, String after, Integer limit) {
+        long[] candidates;
+        if (requestedIds != null && !requestedIds.isEmpty()) {
+            if (requestedIds.size() > maxSnapshotSize) {
+                throw new IllegalArgumentException("At most " + maxSnapshotSize + " ids per request");
+            }
+            candidates = requestedIds.stream().filter(Objects::nonNull).mapToLong(Long::longValue).distinct().toArray();
+        } else {
+            candidates = connectionGraphCache.getConnectionIds(userId);
+        }
+
+        long afterId = 0;
+        if (after != null && !after.isBlank()) {
+            try {
+                afterId = Long.parseLong(after);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+        }
+
+        int pageSize = (limit == null || limit <= 0) ? defaultSnapshotSize : Math.min(limit, maxSnapshotSize);
+        long[] online = presenceStore.filterOnline(candidates);
+
+        int start = 0;
+        while (start < online.length && online[start] <= afterId) {
+            start++;
+        }
+        int end = Math.min(online.length, start + pageSize);
+
+        List<Long> items = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            items.add(online[i]);
+        }
+        boolean hasMore = end < online.length;
+        String nextCursor = hasMore ? String.valueOf(online[end - 1]) : null;
+        return new CursorPageResponse<>(items, nextCursor, hasMore);
+    }
+
+    // ------------------- HEARTBEAT / EXPIRY -------------------
+
+    @Scheduled(fixedDelayString = "${presence.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        heartbeat(System.currentTimeMillis());
+    }
+
+    void heartbeat(long now) {
+        presenceStore.heartbeat(nodeId, now);
+
+        for (Long userId : presenceStore.expireSessions(now - sessionTtlMs)) {
+            expiredUsers.incrementAndGet();
+            System.out.println("[Presence] Expired stale sessions, user offline: " + userId);
+            eventPublisher.publishEvent(new PresenceChangeEvent(userId, false));
+        }
+    }
+
+    // ------------------- METRICS -------------------
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("nodeId", nodeId);
+        stats.put("store", presenceStore.getClass().getSimpleName());
+        stats.put("onlineUsers", presenceStore.getOnlineUsers().size());
+        stats.put("connects", connects.get());
+        stats.put("disconnects", disconnects.get());
+        stats.put("expiredUsers", expiredUsers.get());
+        stats.put("sessionTtlMs", sessionTtlMs);
+        return stats;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,175 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.dto.AiNoteDTO;
+import com.community.profession_connect.dto.CommentResponse;
+import com.community.profession_connect.dto.PostResponse;
+import com.community.profession_connect.model.AiNote;
+import com.community.profession_connect.model.Comment;
+import com.community.profession_connect.model.Post;
+import com.community.profession_connect.repository.AiNoteRepository;
+import com.community.profession_connect.repository.CommentRepository;
+import com.community.profession_connect.repository.PostLikeRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Turns a page of posts into PostResponse objects.
+ *
+ * Likes by the current user, comment previews and AI notes are loaded for the whole page
+ * with a fixed number of set-based queries and stitched together in memory, so the number
+ * of round-trips does not grow with the number of posts. Only the newest few comments of
+ * each post are embedded; the full list is paged through /api/posts/{postId}/comments.
+ */
+@Component
+@RequiredArgsConstructor
+public class PostFeedAssembler {
+
+    private final PostLikeRepository postLikeRepository;
+    private final CommentRepository commentRepository;
+    private final AiNoteRepository aiNoteRepository;
+
+    @Value("${feed.comments.preview-size:3}")
+    private int commentPreviewSize = 3;
+
+    public List<PostResponse> assemble(List<Post> posts, Long currentUserId) {
+        if (posts.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> postIds = posts.stream()
+                .map(Post::getId)
+                .collect(Collectors.toList());
+
+        // 1) Likes by the current user
+        Set<Long> likedPostIds = currentUserId == null
+                ? Collections.emptySet()
+                : new HashSet<>(postLikeRepository.findLikedPostIds(currentUserId, postIds));
+
+        // 2) Newest comments of each post, grouped per post
+        Map<Long, List<CommentResponse>> commentsByPost = new LinkedHashMap<>();
+        for (Comment comment : loadCommentPreviews(postIds)) {
+            commentsByPost.computeIfAbsent(comment.getPost().getId(), id -> new ArrayList<>())
+                    .add(toCommentResponse(comment));
+        }
+
+        // 3) AI notes grouped per post
+        Map<Long, List<AiNoteDTO>> notesByPost = new LinkedHashMap<>();
+        for (AiNote note : aiNoteRepository.findByPostIdIn(postIds)) {
+            notesByPost.computeIfAbsent(note.getPost().getId(), id -> new ArrayList<>())
+                    .add(toAiNoteDTO(note));
+        }
+
+        return posts.stream()
+                .map(post -> toPostResponse(
+                        post,
+                        likedPostIds.contains(post.getId()),
+                        commentsByPost.getOrDefault(post.getId(), new ArrayList<>()),
+                        notesByPost.getOrDefault(post.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    public PostResponse assemble(Post post, Long currentUserId) {
+        return assemble(List.of(post), currentUserId).get(0);
+    }
+
+    /**
+     * Per-viewer copies of cached, viewer-independent snapshots with likedByCurrentUser
+     * filled in by a single query for the whole page.
+     */
+    public List<PostResponse> overlayViewer(List<PostResponse> snapshots, Long currentUserId) {
+        if (snapshots.isEmpty() || currentUserId == null) {
+            return snapshots.stream()
+                    .map(snapshot -> FeedCache.forViewer(snapshot, false))
+                    .collect(Collectors.toList());
+        }
+
+        List<Long> postIds = snapshots.stream()
+                .map(PostResponse::getId)
+                .collect(Collectors.toList());
+        Set<Long> likedPostIds = new HashSet<>(postLikeRepository.findLikedPostIds(currentUserId, postIds));
+
+        return snapshots.stream()
+                .map(snapshot -> FeedCache.forViewer(snapshot, likedPostIds.contains(snapshot.getId())))
+                .collect(Collectors.toList());
+    }
+
+    private List<Comment> loadCommentPreviews(List<Long> postIds) {
+        if (commentPreviewSize <= 0) {
+            return new ArrayList<>();
+        }
+        List<Long> previewIds = commentRepository.findPreviewCommentIds(postIds, commentPreviewSize);
+        if (previewIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return commentRepository.findWithUserByIdIn(previewIds);
+    }
+
+    // ------------------- MAPPING -------------------
+
+    private PostResponse toPostResponse(Post post,
+                                        boolean likedByCurrentUser,
+                                        List<CommentResponse> comments,
+                                        List<AiNoteDTO> aiNotes) {
+        PostResponse response = new PostResponse();
+        response.setId(post.getId());
+        response.setContent(post.getContent());
+        response.setProfession(post.getProfession());
+        response.setCreatedAt(post.getCreatedAt());
+        response.setLikesCount(post.getLikesCount());
+        response.setImageUrl(post.getImageUrl());
+
+        // 🔥 AI moderation flag (soft delete)
+        response.setDeleted(post.isDeleted());
+
+        // User info
+        PostResponse.UserInfo userInfo = new PostResponse.UserInfo();
+        userInfo.setId(post.getUser().getId());
+        userInfo.setName(post.getUser().getName());
+        userInfo.setEmail(post.getUser().getEmail());
+        userInfo.setProfession(post.getUser().getProfession());
+        response.setUser(userInfo);
+
+        response.setLikedByCurrentUser(likedByCurrentUser);
+
+        // Denormalized on Post (maintained by PostService.addComment), not comments.size()
+        response.setCommentsCount(post.getCommentsCount() != null ? post.getCommentsCount() : 0);
+        response.setComments(comments);
+
+        response.setAiNotes(aiNotes);
+
+        return response;
+    }
+
+    public CommentResponse toCommentResponse(Comment comment) {
+        CommentResponse response = new CommentResponse();
+        response.setId(comment.getId());
+        response.setContent(comment.getContent());
+        response.setCreatedAt(comment.getCreatedAt());
+
+        CommentResponse.UserInfo userInfo = new CommentResponse.UserInfo();
+        userInfo.setId(comment.getUser().getId());
+        userInfo.setName(comment.getUser().getName());
+        response.setUser(userInfo);
+
+        return response;
+    }
+
+    private AiNoteDTO toAiNoteDTO(AiNote note) {
+        return new AiNoteDTO(
+                note.getNoteText(),
+                note.getCategory(),
+                note.isAutoDelete(),
+                note.getCreatedAt() != null ? note.getCreatedAt().toString() : ""
+        );
+    }
+}
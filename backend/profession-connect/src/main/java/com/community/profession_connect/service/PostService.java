@@ -1,24 +1,26 @@
 // /backend/profession-connect/src/main/java/com/community/profession_connect/service/PostService.java
 package com.community.profession_connect.service;
 
-import com.community.profession_connect.dto.AiNoteDTO;
 import com.community.profession_connect.dto.CommentRequest;
 import com.community.profession_connect.dto.CommentResponse;
+import com.community.profession_connect.dto.CursorPageResponse;
 import com.community.profession_connect.dto.PostRequest;
 import com.community.profession_connect.dto.PostResponse;
-import com.community.profession_connect.model.AiNote;
 import com.community.profession_connect.model.Comment;
 import com.community.profession_connect.model.Post;
 import com.community.profession_connect.model.PostLike;
 import com.community.profession_connect.model.PostReport;
 import com.community.profession_connect.model.User;
-import com.community.profession_connect.repository.AiNoteRepository;
 import com.community.profession_connect.repository.CommentRepository;
 import com.community.profession_connect.repository.PostLikeRepository;
 import com.community.profession_connect.repository.PostReportRepository;
 import com.community.profession_connect.repository.PostRepository;
 import com.community.profession_connect.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -31,10 +33,7 @@ import java.util.stream.Collectors;
 public class PostService {
 
     @Autowired
-    private AiNoteService aiNoteService;
-
-    @Autowired
-    private AiNoteRepository aiNoteRepository;
+    private AiModerationQueue aiModerationQueue;
 
     @Autowired
     private PostRepository postRepository;
@@ -49,11 +48,26 @@ public class PostService {
     private PostLikeRepository postLikeRepository;
 
     @Autowired
-    private NotificationService notificationService;
+    private NotificationOutboxService notificationOutboxService;
 
     @Autowired
     private PostReportRepository postReportRepository;
 
+    @Autowired
+    private PostFeedAssembler postFeedAssembler;
+
+    @Autowired
+    private FeedCache feedCache;
+
+    @Autowired
+    private UserSummaryCache userSummaryCache;
+
+    @Value("${feed.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${feed.page.max-size:50}")
+    private int maxPageSize;
+
     // ------------------- CREATE POST -------------------
 
     public PostResponse createPost(PostRequest request) {
@@ -70,41 +84,105 @@ public class PostService {
         // 1) Save post first
         post = postRepository.save(post);
 
-        // Make final copy for thread
-// NEW: pass only the ID to the background thread
-        final Long savedPostId = post.getId();
-
-        new Thread(() -> {
-            try {
-                aiNoteService.analyzePost(savedPostId);
-            } catch (Exception e) {
-                System.out.println("[AI] Note Generation Failed: " + e.getMessage());
-            }
-        }).start();
-
+        // 2) Queue AI moderation (bounded worker pool, never blocks on OpenAI)
+        aiModerationQueue.submit(post.getId());
 
         // 3) Return to frontend
-        return convertToPostResponse(post, userId);
+        PostResponse response = convertToPostResponse(post, userId);
+        feedCache.refresh(response);
+        return response;
     }
 
     // ------------------- FETCH POSTS -------------------
 
+    @Transactional(readOnly = true)
     public List<PostResponse> getPostsByProfession(String profession, Long currentUserId) {
+        // Served from the feed window when it holds the entire feed
+        if (feedCache.isEnabled()) {
+            List<PostResponse> cached = feedCache.all(profession);
+            if (cached == null && !feedCache.contains(profession)) {
+                cached = loadFeedWindow(profession, null, Integer.MAX_VALUE);
+            }
+            if (cached != null) {
+                return postFeedAssembler.overlayViewer(cached, currentUserId);
+            }
+        }
+
         List<Post> posts = postRepository
                 .findByProfessionAndDeletedFalseOrderByCreatedAtDesc(profession);  // 👈 only visible posts
-        return posts.stream()
-                .map(post -> convertToPostResponse(post, currentUserId))
-                .collect(Collectors.toList());
+        return postFeedAssembler.assemble(posts, currentUserId);
+    }
+
+    // ------------------- FETCH POSTS (KEYSET PAGE) -------------------
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<PostResponse> getFeedPage(String profession, Long currentUserId,
+                                                        String cursor, Integer limit) {
+        Objects.requireNonNull(profession, "Profession must not be null");
+        int pageSize = resolvePageSize(limit);
+        KeysetCursor position = (cursor == null || cursor.isBlank()) ? null : KeysetCursor.decode(cursor);
+
+        // Fetch one extra row to know whether another page exists
+        List<PostResponse> page = null;
+        boolean fromCache = false;
+        if (feedCache.isEnabled()) {
+            page = feedCache.slice(profession, position, pageSize + 1);
+            if (page == null && !feedCache.contains(profession)) {
+                page = loadFeedWindow(profession, position, pageSize + 1);
+            }
+            fromCache = page != null;
+        }
+        if (page == null) {
+            page = postFeedAssembler.assemble(findFeedPosts(profession, position, pageSize + 1), currentUserId);
+        }
+
+        boolean hasMore = page.size() > pageSize;
+        if (hasMore) {
+            page = page.subList(0, pageSize);
+        }
+        if (fromCache) {
+            page = postFeedAssembler.overlayViewer(page, currentUserId);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            PostResponse last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return new CursorPageResponse<>(page, nextCursor, hasMore);
+    }
+
+    private List<Post> findFeedPosts(String profession, KeysetCursor position, int count) {
+        PageRequest window = PageRequest.of(0, count);
+        if (position == null) {
+            return postRepository.findFeedHead(profession, window);
+        }
+        return postRepository.findFeedAfter(profession, position.getCreatedAt(), position.getId(), window);
+    }
+
+    // Cold cache: load the newest window-size posts once, viewer-independent
+    private List<PostResponse> loadFeedWindow(String profession, KeysetCursor position, int count) {
+        int windowSize = feedCache.getWindowSize();
+        List<Post> newest = postRepository.findFeedHead(profession, PageRequest.of(0, windowSize));
+        List<PostResponse> snapshots = postFeedAssembler.assemble(newest, null);
+        return feedCache.storeAndSlice(profession, snapshots, newest.size() < windowSize, position, count);
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
     }
 
     // ------------------- FETCH POSTS BY USER ID -------------------
 
+    @Transactional(readOnly = true)
     public List<PostResponse> getPostsByUserId(Long userId, Long currentUserId) {
         List<Post> posts = postRepository
                 .findByUserIdAndDeletedFalseOrderByCreatedAtDesc(userId);
-        return posts.stream()
-                .map(post -> convertToPostResponse(post, currentUserId))
-                .collect(Collectors.toList());
+        return postFeedAssembler.assemble(posts, currentUserId);
     }
 
 
@@ -124,6 +202,7 @@ public class PostService {
         }
 
         postRepository.delete(post);
+        feedCache.evict(post.getProfession(), postId);
         return "Post deleted successfully";
     }
 
@@ -146,7 +225,9 @@ public class PostService {
         post.setContent(newContent);
         post = postRepository.save(post);
 
-        return convertToPostResponse(post, userId);
+        PostResponse response = convertToPostResponse(post, userId);
+        feedCache.refresh(response);
+        return response;
     }
 
     // ------------------- LIKE / UNLIKE -------------------
@@ -159,8 +240,9 @@ public class PostService {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // Existence check from the summary cache; the like only needs the FK
+        userSummaryCache.get(userId);
+        User user = userRepository.getReferenceById(userId);
 
         PostLike existingLike = postLikeRepository.findByPostIdAndUserId(postId, userId).orElse(null);
 
@@ -176,9 +258,10 @@ public class PostService {
             postLikeRepository.save(like);
             post.setLikesCount(post.getLikesCount() + 1);
 
-            // CREATE NOTIFICATION: Only notify if user is NOT liking their own post
+            // CREATE NOTIFICATION: Only notify if user is NOT liking their own post.
+            // Recorded in the outbox; the notification itself is created in the background.
             if (!post.getUser().getId().equals(userId)) {
-                notificationService.createLikeNotification(
+                notificationOutboxService.recordLike(
                         post.getUser().getId(),  // Post owner
                         userId,                  // Person who liked
                         postId                   // Post ID
@@ -187,11 +270,14 @@ public class PostService {
         }
 
         post = postRepository.save(post);
-        return convertToPostResponse(post, userId);
+        PostResponse response = convertToPostResponse(post, userId);
+        feedCache.refresh(response);
+        return response;
     }
 
     // ------------------- ADD COMMENT -------------------
 
+    @Transactional
     public PostResponse addComment(CommentRequest request) {
         Long postId = Objects.requireNonNull(request.getPostId(), "Post ID must not be null");
         Long userId = Objects.requireNonNull(request.getUserId(), "User ID must not be null");
@@ -199,8 +285,8 @@ public class PostService {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new RuntimeException("Post not found"));
 
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        userSummaryCache.get(userId);
+        User user = userRepository.getReferenceById(userId);
 
         Comment comment = new Comment();
         comment.setContent(request.getContent());
@@ -209,27 +295,56 @@ public class PostService {
 
         commentRepository.save(comment);
 
+        int commentsCount = post.getCommentsCount() != null ? post.getCommentsCount() : 0;
+        post.setCommentsCount(commentsCount + 1);
+        post = postRepository.save(post);
+
         // CREATE NOTIFICATION: Only notify if user is NOT commenting on their own post
         if (!post.getUser().getId().equals(userId)) {
-            notificationService.createCommentNotification(
+            notificationOutboxService.recordComment(
                     post.getUser().getId(),  // Post owner
                     userId,                  // Person who commented
-                    postId                   // Post ID
+                    postId,                  // Post ID
+                    comment.getId()          // One notification per comment
             );
         }
 
-        return convertToPostResponse(post, userId);
+        PostResponse response = convertToPostResponse(post, userId);
+        feedCache.refresh(response);
+        return response;
     }
 
-    // ------------------- GET COMMENTS -------------------
+    // ------------------- GET COMMENTS (KEYSET PAGE) -------------------
 
-    public List<CommentResponse> getCommentsByPostId(Long postId) {
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CommentResponse> getCommentsPage(Long postId, String cursor, Integer limit) {
         Objects.requireNonNull(postId, "Post ID must not be null");
+        int pageSize = resolvePageSize(limit);
+
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+        List<Comment> comments;
+        if (cursor == null || cursor.isBlank()) {
+            comments = commentRepository.findPageHead(postId, window);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            comments = commentRepository.findPageAfter(postId, position.getCreatedAt(), position.getId(), window);
+        }
+
+        boolean hasMore = comments.size() > pageSize;
+        if (hasMore) {
+            comments = comments.subList(0, pageSize);
+        }
 
-        List<Comment> comments = commentRepository.findByPostIdOrderByCreatedAtDesc(postId);
-        return comments.stream()
-                .map(this::convertToCommentResponse)
+        String nextCursor = null;
+        if (hasMore) {
+            Comment last = comments.get(comments.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        List<CommentResponse> items = comments.stream()
+                .map(postFeedAssembler::toCommentResponse)
                 .collect(Collectors.toList());
+        return new CursorPageResponse<>(items, nextCursor, hasMore);
     }
 
     // ------------------- REPORT POST -------------------
@@ -264,62 +379,29 @@ public class PostService {
         // Auto-delete if report count reaches 10
         if (reportCount >= 10) {
             postRepository.deleteById(postId);
+            feedCache.evict(post.getProfession(), postId);
             return "Post reported and deleted due to multiple reports";
         }
 
         return "Post reported successfully";
     }
 
-    // ------------------- MAPPING: Post -> PostResponse -------------------
-
-    private PostResponse convertToPostResponse(Post post, Long currentUserId) {
-        PostResponse response = new PostResponse();
-        response.setId(post.getId());
-        response.setContent(post.getContent());
-        response.setProfession(post.getProfession());
-        response.setCreatedAt(post.getCreatedAt());
-        response.setLikesCount(post.getLikesCount());
-        response.setImageUrl(post.getImageUrl());
-
-        // 🔥 AI moderation flag (soft delete)
-        response.setDeleted(post.isDeleted());
-
-        // User info
-        PostResponse.UserInfo userInfo = new PostResponse.UserInfo();
-        userInfo.setId(post.getUser().getId());
-        userInfo.setName(post.getUser().getName());
-        userInfo.setEmail(post.getUser().getEmail());
-        userInfo.setProfession(post.getUser().getProfession());
-        response.setUser(userInfo);
-
-        // Check if current user liked this post
-        boolean liked = currentUserId != null &&
-                postLikeRepository.findByPostIdAndUserId(post.getId(), currentUserId).isPresent();
-        response.setLikedByCurrentUser(liked);
-
-        // Get comments
-        List<Comment> comments = commentRepository.findByPostIdOrderByCreatedAtDesc(post.getId());
-        response.setCommentsCount(comments.size());
-        response.setComments(comments.stream()
-                .map(this::convertToCommentResponse)
-                .collect(Collectors.toList()));
-
-// AI Notes mapping
-        List<AiNote> notes = aiNoteRepository.findByPostId(post.getId());
-        response.setAiNotes(
-                notes.stream()
-                        .map(n -> new AiNoteDTO(
-                                n.getNoteText(),      // FIXED
-                                n.getCategory(),
-                                n.isAutoDelete(),
-                                n.getCreatedAt() != null ? n.getCreatedAt().toString() : ""
-                        ))
-                        .collect(Collectors.toList())
-        );
+    // ------------------- BACKFILL: Post.commentsCount -------------------
 
+    // Posts created before commentsCount existed have NULL there; count them once on startup.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillCommentsCount() {
+        int updated = postRepository.backfillCommentsCount();
+        if (updated > 0) {
+            System.out.println("[Posts] Backfilled commentsCount for " + updated + " posts");
+        }
+    }
 
+    // ------------------- MAPPING: Post -> PostResponse -------------------
 
-        return response;
+    private PostResponse convertToPostResponse(Post post, Long currentUserId) {
+        return postFeedAssembler.assemble(post, currentUserId);
     }
 
     // ------------------- UPDATE IMAGE -------------------
@@ -340,22 +422,7 @@ public class PostService {
             post.setDeleted(false);
         }
         
-        postRepository.save(post);
-    }
-
-    // ------------------- MAPPING: Comment -> CommentResponse -------------------
-
-    private CommentResponse convertToCommentResponse(Comment comment) {
-        CommentResponse response = new CommentResponse();
-        response.setId(comment.getId());
-        response.setContent(comment.getContent());
-        response.setCreatedAt(comment.getCreatedAt());
-
-        CommentResponse.UserInfo userInfo = new CommentResponse.UserInfo();
-        userInfo.setId(comment.getUser().getId());
-        userInfo.setName(comment.getUser().getName());
-        response.setUser(userInfo);
-
-        return response;
+        post = postRepository.save(post);
+        feedCache.refresh(postFeedAssembler.assemble(post, null));
     }
 }
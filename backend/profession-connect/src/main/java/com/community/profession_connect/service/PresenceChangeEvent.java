@@ -0,0 +1,14 @@
+package com.community.profession_connect.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+// Published by OnlineUserService when a user's first session opens or last session goes away
+@Getter
+@AllArgsConstructor
+@ToString
+public class PresenceChangeEvent {
+    private final Long userId;
+    private final boolean online;
+}
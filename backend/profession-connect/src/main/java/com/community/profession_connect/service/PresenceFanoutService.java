@@ -0,0 +1,152 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.dto.PresenceUpdate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers presence changes only to the changed user's accepted connections, batched.
+ *
+ * Transitions are collected for window-ms; a user who flaps during the window (reconnect,
+ * page reload) is reduced to their latest status, or dropped if they ended where they
+ * started. Each online connection of a changed user then gets one message with all the
+ * changes relevant to them on /queue/presence/{userId}.
+ */
+@Service
+@RequiredArgsConstructor
+public class PresenceFanoutService {
+
+    public static final String ONLINE = "ONLINE";
+    public static final String OFFLINE = "OFFLINE";
+
+    private final ConnectionGraphCache connectionGraphCache;
+    private final OnlineUserService onlineUserService;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${presence.fanout.window-ms:250}")
+    private long windowMs = 250;
+
+    // userId -> status before the window and latest status in it
+    private final Map<Long, Change> pending = new LinkedHashMap<>();
+    private ScheduledExecutorService flushTimer;
+
+    private final AtomicLong transitions = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        flushTimer = Executors.newSingleThreadScheduledExecutor(runnable ->
+                new Thread(runnable, "presence-fanout"));
+    }
+
+    @EventListener
+    public void onPresenceChange(PresenceChangeEvent event) {
+        boolean firstInWindow;
+        synchronized (pending) {
+            transitions.incrementAndGet();
+            firstInWindow = pending.isEmpty();
+            Change change = pending.get(event.getUserId());
+            if (change == null) {
+                pending.put(event.getUserId(), new Change(!event.isOnline(), event.isOnline()));
+            } else {
+                coalesced.incrementAndGet();
+                change.online = event.isOnline();
+            }
+        }
+        if (firstInWindow && flushTimer != null) {
+            flushTimer.schedule(this::flush, windowMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void flush() {
+        Map<Long, Change> changes;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            changes = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+        flushes.incrementAndGet();
+
+        // Group per recipient so each one gets a single message per window
+        Map<Long, List<PresenceUpdate>> byRecipient = new HashMap<>();
+        for (Map.Entry<Long, Change> entry : changes.entrySet()) {
+            Change change = entry.getValue();
+            if (change.online == change.wasOnline) {
+                // Left and came back (or the reverse) within the window: nothing to tell
+                continue;
+            }
+            PresenceUpdate update = new PresenceUpdate(entry.getKey(), change.online ? ONLINE : OFFLINE);
+            // One bulk presence lookup per changed user, not one per connection
+            long[] onlineConnections = onlineUserService.filterOnline(connectionGraphCache.getConnectionIds(entry.getKey()));
+            for (long recipientId : onlineConnections) {
+                byRecipient.computeIfAbsent(recipientId, id -> new ArrayList<>()).add(update);
+            }
+        }
+
+        for (Map.Entry<Long, List<PresenceUpdate>> entry : byRecipient.entrySet()) {
+            try {
+                messagingTemplate.convertAndSend("/queue/presence/" + entry.getKey(), entry.getValue());
+                messagesSent.incrementAndGet();
+                delivered.addAndGet(entry.getValue().size());
+            } catch (Exception e) {
+                System.out.println("[Presence] Fan-out to user " + entry.getKey() + " failed: " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flushTimer != null) {
+            flushTimer.shutdownNow();
+        }
+    }
+
+    // ------------------- METRICS -------------------
+
+    public Map<String, Object> getStats() {
+        long transitionCount = transitions.get();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("windowMs", windowMs);
+        stats.put("transitions", transitionCount);
+        stats.put("coalesced", coalesced.get());
+        stats.put("flushes", flushes.get());
+        stats.put("messagesSent", messagesSent.get());
+        stats.put("updatesDelivered", delivered.get());
+        stats.put("messagesPerTransition", transitionCount == 0 ? 0.0 : (double) messagesSent.get() / transitionCount);
+        synchronized (pending) {
+            stats.put("pending", pending.size());
+        }
+        return stats;
+    }
+
+    private static class Change {
+        private final boolean wasOnline;
+        private boolean online;
+
+        private Change(boolean wasOnline, boolean online) {
+            this.wasOnline = wasOnline;
+            this.online = online;
+        }
+    }
+}
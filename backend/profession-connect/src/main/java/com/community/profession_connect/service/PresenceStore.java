@@ -0,0 +1,35 @@
+package com.community.profession_connect.service;
+
+import java.util.Set;
+
+/**
+ * Where presence is kept: one entry per open WebSocket session, tagged with the backend node
+ * that holds it and when that node last vouched for it.
+ *
+ * A user is online while they have at least one session anywhere, so closing one of two tabs
+ * does not take them offline. The store is shared by every node when presence.store=jdbc;
+ * the in-memory default only sees this JVM.
+ */
+public interface PresenceStore {
+
+    /** Registers a session; true when the user had no other session, i.e. they just came online. */
+    boolean addSession(String sessionId, Long userId, String nodeId, long now);
+
+    /** Removes a session; true when it was the user's last one, i.e. they just went offline. */
+    boolean removeSession(String sessionId, Long userId);
+
+    /** Marks every session held by a node as seen at {@code now}. */
+    void heartbeat(String nodeId, long now);
+
+    /** Drops sessions not seen since {@code cutoff} (their node died); returns users left with none. */
+    Set<Long> expireSessions(long cutoff);
+
+    boolean isOnline(Long userId);
+
+    Set<Long> getOnlineUsers();
+
+    /** The online members of {@code userIds}, sorted ascending. */
+    long[] filterOnline(long[] userIds);
+
+    int countSessions(Long userId);
+}
@@ -0,0 +1,252 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.model.UnreadCounter;
+import com.community.profession_connect.repository.MessageRepository;
+import com.community.profession_connect.repository.NotificationRepository;
+import com.community.profession_connect.repository.UnreadCounterRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unread badge counts for notifications and messages, kept in unread_counters instead of
+ * counting rows on every badge refresh.
+ *
+ * Every write that creates, reads or deletes an unread row applies its delta here inside the
+ * same transaction. Reads come from a small TTL cache in front of the counter row; a user
+ * without a row is counted once and stored. Deltas that race that first count, or the
+ * aggregate upsert, can leave a counter off by one, so the repair job compares each counter
+ * with the real count and fixes the ones that drifted.
+ */
+@Service
+@RequiredArgsConstructor
+public class UnreadCounterService {
+
+    private final UnreadCounterRepository unreadCounterRepository;
+    private final NotificationRepository notificationRepository;
+    private final MessageRepository messageRepository;
+
+    // When off, badges are counted from the notifications and messages tables on every request
+    @Value("${unread-counters.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${unread-counters.cache.ttl-seconds:60}")
+    private long ttlSeconds = 60;
+
+    @Value("${unread-counters.cache.max-entries:50000}")
+    private int maxEntries = 50000;
+
+    @Value("${unread-counters.repair.enabled:true}")
+    private boolean repairEnabled = true;
+
+    @Value("${unread-counters.repair.batch-size:500}")
+    private int repairBatchSize = 500;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong initialized = new AtomicLong();
+    private final AtomicLong deltas = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong repaired = new AtomicLong();
+
+    private volatile Map<String, Object> lastRepair = Map.of();
+
+    // Access-ordered so the least recently used user is evicted first
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > maxEntries) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // ------------------- READS -------------------
+
+    public Long getNotificationCount(Long userId) {
+        if (!enabled) {
+            return notificationRepository.countUnreadByUserId(userId);
+        }
+        return load(userId).getNotifications();
+    }
+
+    public Long getMessageCount(Long userId) {
+        if (!enabled) {
+            return messageRepository.countUnreadMessages(userId);
+        }
+        return load(userId).getMessages();
+    }
+
+    private UnreadCounter load(Long userId) {
+        UnreadCounter cached = lookup(userId);
+        if (cached != null) {
+            return cached;
+        }
+
+        UnreadCounter counter = unreadCounterRepository.findById(userId).orElse(null);
+        if (counter == null) {
+            unreadCounterRepository.initialize(userId);
+            initialized.incrementAndGet();
+            counter = unreadCounterRepository.findById(userId)
+                    .orElse(new UnreadCounter(userId, 0, 0, null));
+        }
+        store(counter);
+        return counter;
+    }
+
+    private synchronized UnreadCounter lookup(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.isExpired(ttlSeconds)) {
+            entries.remove(userId);
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.counter;
+    }
+
+    private synchronized void store(UnreadCounter counter) {
+        entries.put(counter.getUserId(), new Entry(counter));
+    }
+
+    // ------------------- WRITE PATH -------------------
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onNotificationsChanged(Long userId, long delta) {
+        if (!enabled || delta == 0) {
+            return;
+        }
+        unreadCounterRepository.addNotifications(userId, delta);
+        deltas.incrementAndGet();
+        invalidate(userId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onMessagesChanged(Long userId, long delta) {
+        if (!enabled || delta == 0) {
+            return;
+        }
+        unreadCounterRepository.addMessages(userId, delta);
+        deltas.incrementAndGet();
+        invalidate(userId);
+    }
+
+    // Evicted now and again after commit, so a read that raced the delta cannot keep the old count
+    private void invalidate(Long userId) {
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    private synchronized void evict(Long userId) {
+        entries.remove(userId);
+    }
+
+    // ------------------- REPAIR -------------------
+
+    @Scheduled(cron = "${unread-counters.repair.cron:0 */15 * * * *}")
+    public void scheduledRepair() {
+        if (enabled && repairEnabled) {
+            repairAll();
+        }
+    }
+
+    /**
+     * Walks every counter in user-id order and resets the ones that differ from the real count.
+     * The reset is a compare-and-set, so a counter that moved since it was checked is left for
+     * the next run. Returns the number of counters fixed.
+     */
+    public int repairAll() {
+        long start = System.currentTimeMillis();
+        int checked = 0;
+        int fixed = 0;
+        long afterUserId = 0;
+
+        List<UnreadCounterRepository.CounterCheckView> batch;
+        do {
+            batch = unreadCounterRepository.checkBatch(afterUserId, repairBatchSize);
+            for (UnreadCounterRepository.CounterCheckView view : batch) {
+                checked++;
+                afterUserId = view.getUserId();
+                if (view.getNotifications().equals(view.getActualNotifications())
+                        && view.getMessages().equals(view.getActualMessages())) {
+                    continue;
+                }
+                int rows = unreadCounterRepository.repair(view.getUserId(),
+                        view.getActualNotifications(), view.getActualMessages(),
+                        view.getNotifications(), view.getMessages());
+                if (rows > 0) {
+                    fixed++;
+                    evict(view.getUserId());
+                }
+            }
+        } while (batch.size() == repairBatchSize);
+
+        repaired.addAndGet(fixed);
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("checked", checked);
+        run.put("repaired", fixed);
+        run.put("durationMs", System.currentTimeMillis() - start);
+        lastRepair = run;
+        if (fixed > 0) {
+            System.out.println("[UnreadCounters] Repaired " + fixed + " of " + checked + " counters");
+        }
+        return fixed;
+    }
+
+    // ------------------- METRICS -------------------
+
+    public synchronized Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.put("initialized", initialized.get());
+        stats.put("deltas", deltas.get());
+        stats.put("evictions", evictions.get());
+        stats.put("entries", entries.size());
+        stats.put("repaired", repaired.get());
+        stats.put("lastRepair", lastRepair);
+        return stats;
+    }
+
+    private static class Entry {
+        private final UnreadCounter counter;
+        private final long cachedAt = System.currentTimeMillis();
+
+        private Entry(UnreadCounter counter) {
+            this.counter = counter;
+        }
+
+        private boolean isExpired(long ttlSeconds) {
+            return ttlSeconds > 0 && System.currentTimeMillis() - cachedAt > ttlSeconds * 1000;
+        }
+    }
+}
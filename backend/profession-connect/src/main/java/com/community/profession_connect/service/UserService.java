@@ -36,6 +36,9 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private UserSummaryCache userSummaryCache;
+
     // --- INJECT YOUR OTHER REPOSITORIES ---
     @Autowired
     private AcademicInfoRepository academicInfoRepository;
@@ -117,6 +120,7 @@ public class UserService {
         }
 
         User updatedUser = userRepository.save(user);
+        userSummaryCache.invalidate(userId);
 
         // 2. Update Academic Info (Find or Create)
         if (updateRequest.getUniversity() != null || updateRequest.getMajor() != null || updateRequest.getYear() != null || updateRequest.getGpa() != null) {
@@ -229,7 +233,9 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         user.setProfileImageUrl(profileImageUrl);
-        return userRepository.save(user);
+        User updatedUser = userRepository.save(user);
+        userSummaryCache.invalidate(userId);
+        return updatedUser;
     }
 
     public User updateCoverImage(Long userId, String coverImageUrl) {
@@ -239,6 +245,8 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         user.setCoverImageUrl(coverImageUrl);
-        return userRepository.save(user);
+        User updatedUser = userRepository.save(user);
+        userSummaryCache.invalidate(userId);
+        return updatedUser;
     }
 }
\ No newline at end of file
@@ -0,0 +1,195 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.dto.UserSummary;
+import com.community.profession_connect.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Id, name, profession and profile image of recently seen users, so sending a message, liking
+ * a post or creating a notification does not load the whole User row each time.
+ *
+ * Misses read just those four columns. Entries are dropped by UserService whenever a profile
+ * changes and expire after ttl-seconds regardless, which bounds staleness when another
+ * instance made the change; the least recently used ones go once max-entries is exceeded.
+ * A miss only stores what it read if the user was not invalidated while it was reading, so a
+ * load that raced a profile change cannot cache the old row for a whole TTL.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserSummaryCache {
+
+    private final UserRepository userRepository;
+
+    @Value("${users.summary-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${users.summary-cache.ttl-seconds:600}")
+    private long ttlSeconds = 600;
+
+    @Value("${users.summary-cache.max-entries:50000}")
+    private int maxEntries = 50000;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong staleLoads = new AtomicLong();
+
+    // Invalidation sequence number per recently invalidated user, oldest first. Once trimmed,
+    // a user's number is folded into forgottenSeq, which makes older loads of anyone skip storing.
+    private long invalidationSeq;
+    private long forgottenSeq;
+    private final LinkedHashMap<Long, Long> invalidatedAt = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            if (size() > maxEntries) {
+                forgottenSeq = eldest.getValue();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // Access-ordered so the least recently used user is evicted first
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            if (size() > maxEntries) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // ------------------- LOOKUP -------------------
+
+    /** Summary of an existing user, or empty when there is no such user. */
+    public Optional<UserSummary> find(Long userId) {
+        if (userId == null) {
+            return Optional.empty();
+        }
+        if (enabled) {
+            UserSummary cached = lookup(userId);
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+
+        long loadStartedAt = currentSeq();
+        Optional<UserSummary> loaded = userRepository.findSummaryById(userId);
+        if (enabled) {
+            loaded.ifPresent(summary -> store(summary, loadStartedAt));
+        }
+        return loaded;
+    }
+
+    public UserSummary get(Long userId) {
+        return find(userId).orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private synchronized UserSummary lookup(Long userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (entry.isExpired(ttlSeconds)) {
+            entries.remove(userId);
+            expirations.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.summary;
+    }
+
+    private synchronized long currentSeq() {
+        return invalidationSeq;
+    }
+
+    // Skipped when the user was invalidated after the load began: what it read may be the old row
+    private synchronized void store(UserSummary summary, long loadStartedAt) {
+        Long invalidated = invalidatedAt.get(summary.getId());
+        if (forgottenSeq > loadStartedAt || (invalidated != null && invalidated > loadStartedAt)) {
+            staleLoads.incrementAndGet();
+            return;
+        }
+        entries.put(summary.getId(), new Entry(summary));
+    }
+
+    // ------------------- INVALIDATION -------------------
+
+    /**
+     * Drops a user after a profile change. Evicted now and again after commit, so a lookup that
+     * raced the update cannot leave the old name cached.
+     */
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        evict(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    private synchronized void evict(Long userId) {
+        if (entries.remove(userId) != null) {
+            invalidations.incrementAndGet();
+        }
+        // Re-inserted so the map stays in sequence order
+        invalidatedAt.remove(userId);
+        invalidatedAt.put(userId, ++invalidationSeq);
+    }
+
+    // ------------------- METRICS -------------------
+
+    public synchronized Map<String, Object> getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.put("expirations", expirations.get());
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        stats.put("staleLoadsSkipped", staleLoads.get());
+        stats.put("entries", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", ttlSeconds);
+        return stats;
+    }
+
+    private static class Entry {
+        private final UserSummary summary;
+        private final long cachedAt = System.currentTimeMillis();
+
+        private Entry(UserSummary summary) {
+            this.summary = summary;
+        }
+
+        private boolean isExpired(long ttlSeconds) {
+            return ttlSeconds > 0 && System.currentTimeMillis() - cachedAt > ttlSeconds * 1000;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.community.profession_connect.config;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.SubscribableChannel;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two backend nodes in relay mode against one embedded STOMP broker: a client connected to
+ * node B receives what node A sends, for each destination family the app pushes to.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BrokerRelayTwoNodeTest {
+
+    private EmbeddedStompBroker broker;
+    private AnnotationConfigWebApplicationContext nodeA;
+    private AnnotationConfigWebApplicationContext nodeB;
+    private final BlockingQueue<Message<?>> deliveredOnB = new LinkedBlockingQueue<>();
+
+    @BeforeAll
+    void startNodes() throws Exception {
+        broker = new EmbeddedStompBroker();
+        nodeA = startNode();
+        nodeB = startNode();
+        nodeB.getBean("clientOutboundChannel", SubscribableChannel.class).subscribe(deliveredOnB::add);
+
+        await(() -> relay(nodeA).isBrokerAvailable() && relay(nodeB).isBrokerAvailable(), "system connections");
+    }
+
+    @AfterAll
+    void stopNodes() throws Exception {
+        if (nodeA != null) {
+            nodeA.close();
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        broker.close();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/queue/messages/42", "/queue/read/42", "/queue/delete/42", "/topic/online-status"})
+    void message_sent_on_node_a_reaches_a_subscriber_on_node_b(String destination) throws Exception {
+        String sessionId = "tab" + destination.replace('/', '-');
+        long connectsBefore = broker.getConnectCount();
+        deliveredOnB.clear();
+
+        // A browser tab on node B connects and subscribes
+        MessageChannel inboundB = nodeB.getBean("clientInboundChannel", MessageChannel.class);
+        inboundB.send(frame(StompCommand.CONNECT, sessionId, accessor -> {
+            accessor.setAcceptVersion("1.2");
+            accessor.setHeartbeat(0, 0);
+        }));
+        Message<?> connected = deliveredOnB.poll(5, TimeUnit.SECONDS);
+        assertNotNull(connected, "no CONNECTED from the relay");
+
+        inboundB.send(frame(StompCommand.SUBSCRIBE, sessionId, accessor -> {
+            accessor.setSubscriptionId("sub-0");
+            accessor.setDestination(destination);
+        }));
+        await(() -> broker.hasSubscription(destination), "subscription at the broker");
+
+        // Node A pushes the way the services do
+        nodeA.getBean("brokerMessagingTemplate", SimpMessagingTemplate.class)
+                .convertAndSend(destination, Map.of("userId", 42, "status", "ONLINE"));
+
+        Message<?> delivered = deliveredOnB.poll(5, TimeUnit.SECONDS);
+        assertNotNull(delivered, "nothing delivered on node B");
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(delivered);
+        assertEquals(StompCommand.MESSAGE, headers.getCommand());
+        assertEquals(destination, headers.getDestination());
+        assertEquals(sessionId, headers.getSessionId());
+        String body = new String((byte[]) delivered.getPayload(), StandardCharsets.UTF_8);
+        assertTrue(body.contains("\"status\":\"ONLINE\""), body);
+
+        // The tab got its own broker connection through node B's relay
+        assertEquals(connectsBefore + 1, broker.getConnectCount());
+
+        inboundB.send(frame(StompCommand.DISCONNECT, sessionId, accessor -> { }));
+    }
+
+    private AnnotationConfigWebApplicationContext startNode() {
+        AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("websocket.broker.mode", "relay");
+        properties.put("websocket.broker.relay.host", "127.0.0.1");
+        properties.put("websocket.broker.relay.port", broker.getPort());
+        properties.put("websocket.broker.relay.system-heartbeat-ms", 0);
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("relay", properties));
+        context.register(WebSocketConfig.class);
+        context.refresh();
+        context.start();
+        return context;
+    }
+
+    private static StompBrokerRelayMessageHandler relay(AnnotationConfigWebApplicationContext node) {
+        return node.getBean(StompBrokerRelayMessageHandler.class);
+    }
+
+    private static Message<byte[]> frame(StompCommand command, String sessionId,
+                                         java.util.function.Consumer<StompHeaderAccessor> customizer) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(command);
+        accessor.setSessionId(sessionId);
+        accessor.setSessionAttributes(new HashMap<>());
+        customizer.accept(accessor);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static void await(BooleanSupplier condition, String what) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Timed out waiting for " + what);
+            }
+            Thread.sleep(20);
+        }
+    }
+}
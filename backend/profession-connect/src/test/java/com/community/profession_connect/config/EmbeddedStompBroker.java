@@ -0,0 +1,191 @@
+package com.community.profession_connect.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Just enough of a STOMP 1.2 broker to stand in for ActiveMQ in tests: CONNECT, SUBSCRIBE,
+ * UNSUBSCRIBE, SEND and DISCONNECT, with exact-match destinations and no heartbeats.
+ */
+class EmbeddedStompBroker implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "embedded-stomp-broker");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicLong messageIds = new AtomicLong();
+    private final AtomicLong connectCount = new AtomicLong();
+
+    EmbeddedStompBroker() throws IOException {
+        serverSocket = new ServerSocket(0);
+        connections.execute(this::acceptLoop);
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    long getConnectCount() {
+        return connectCount.get();
+    }
+
+    boolean hasSubscription(String destination) {
+        return subscriptions.stream().anyMatch(subscription -> subscription.destination.equals(destination));
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.execute(() -> serve(new Connection(socket)));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Connection connection) {
+        try (Socket ignored = connection.socket) {
+            InputStream in = connection.socket.getInputStream();
+            Frame frame;
+            while ((frame = readFrame(in)) != null) {
+                switch (frame.command) {
+                    case "CONNECT", "STOMP" -> {
+                        connectCount.incrementAndGet();
+                        connection.write("CONNECTED", Map.of("version", "1.2", "heart-beat", "0,0"), new byte[0]);
+                    }
+                    case "SUBSCRIBE" -> subscriptions.add(
+                            new Subscription(connection, frame.headers.get("id"), frame.headers.get("destination")));
+                    case "UNSUBSCRIBE" -> {
+                        String id = frame.headers.get("id");
+                        subscriptions.removeIf(subscription -> subscription.connection == connection && subscription.id.equals(id));
+                    }
+                    case "SEND" -> deliver(frame);
+                    case "DISCONNECT" -> {
+                        return;
+                    }
+                    default -> { }
+                }
+                String receipt = frame.headers.get("receipt");
+                if (receipt != null) {
+                    connection.write("RECEIPT", Map.of("receipt-id", receipt), new byte[0]);
+                }
+            }
+        } catch (IOException e) {
+            // Client went away
+        } finally {
+            subscriptions.removeIf(subscription -> subscription.connection == connection);
+        }
+    }
+
+    private void deliver(Frame send) throws IOException {
+        String destination = send.headers.get("destination");
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.destination.equals(destination)) {
+                continue;
+            }
+            Map<String, String> headers = new LinkedHashMap<>();
+            headers.put("destination", destination);
+            headers.put("subscription", subscription.id);
+            headers.put("message-id", String.valueOf(messageIds.incrementAndGet()));
+            String contentType = send.headers.get("content-type");
+            if (contentType != null) {
+                headers.put("content-type", contentType);
+            }
+            subscription.connection.write("MESSAGE", headers, send.body);
+        }
+    }
+
+    // Reads one frame; skips heart-beat EOLs between frames. Returns null at end of stream.
+    private static Frame readFrame(InputStream in) throws IOException {
+        String command;
+        do {
+            command = readLine(in);
+            if (command == null) {
+                return null;
+            }
+        } while (command.isEmpty());
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            headers.putIfAbsent(line.substring(0, colon), line.substring(colon + 1));
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        String contentLength = headers.get("content-length");
+        if (contentLength != null) {
+            body.write(in.readNBytes(Integer.parseInt(contentLength)));
+            in.read(); // trailing NUL
+        } else {
+            int b;
+            while ((b = in.read()) > 0) {
+                body.write(b);
+            }
+        }
+        return new Frame(command, headers, body.toByteArray());
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                String text = line.toString(StandardCharsets.UTF_8);
+                return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+            }
+            line.write(b);
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    private record Frame(String command, Map<String, String> headers, byte[] body) { }
+
+    private record Subscription(Connection connection, String id, String destination) { }
+
+    private static class Connection {
+        private final Socket socket;
+
+        private Connection(Socket socket) {
+            this.socket = socket;
+        }
+
+        private synchronized void write(String command, Map<String, String> headers, byte[] body) throws IOException {
+            ByteArrayOutputStream frame = new ByteArrayOutputStream();
+            frame.write((command + "\n").getBytes(StandardCharsets.UTF_8));
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                frame.write((header.getKey() + ":" + header.getValue() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            frame.write(("content-length:" + body.length + "\n\n").getBytes(StandardCharsets.UTF_8));
+            frame.write(body);
+            frame.write(0);
+
+            OutputStream out = socket.getOutputStream();
+            out.write(frame.toByteArray());
+            out.flush();
+        }
+    }
+}
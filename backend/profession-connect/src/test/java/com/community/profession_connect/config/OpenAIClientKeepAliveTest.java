@@ -0,0 +1,163 @@
+package com.community.profession_connect.config;
+
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.StringEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmarks the pooled OpenAIClient against a local keep-alive stub and the old
+ * "new client per call" pattern. The stub counts accepted TCP connections, which is
+ * where the handshake savings come from (TLS adds its own round-trips on top in production).
+ */
+class OpenAIClientKeepAliveTest {
+
+    private static final int CALLS = 50;
+    private static final String STUB_RESPONSE =
+            "{\"choices\":[{\"message\":{\"content\":\"{\\\"auto_delete\\\":false}\"}}]}";
+
+    private StubServer stub;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        stub = new StubServer();
+        stub.start();
+    }
+
+    @AfterEach
+    void stopStub() throws IOException {
+        stub.close();
+    }
+
+    @Test
+    void pooled_client_reuses_one_connection_for_sequential_calls() throws Exception {
+        OpenAIClient client = new OpenAIClient();
+        ReflectionTestUtils.setField(client, "apiKey", "test-key");
+        ReflectionTestUtils.setField(client, "apiUrl", stub.url());
+        client.init();
+
+        try {
+            for (int i = 0; i < CALLS; i++) {
+                assertEquals(STUB_RESPONSE, client.callApi("{}"));
+            }
+        } finally {
+            client.close();
+        }
+        int pooledConnections = stub.acceptedConnections.getAndSet(0);
+
+        // Baseline: the previous implementation built and closed a client per call
+        for (int i = 0; i < CALLS; i++) {
+            try (CloseableHttpClient fresh = HttpClients.createDefault()) {
+                HttpPost post = new HttpPost(stub.url());
+                post.setEntity(new StringEntity("{}", ContentType.APPLICATION_JSON));
+                fresh.execute(post, response -> EntityUtils.toString(response.getEntity()));
+            }
+        }
+        int freshConnections = stub.acceptedConnections.get();
+
+        assertEquals(1, pooledConnections);
+        assertEquals(CALLS, freshConnections);
+        assertTrue(pooledConnections < freshConnections);
+    }
+
+    /** Minimal HTTP/1.1 keep-alive server that answers every request with a canned completion. */
+    private static class StubServer implements AutoCloseable {
+
+        private final ServerSocket serverSocket = new ServerSocket(0);
+        private final AtomicInteger acceptedConnections = new AtomicInteger();
+
+        StubServer() throws IOException {
+        }
+
+        String url() {
+            return "http://localhost:" + serverSocket.getLocalPort() + "/v1/chat/completions";
+        }
+
+        void start() {
+            Thread acceptor = new Thread(() -> {
+                while (!serverSocket.isClosed()) {
+                    try {
+                        Socket socket = serverSocket.accept();
+                        acceptedConnections.incrementAndGet();
+                        Thread handler = new Thread(() -> serve(socket));
+                        handler.setDaemon(true);
+                        handler.start();
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        private void serve(Socket socket) {
+            try (socket) {
+                // Avoid Nagle/delayed-ACK stalls skewing the keep-alive timings
+                socket.setTcpNoDelay(true);
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                OutputStream out = socket.getOutputStream();
+                byte[] response = ("HTTP/1.1 200 OK\r\n"
+                        + "Content-Type: application/json\r\n"
+                        + "Content-Length: " + STUB_RESPONSE.getBytes(StandardCharsets.UTF_8).length + "\r\n"
+                        + "\r\n"
+                        + STUB_RESPONSE).getBytes(StandardCharsets.UTF_8);
+                String headers;
+                while ((headers = readHeaders(in)) != null) {
+                    in.readNBytes(contentLength(headers));
+                    out.write(response);
+                    out.flush();
+                }
+            } catch (IOException ignored) {
+                // client went away
+            }
+        }
+
+        private static String readHeaders(InputStream in) throws IOException {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            int matched = 0;
+            int b;
+            while ((b = in.read()) != -1) {
+                buffer.write(b);
+                matched = (b == "\r\n\r\n".charAt(matched)) ? matched + 1 : (b == '\r' ? 1 : 0);
+                if (matched == 4) {
+                    return buffer.toString(StandardCharsets.US_ASCII);
+                }
+            }
+            return null;
+        }
+
+        private static int contentLength(String headers) {
+            for (String line : headers.split("\r\n")) {
+                if (line.toLowerCase().startsWith("content-length:")) {
+                    return Integer.parseInt(line.substring("content-length:".length()).trim());
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
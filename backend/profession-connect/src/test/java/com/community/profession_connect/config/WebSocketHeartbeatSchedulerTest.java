@@ -0,0 +1,32 @@
+package com.community.profession_connect.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The simple broker sends STOMP heartbeats on the broker's own scheduler, so the WebSocket config
+ * adds no TaskScheduler bean that would take the shared pool away from the @Scheduled jobs.
+ */
+class WebSocketHeartbeatSchedulerTest {
+
+    @Test
+    void heartbeats_use_the_broker_scheduler_and_no_extra_scheduler_bean() {
+        try (AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext()) {
+            context.setServletContext(new MockServletContext());
+            context.register(WebSocketConfig.class);
+            context.refresh();
+
+            assertEquals(1, context.getBeanNamesForType(TaskScheduler.class).length);
+            SimpleBrokerMessageHandler broker = context.getBean(SimpleBrokerMessageHandler.class);
+            // A lazy proxy in front of the broker scheduler; toString reaches the target
+            assertEquals(context.getBean("messageBrokerTaskScheduler").toString(), broker.getTaskScheduler().toString());
+            assertArrayEquals(new long[]{10000, 10000}, broker.getHeartbeatValue());
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.community.profession_connect.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A client that reads slower than the app pushes is closed once it exceeds the configured
+ * send-time / buffer limits, counted as dropped, and does not hold up the outbound channel.
+ */
+class WebSocketSlowConsumerTest {
+
+    private AnnotationConfigWebApplicationContext context;
+    private WebSocketTransportMonitor monitor;
+    private WebSocketHandler handler;
+
+    @BeforeEach
+    void startNode() {
+        context = new AnnotationConfigWebApplicationContext();
+        context.setServletContext(new MockServletContext());
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("websocket.transport.send-time-limit-ms", 200);
+        properties.put("websocket.transport.send-buffer-size-limit-kb", 64);
+        properties.put("websocket.heartbeat.server-ms", 0);
+        properties.put("websocket.heartbeat.client-ms", 0);
+        properties.put("websocket.outbound.core-pool-size", 2);
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("transport", properties));
+        context.register(WebSocketConfig.class, WebSocketTransportMonitor.class);
+        context.refresh();
+        context.start();
+
+        monitor = context.getBean(WebSocketTransportMonitor.class);
+        // The STOMP endpoint mapping applies the transport decorators the same way
+        handler = monitor.decorate(context.getBean("subProtocolWebSocketHandler", WebSocketHandler.class));
+    }
+
+    @AfterEach
+    void stopNode() {
+        context.close();
+    }
+
+    @Test
+    void slow_consumer_is_dropped_and_fast_one_keeps_receiving() throws Exception {
+        AtomicReference<CloseStatus> slowClosed = new AtomicReference<>();
+        AtomicInteger fastReceived = new AtomicInteger();
+        WebSocketSession slow = session("slow", 300, new AtomicInteger(), slowClosed);
+        WebSocketSession fast = session("fast", 0, fastReceived, new AtomicReference<>());
+
+        for (WebSocketSession session : new WebSocketSession[]{slow, fast}) {
+            handler.afterConnectionEstablished(session);
+            handler.handleMessage(session, new TextMessage("CONNECT\naccept-version:1.2\nheart-beat:0,0\n\n\0"));
+            handler.handleMessage(session, new TextMessage("SUBSCRIBE\nid:sub-0\ndestination:/topic/feed\n\n\0"));
+        }
+        Thread.sleep(200);
+
+        SimpMessagingTemplate template = context.getBean("brokerMessagingTemplate", SimpMessagingTemplate.class);
+        String payload = "x".repeat(1024);
+        for (int i = 0; i < 200; i++) {
+            template.convertAndSend("/topic/feed", payload);
+            Thread.sleep(2);
+        }
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ((slowClosed.get() == null || fastReceived.get() < 201) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertEquals(CloseStatus.SESSION_NOT_RELIABLE.getCode(), slowClosed.get().getCode());
+        // CONNECTED plus every message, despite the slow session on the same channel
+        assertEquals(201, fastReceived.get());
+
+        Map<String, Object> stats = monitor.getStats();
+        assertEquals(1L, stats.get("droppedSlowConsumers"));
+        assertEquals(2L, stats.get("sessionsOpened"));
+        assertTrue(stats.containsKey("clientOutboundChannelExecutor"));
+        assertTrue(stats.containsKey("clientInboundChannelExecutor"));
+    }
+
+    // A WebSocket session whose every send takes sendDelayMs; close() reports back like the container would
+    private WebSocketSession session(String id, long sendDelayMs, AtomicInteger received,
+                                     AtomicReference<CloseStatus> closedWith) throws Exception {
+        WebSocketSession session = mock(WebSocketSession.class);
+        AtomicBoolean open = new AtomicBoolean(true);
+        Map<String, Object> attributes = new HashMap<>();
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenAnswer(invocation -> open.get());
+        when(session.getAttributes()).thenReturn(attributes);
+        when(session.getAcceptedProtocol()).thenReturn("v12.stomp");
+        when(session.getTextMessageSizeLimit()).thenReturn(64 * 1024);
+        doAnswer(invocation -> {
+            Thread.sleep(sendDelayMs);
+            received.incrementAndGet();
+            return null;
+        }).when(session).sendMessage(any());
+        doAnswer(invocation -> {
+            CloseStatus status = invocation.getArgument(0);
+            if (open.getAndSet(false)) {
+                closedWith.set(status);
+                CompletableFuture.runAsync(() -> {
+                    try {
+                        handler.afterConnectionClosed(session, status);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+            }
+            return null;
+        }).when(session).close(any(CloseStatus.class));
+        return session;
+    }
+}
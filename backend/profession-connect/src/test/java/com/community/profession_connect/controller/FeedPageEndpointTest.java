@@ -0,0 +1,153 @@
+package com.community.profession_connect.controller;
+
+import com.community.profession_connect.model.Post;
+import com.community.profession_connect.model.User;
+import com.community.profession_connect.repository.AiNoteRepository;
+import com.community.profession_connect.repository.CommentRepository;
+import com.community.profession_connect.repository.PostLikeRepository;
+import com.community.profession_connect.repository.PostRepository;
+import com.community.profession_connect.service.FeedCache;
+import com.community.profession_connect.service.PostFeedAssembler;
+import com.community.profession_connect.service.PostService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/posts/by-profession/page: following nextCursor walks the whole feed once, in order,
+ * across the cached window and the database, and a malformed cursor is a 400.
+ */
+class FeedPageEndpointTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+    private static final int FEED_SIZE = 7;
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final List<Post> table = new ArrayList<>();
+    private PostService postService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        User author = new User();
+        author.setId(1L);
+        author.setName("Author");
+        author.setProfession("STUDENT");
+        for (long id = 1; id <= FEED_SIZE; id++) {
+            Post post = new Post();
+            post.setId(id);
+            post.setContent("Post " + id);
+            post.setUser(author);
+            post.setProfession("STUDENT");
+            // Posts 3 and 4 share a timestamp, so the id breaks the tie
+            post.setCreatedAt(NOW.plusMinutes(id == 4 ? 3 : id));
+            table.add(post);
+        }
+
+        // In-memory stand-in for the keyset queries, ordered (createdAt DESC, id DESC)
+        Comparator<Post> feedOrder = Comparator.comparing(Post::getCreatedAt).thenComparing(Post::getId).reversed();
+        when(postRepository.findFeedHead(eq("STUDENT"), any())).thenAnswer(invocation -> table.stream()
+                .sorted(feedOrder)
+                .limit(((Pageable) invocation.getArgument(1)).getPageSize())
+                .toList());
+        when(postRepository.findFeedAfter(eq("STUDENT"), any(), anyLong(), any())).thenAnswer(invocation -> {
+            LocalDateTime createdAt = invocation.getArgument(1);
+            Long id = invocation.getArgument(2);
+            return table.stream()
+                    .filter(p -> p.getCreatedAt().isBefore(createdAt)
+                            || (p.getCreatedAt().isEqual(createdAt) && p.getId() < id))
+                    .sorted(feedOrder)
+                    .limit(((Pageable) invocation.getArgument(3)).getPageSize())
+                    .toList();
+        });
+
+        // A window smaller than the feed, so later pages fall through to the database
+        FeedCache feedCache = new FeedCache();
+        ReflectionTestUtils.setField(feedCache, "windowSize", 4);
+
+        postService = new PostService();
+        ReflectionTestUtils.setField(postService, "postRepository", postRepository);
+        ReflectionTestUtils.setField(postService, "postFeedAssembler", new PostFeedAssembler(
+                mock(PostLikeRepository.class), mock(CommentRepository.class), mock(AiNoteRepository.class)));
+        ReflectionTestUtils.setField(postService, "feedCache", feedCache);
+        ReflectionTestUtils.setField(postService, "defaultPageSize", 20);
+        ReflectionTestUtils.setField(postService, "maxPageSize", 50);
+
+        PostController postController = new PostController();
+        ReflectionTestUtils.setField(postController, "postService", postService);
+        mockMvc = MockMvcBuilders.standaloneSetup(postController).build();
+    }
+
+    @Test
+    void following_next_cursor_returns_every_post_once_in_feed_order() throws Exception {
+        List<Integer> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/api/posts/by-profession/page")
+                    .param("profession", "STUDENT")
+                    .param("userId", "9")
+                    .param("limit", "3")
+                    .accept(MediaType.APPLICATION_JSON);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            seen.addAll(JsonPath.read(body, "$.items[*].id"));
+            cursor = JsonPath.read(body, "$.nextCursor");
+            boolean hasMore = JsonPath.read(body, "$.hasMore");
+            assertEquals(cursor != null, hasMore);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(List.of(7, 6, 5, 4, 3, 2, 1), seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void page_size_is_capped() throws Exception {
+        ReflectionTestUtils.setField(postService, "maxPageSize", 2);
+
+        mockMvc.perform(get("/api/posts/by-profession/page")
+                        .param("profession", "STUDENT")
+                        .param("userId", "9")
+                        .param("limit", "500")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    void malformed_cursors_are_rejected() throws Exception {
+        for (String cursor : List.of("not-a-cursor", "bm9waXBl", "MjAyNi0wMS0wMVQxMjowMHx4")) {
+            mockMvc.perform(get("/api/posts/by-profession/page")
+                            .param("profession", "STUDENT")
+                            .param("userId", "9")
+                            .param("cursor", cursor))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+}
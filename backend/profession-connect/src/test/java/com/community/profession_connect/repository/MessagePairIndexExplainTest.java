@@ -0,0 +1,74 @@
+package com.community.profession_connect.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks with EXPLAIN that the conversation queries seek on idx_messages_conversation instead of
+ * scanning both (sender, receiver) directions. Needs a MySQL schema created by the app, so it only
+ * runs when a URL is given, e.g.
+ * {@code mvn test -Dtest=MessagePairIndexExplainTest -Dexplain.jdbc.url=jdbc:mysql://localhost:3306/profession_connect
+ * -Dexplain.jdbc.user=root -Dexplain.jdbc.password=...}
+ */
+@EnabledIfSystemProperty(named = "explain.jdbc.url", matches = ".+")
+class MessagePairIndexExplainTest {
+
+    private static final String CONVERSATION_INDEX = "idx_messages_conversation";
+
+    private static Connection connection;
+
+    @BeforeAll
+    static void connect() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("explain.jdbc.url"),
+                System.getProperty("explain.jdbc.user", "root"),
+                System.getProperty("explain.jdbc.password", ""));
+    }
+
+    @AfterAll
+    static void disconnect() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    // SQL shapes Hibernate generates for the MessageRepository pair queries
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // findByPair
+            "SELECT * FROM messages WHERE pair_low_id = 1 AND pair_high_id = 2 ORDER BY timestamp ASC",
+            // findConversationLatest
+            "SELECT * FROM messages WHERE pair_low_id = 1 AND pair_high_id = 2 "
+                    + "ORDER BY timestamp DESC, id DESC LIMIT 51",
+            // findConversationBefore
+            "SELECT * FROM messages WHERE pair_low_id = 1 AND pair_high_id = 2 "
+                    + "AND (timestamp < '2024-01-01 12:00:00' OR (timestamp = '2024-01-01 12:00:00' AND id < 500)) "
+                    + "ORDER BY timestamp DESC, id DESC LIMIT 51",
+            // findConversationAfter
+            "SELECT * FROM messages WHERE pair_low_id = 1 AND pair_high_id = 2 "
+                    + "AND (timestamp > '2024-01-01 12:00:00' OR (timestamp = '2024-01-01 12:00:00' AND id > 500)) "
+                    + "ORDER BY timestamp ASC, id ASC LIMIT 51"
+    })
+    void pair_queries_seek_on_the_conversation_index(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet plan = statement.executeQuery("EXPLAIN " + sql)) {
+            assertTrue(plan.next(), "EXPLAIN returned no plan");
+            assertEquals(CONVERSATION_INDEX, plan.getString("key"), "Plan for: " + sql);
+
+            String extra = plan.getString("Extra");
+            assertTrue(extra == null || !extra.contains("Using filesort"), "Unexpected filesort for: " + sql);
+        }
+    }
+}
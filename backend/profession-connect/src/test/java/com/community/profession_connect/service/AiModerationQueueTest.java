@@ -0,0 +1,55 @@
+package com.community.profession_connect.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A post whose moderation throws is counted as failed, one by one, without hiding the posts
+ * that went through, whether it was moderated alone or as a batch fallback.
+ */
+class AiModerationQueueTest {
+
+    private final AiNoteService aiNoteService = mock(AiNoteService.class);
+    private final AiModerationQueue queue = new AiModerationQueue(aiNoteService);
+
+    @Test
+    void failed_single_posts_are_counted() {
+        doThrow(new IllegalStateException("OpenAI call failed")).when(aiNoteService).analyzePost(2L);
+        queue.start();
+
+        queue.submit(1L);
+        queue.submit(2L);
+        queue.submit(3L);
+        queue.shutdown();
+
+        assertEquals(2L, queue.getStats().get("completed"));
+        assertEquals(1L, queue.getStats().get("failed"));
+    }
+
+    @Test
+    void failed_batch_fallbacks_are_counted_per_post() {
+        ReflectionTestUtils.setField(queue, "batchEnabled", true);
+        ReflectionTestUtils.setField(queue, "batchMaxSize", 3);
+        when(aiNoteService.analyzePosts(List.of(1L, 2L, 3L))).thenReturn(List.of(2L, 3L));
+        doThrow(new IllegalArgumentException("Post not found: 3")).when(aiNoteService).analyzePost(3L);
+        queue.start();
+
+        queue.submit(1L);
+        queue.submit(2L);
+        queue.submit(3L);
+        queue.shutdown();
+
+        verify(aiNoteService).analyzePost(2L);
+        assertEquals(2L, queue.getStats().get("completed"));
+        assertEquals(1L, queue.getStats().get("failed"));
+        assertEquals(2L, queue.getStats().get("batchFallbacks"));
+    }
+}
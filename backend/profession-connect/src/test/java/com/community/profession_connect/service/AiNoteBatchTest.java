@@ -0,0 +1,125 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.config.OpenAIClient;
+import com.community.profession_connect.model.AiNote;
+import com.community.profession_connect.model.Post;
+import com.community.profession_connect.repository.AiNoteRepository;
+import com.community.profession_connect.repository.PostRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * One chat completion moderates a batch: usable verdicts are applied post by post, and posts
+ * the answer missed or that failed to save are handed back for the single-post fallback.
+ */
+class AiNoteBatchTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final OpenAIClient openAIClient = mock(OpenAIClient.class);
+    private final AiNoteRepository aiNoteRepository = mock(AiNoteRepository.class);
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private AiNoteService aiNoteService;
+
+    @BeforeEach
+    void setUp() {
+        aiNoteService = new AiNoteService(openAIClient, aiNoteRepository, postRepository, objectMapper,
+                mock(PostFeedAssembler.class), new FeedCache(), new ModerationVerdictCache(), transactionManager);
+
+        List<Post> posts = List.of(post(1L), post(2L), post(3L));
+        when(postRepository.findAllById(any())).thenReturn(posts);
+        when(postRepository.findById(anyLong())).thenAnswer(invocation ->
+                posts.stream().filter(p -> p.getId().equals(invocation.getArgument(0))).findFirst());
+    }
+
+    @Test
+    void verdicts_are_parsed_per_post_and_incomplete_ones_skipped() throws Exception {
+        Map<Long, AiNoteService.Verdict> verdicts = aiNoteService.parseVerdicts(objectMapper.readTree("""
+                {"verdicts": [
+                  {"post_id": 1, "auto_delete": false, "category": "safe", "note": "Looks fine"},
+                  {"post_id": 2, "auto_delete": true, "category": "hate speech", "note": "Removed"},
+                  {"post_id": 3, "category": "safe"},
+                  {"post_id": "four", "auto_delete": false},
+                  {"auto_delete": false}
+                ]}
+                """));
+
+        assertEquals(2, verdicts.size());
+        assertFalse(verdicts.get(1L).autoDelete);
+        assertEquals("Looks fine", verdicts.get(1L).noteText);
+        assertTrue(verdicts.get(2L).autoDelete);
+        assertEquals("hate speech", verdicts.get(2L).category);
+
+        assertTrue(aiNoteService.parseVerdicts(objectMapper.readTree("{\"verdict\": []}")).isEmpty());
+        assertTrue(aiNoteService.parseVerdicts(objectMapper.readTree("{\"verdicts\": {}}")).isEmpty());
+    }
+
+    @Test
+    void a_post_that_fails_to_save_goes_to_the_fallback_without_undoing_the_others() throws Exception {
+        answer("""
+                {"verdicts": [
+                  {"post_id": 1, "auto_delete": false, "category": "safe", "note": "Looks fine"},
+                  {"post_id": 2, "auto_delete": false, "category": "safe", "note": "Looks fine too"}
+                ]}
+                """);
+        when(aiNoteRepository.save(argThat(note -> note != null && note.getPost().getId() == 2L)))
+                .thenThrow(new IllegalStateException("Deadlock found"));
+
+        List<Long> unresolved = aiNoteService.analyzePosts(List.of(1L, 2L, 3L));
+
+        // 2 failed to save, 3 was missing from the answer
+        assertEquals(List.of(2L, 3L), unresolved);
+        verify(aiNoteRepository).save(argThat((AiNote note) -> note.getPost().getId() == 1L));
+        // One transaction per verdict: the failed one rolls back alone
+        verify(transactionManager, times(1)).commit(any());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void a_failed_call_hands_every_post_to_the_fallback() throws Exception {
+        when(openAIClient.callApi(anyString())).thenThrow(new IOException("Connection reset"));
+
+        assertEquals(List.of(1L, 2L, 3L), aiNoteService.analyzePosts(List.of(1L, 2L, 3L)));
+        verify(aiNoteRepository, never()).save(any());
+    }
+
+    @Test
+    void an_unparseable_answer_hands_every_post_to_the_fallback() throws Exception {
+        when(openAIClient.callApi(anyString())).thenReturn("{\"choices\": [{\"message\": {\"content\": \"not json\"}}]}");
+
+        assertEquals(List.of(1L, 2L, 3L), aiNoteService.analyzePosts(List.of(1L, 2L, 3L)));
+    }
+
+    private void answer(String content) throws Exception {
+        String completion = objectMapper.writeValueAsString(Map.of("choices",
+                List.of(Map.of("message", Map.of("content", content)))));
+        when(openAIClient.callApi(anyString())).thenReturn(completion);
+    }
+
+    private static Post post(Long id) {
+        Post post = new Post();
+        post.setId(id);
+        post.setContent("Post " + id);
+        post.setProfession("STUDENT");
+        return post;
+    }
+}
@@ -0,0 +1,165 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.dto.ConversationResponse;
+import com.community.profession_connect.model.Connection;
+import com.community.profession_connect.model.ConnectionStatus;
+import com.community.profession_connect.model.ConversationSummary;
+import com.community.profession_connect.model.User;
+import com.community.profession_connect.repository.ConnectionRepository;
+import com.community.profession_connect.repository.MessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Guards the conversation list against regressing to per-connection queries:
+ * 800 connections must still cost one connection query plus either one scan of the
+ * materialized inbox or, with it switched off, two message aggregates.
+ */
+class ConversationListQueryCountTest {
+
+    private static final int CONNECTIONS = 800;
+    private static final long USER_ID = 1L;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private ConnectionRepository connectionRepository;
+    private MessageRepository messageRepository;
+    private ConversationSummaryService conversationSummaryService;
+    private MessageService messageService;
+
+    @BeforeEach
+    void setUp() {
+        connectionRepository = mock(ConnectionRepository.class);
+        messageRepository = mock(MessageRepository.class);
+        OnlineUserService onlineUserService = mock(OnlineUserService.class);
+        when(onlineUserService.isUserOnline(anyLong())).thenReturn(false);
+        conversationSummaryService = mock(ConversationSummaryService.class);
+
+        messageService = new MessageService();
+        ReflectionTestUtils.setField(messageService, "connectionRepository", connectionRepository);
+        ReflectionTestUtils.setField(messageService, "messageRepository", messageRepository);
+        ReflectionTestUtils.setField(messageService, "onlineUserService", onlineUserService);
+        ReflectionTestUtils.setField(messageService, "conversationSummaryService", conversationSummaryService);
+
+        when(connectionRepository.findAcceptedConnectionsForUser(USER_ID, ConnectionStatus.ACCEPTED))
+                .thenReturn(connections());
+    }
+
+    @Test
+    void conversation_list_reads_the_materialized_inbox_once() {
+        List<ConversationSummary> inbox = new ArrayList<>();
+        for (long id = 2; id < CONNECTIONS + 2; id++) {
+            if (hasMessages(id)) {
+                inbox.add(new ConversationSummary(id, USER_ID, id, id * 100, "hello " + id,
+                        BASE.plusMinutes(id), unread(id)));
+            }
+        }
+        when(conversationSummaryService.isEnabled()).thenReturn(true);
+        when(conversationSummaryService.getInbox(USER_ID)).thenReturn(inbox);
+
+        assertConversations(messageService.getConversations(USER_ID));
+
+        verify(connectionRepository, times(1)).findAcceptedConnectionsForUser(USER_ID, ConnectionStatus.ACCEPTED);
+        verify(conversationSummaryService, times(1)).getInbox(USER_ID);
+        verifyNoMoreInteractions(connectionRepository, messageRepository);
+    }
+
+    @Test
+    void conversation_list_uses_fixed_number_of_queries() {
+        List<MessageRepository.LastMessageView> lastMessages = new ArrayList<>();
+        List<MessageRepository.UnreadCountView> unread = new ArrayList<>();
+        for (long id = 2; id < CONNECTIONS + 2; id++) {
+            if (hasMessages(id)) {
+                lastMessages.add(lastMessage(id, id * 100, "hello " + id, BASE.plusMinutes(id)));
+            }
+            if (unread(id) > 0) {
+                unread.add(unreadCount(id, unread(id)));
+            }
+        }
+        when(conversationSummaryService.isEnabled()).thenReturn(false);
+        when(messageRepository.findLastMessagePerCounterpart(USER_ID)).thenReturn(lastMessages);
+        when(messageRepository.countUnreadPerSender(USER_ID)).thenReturn(unread);
+
+        assertConversations(messageService.getConversations(USER_ID));
+
+        verify(connectionRepository, times(1)).findAcceptedConnectionsForUser(USER_ID, ConnectionStatus.ACCEPTED);
+        verify(messageRepository, times(1)).findLastMessagePerCounterpart(USER_ID);
+        verify(messageRepository, times(1)).countUnreadPerSender(USER_ID);
+        verifyNoMoreInteractions(connectionRepository, messageRepository);
+    }
+
+    private static void assertConversations(List<ConversationResponse> conversations) {
+        assertEquals(CONNECTIONS, conversations.size());
+
+        // Latest conversation first, with its preview and unread count
+        ConversationResponse newest = conversations.get(0);
+        long newestId = CONNECTIONS;
+        assertEquals(newestId, newest.getUserId());
+        assertEquals("hello " + newestId, newest.getLastMessage());
+        assertEquals(3L, newest.getUnreadCount());
+
+        // Connections without messages trail with empty previews
+        ConversationResponse silent = conversations.get(CONNECTIONS - 1);
+        assertEquals("", silent.getLastMessage());
+        assertEquals(0L, silent.getUnreadCount());
+    }
+
+    private static List<Connection> connections() {
+        User me = user(USER_ID);
+        List<Connection> connections = new ArrayList<>();
+        for (long id = 2; id < CONNECTIONS + 2; id++) {
+            Connection connection = new Connection();
+            // Alternate sides so both requester and receiver paths are exercised
+            connection.setRequester(id % 2 == 0 ? me : user(id));
+            connection.setReceiver(id % 2 == 0 ? user(id) : me);
+            connection.setStatus(ConnectionStatus.ACCEPTED);
+            connections.add(connection);
+        }
+        return connections;
+    }
+
+    // Every other counterpart has messages; every fourth has unread ones
+    private static boolean hasMessages(long counterpartId) {
+        return counterpartId % 2 == 0;
+    }
+
+    private static long unread(long counterpartId) {
+        return counterpartId % 4 == 0 ? 3L : 0L;
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName(String.format("user-%04d", id));
+        return user;
+    }
+
+    private static MessageRepository.LastMessageView lastMessage(long counterpartId, long messageId,
+                                                                 String content, LocalDateTime timestamp) {
+        return new MessageRepository.LastMessageView() {
+            public Long getCounterpartId() { return counterpartId; }
+            public Long getLastMessageId() { return messageId; }
+            public String getContent() { return content; }
+            public LocalDateTime getTimestamp() { return timestamp; }
+        };
+    }
+
+    private static MessageRepository.UnreadCountView unreadCount(long counterpartId, long count) {
+        return new MessageRepository.UnreadCountView() {
+            public Long getCounterpartId() { return counterpartId; }
+            public Long getUnreadCount() { return count; }
+        };
+    }
+}
@@ -0,0 +1,162 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.dto.PostResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The feed window answers pages inside it, refuses pages past an incomplete window, and stays
+ * in feed order as posts are created, edited, soft-deleted and evicted.
+ */
+class FeedCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private FeedCache feedCache;
+
+    @BeforeEach
+    void setUp() {
+        feedCache = new FeedCache();
+        ReflectionTestUtils.setField(feedCache, "windowSize", 5);
+    }
+
+    @Test
+    void slices_follow_the_cursor_and_stop_at_an_incomplete_window() {
+        // Posts 10..6, newest first; more exist in the database
+        feedCache.storeAndSlice("STUDENT", posts(10, 6), false, null, 0);
+
+        assertEquals(List.of(10L, 9L, 8L), ids(feedCache.slice("STUDENT", null, 3)));
+        assertEquals(List.of(7L, 6L), ids(feedCache.slice("STUDENT", cursorAt(8), 2)));
+        // The next page reaches past the window: the caller must go to the database
+        assertNull(feedCache.slice("STUDENT", cursorAt(8), 3));
+        assertNull(feedCache.all("STUDENT"));
+        assertNull(feedCache.slice("TEACHER", null, 3));
+
+        assertEquals(2L, feedCache.getStats().get("hits"));
+        assertEquals(3L, feedCache.getStats().get("misses"));
+    }
+
+    @Test
+    void a_complete_window_answers_every_page_and_the_whole_feed() {
+        feedCache.storeAndSlice("STUDENT", posts(3, 1), true, null, 0);
+
+        assertEquals(List.of(1L), ids(feedCache.slice("STUDENT", cursorAt(2), 10)));
+        assertEquals(List.of(), ids(feedCache.slice("STUDENT", cursorAt(1), 10)));
+        assertEquals(List.of(3L, 2L, 1L), ids(feedCache.all("STUDENT")));
+    }
+
+    @Test
+    void snapshots_never_carry_a_viewer_like() {
+        PostResponse liked = post(1);
+        liked.setLikedByCurrentUser(true);
+        feedCache.storeAndSlice("STUDENT", List.of(liked), true, null, 0);
+
+        assertFalse(feedCache.all("STUDENT").get(0).isLikedByCurrentUser());
+        assertTrue(FeedCache.forViewer(feedCache.all("STUDENT").get(0), true).isLikedByCurrentUser());
+    }
+
+    @Test
+    void refresh_replaces_inserts_and_drops_posts_in_feed_order() {
+        feedCache.storeAndSlice("STUDENT", posts(10, 6), false, null, 0);
+
+        // Edited post keeps its slot
+        PostResponse edited = post(8);
+        edited.setContent("edited");
+        feedCache.refresh(edited);
+        assertEquals("edited", feedCache.slice("STUDENT", null, 5).get(2).getContent());
+
+        // A new post goes on top and pushes the oldest one out of the full window
+        feedCache.refresh(post(11));
+        assertEquals(List.of(11L, 10L, 9L, 8L, 7L), ids(feedCache.slice("STUDENT", null, 5)));
+
+        // Older than the last cached post of an incomplete window: left to the database
+        feedCache.refresh(post(2));
+        assertEquals(List.of(11L, 10L, 9L, 8L, 7L), ids(feedCache.slice("STUDENT", null, 5)));
+
+        // Soft-deleted post disappears
+        PostResponse deleted = post(9);
+        deleted.setDeleted(true);
+        feedCache.refresh(deleted);
+        assertEquals(List.of(11L, 10L, 8L, 7L), ids(feedCache.slice("STUDENT", null, 4)));
+    }
+
+    @Test
+    void refresh_of_an_uncached_profession_does_nothing() {
+        feedCache.refresh(post(1));
+
+        assertFalse(feedCache.contains("STUDENT"));
+        assertEquals(0L, feedCache.getStats().get("updates"));
+    }
+
+    @Test
+    void evict_removes_a_post_and_least_recently_used_professions_are_dropped() {
+        ReflectionTestUtils.setField(feedCache, "maxProfessions", 2);
+        feedCache.storeAndSlice("STUDENT", posts(3, 1), true, null, 0);
+
+        feedCache.evict("STUDENT", 2L);
+        assertEquals(List.of(3L, 1L), ids(feedCache.all("STUDENT")));
+
+        feedCache.storeAndSlice("TEACHER", posts(3, 1), true, null, 0);
+        // Touch STUDENT so TEACHER is the least recently used one
+        feedCache.contains("STUDENT");
+        feedCache.storeAndSlice("DOCTOR", posts(3, 1), true, null, 0);
+
+        assertTrue(feedCache.contains("STUDENT"));
+        assertFalse(feedCache.contains("TEACHER"));
+        assertTrue(feedCache.contains("DOCTOR"));
+        assertEquals(1L, feedCache.getStats().get("evictions"));
+    }
+
+    @Test
+    void expired_windows_are_not_served() throws InterruptedException {
+        ReflectionTestUtils.setField(feedCache, "ttlSeconds", 0L);
+        feedCache.storeAndSlice("STUDENT", posts(3, 1), true, null, 0);
+        assertTrue(feedCache.contains("STUDENT"));
+
+        ReflectionTestUtils.setField(feedCache, "ttlSeconds", 1L);
+        Thread.sleep(1100);
+
+        assertFalse(feedCache.contains("STUDENT"));
+        assertNull(feedCache.slice("STUDENT", null, 1));
+    }
+
+    // ------------------- FIXTURES -------------------
+
+    // One post per minute, so a higher id is always newer
+    private static PostResponse post(long id) {
+        PostResponse post = new PostResponse();
+        post.setId(id);
+        post.setContent("Post " + id);
+        post.setProfession("STUDENT");
+        post.setCreatedAt(NOW.plusMinutes(id));
+        post.setComments(List.of());
+        post.setAiNotes(List.of());
+        return post;
+    }
+
+    private static List<PostResponse> posts(long newest, long oldest) {
+        List<PostResponse> posts = new ArrayList<>();
+        for (long id = newest; id >= oldest; id--) {
+            posts.add(post(id));
+        }
+        return posts;
+    }
+
+    private static KeysetCursor cursorAt(long id) {
+        return new KeysetCursor(NOW.plusMinutes(id), id);
+    }
+
+    private static List<Long> ids(List<PostResponse> posts) {
+        return posts.stream().map(PostResponse::getId).toList();
+    }
+}
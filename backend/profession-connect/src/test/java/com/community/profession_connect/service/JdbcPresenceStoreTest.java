@@ -0,0 +1,82 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.model.PresenceSession;
+import com.community.profession_connect.repository.PresenceSessionRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Every session change locks the user's presence row before it counts what is left, so
+ * concurrent connects and disconnects of one user are decided one after the other.
+ */
+class JdbcPresenceStoreTest {
+
+    private final PresenceSessionRepository presenceSessionRepository = mock(PresenceSessionRepository.class);
+    private final JdbcPresenceStore presenceStore = new JdbcPresenceStore(presenceSessionRepository);
+
+    @Test
+    void connect_counts_sessions_under_the_user_lock() {
+        when(presenceSessionRepository.countLiveSessions(1L)).thenReturn(0L).thenReturn(1L);
+
+        assertTrue(presenceStore.addSession("a", 1L, "node-1", 1000L));
+        assertFalse(presenceStore.addSession("b", 1L, "node-2", 1000L));
+
+        InOrder order = inOrder(presenceSessionRepository);
+        order.verify(presenceSessionRepository).lockUser(1L, 1000L);
+        order.verify(presenceSessionRepository).countLiveSessions(1L);
+        order.verify(presenceSessionRepository).save(any(PresenceSession.class));
+    }
+
+    @Test
+    void disconnect_deletes_and_counts_under_the_user_lock() {
+        when(presenceSessionRepository.deleteBySessionId("a")).thenReturn(1);
+        when(presenceSessionRepository.countLiveSessions(1L)).thenReturn(0L);
+
+        assertTrue(presenceStore.removeSession("a", 1L));
+
+        InOrder order = inOrder(presenceSessionRepository);
+        order.verify(presenceSessionRepository).lockUser(eq(1L), anyLong());
+        order.verify(presenceSessionRepository).deleteBySessionId("a");
+        order.verify(presenceSessionRepository).countLiveSessions(1L);
+    }
+
+    @Test
+    void removing_an_unknown_session_is_not_a_transition() {
+        assertFalse(presenceStore.removeSession("gone", 1L));
+
+        verify(presenceSessionRepository, never()).countLiveSessions(anyLong());
+    }
+
+    @Test
+    void expiry_locks_users_in_id_order_and_reports_only_those_left_without_sessions() {
+        when(presenceSessionRepository.findUsersWithStaleSessions(500L)).thenReturn(List.of(3L, 1L, 2L));
+        when(presenceSessionRepository.deleteStaleForUser(anyLong(), eq(500L))).thenReturn(1);
+        // User 2 reconnected on another node; user 3's stale session was already removed
+        when(presenceSessionRepository.countLiveSessions(2L)).thenReturn(1L);
+        when(presenceSessionRepository.deleteStaleForUser(3L, 500L)).thenReturn(0);
+
+        Set<Long> offline = presenceStore.expireSessions(500L);
+
+        assertEquals(Set.of(1L), offline);
+        InOrder order = inOrder(presenceSessionRepository);
+        order.verify(presenceSessionRepository).lockUser(eq(1L), anyLong());
+        order.verify(presenceSessionRepository).lockUser(eq(2L), anyLong());
+        order.verify(presenceSessionRepository).lockUser(eq(3L), anyLong());
+        verify(presenceSessionRepository, never()).countLiveSessions(3L);
+    }
+}
@@ -0,0 +1,95 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.model.Message;
+import com.community.profession_connect.model.User;
+import com.community.profession_connect.repository.MessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Every message carries the canonical (smaller id, larger id) conversation key, both directions of
+ * a conversation are read through that one key, and historic rows are backfilled chunk by chunk.
+ */
+class MessagePairKeyTest {
+
+    private MessageRepository messageRepository;
+    private MessageService messageService;
+
+    @BeforeEach
+    void setUp() {
+        messageRepository = mock(MessageRepository.class);
+        messageService = new MessageService();
+        ReflectionTestUtils.setField(messageService, "messageRepository", messageRepository);
+        ReflectionTestUtils.setField(messageService, "pairKeyBackfillBatchSize", 100);
+    }
+
+    @Test
+    void new_messages_get_the_same_key_in_both_directions() {
+        Message sent = message(7L, 3L);
+        Message reply = message(3L, 7L);
+
+        assertEquals(3L, sent.getPairLowId());
+        assertEquals(7L, sent.getPairHighId());
+        assertEquals(sent.getPairLowId(), reply.getPairLowId());
+        assertEquals(sent.getPairHighId(), reply.getPairHighId());
+    }
+
+    @Test
+    void conversation_is_read_through_the_canonical_pair_whatever_the_argument_order() {
+        List<Message> rows = List.of(message(7L, 3L), message(3L, 7L));
+        when(messageRepository.findMessagesBetweenUsers(anyLong(), anyLong())).thenCallRealMethod();
+        when(messageRepository.findByPair(3L, 7L)).thenReturn(rows);
+
+        assertSame(rows, messageRepository.findMessagesBetweenUsers(7L, 3L));
+        assertSame(rows, messageRepository.findMessagesBetweenUsers(3L, 7L));
+        verify(messageRepository, never()).findByPair(7L, 3L);
+    }
+
+    @Test
+    void backfill_runs_chunks_until_one_comes_back_short() {
+        when(messageRepository.backfillPairKeys(100)).thenReturn(100, 100, 37);
+
+        messageService.backfillPairKeys();
+
+        verify(messageRepository, times(3)).backfillPairKeys(100);
+    }
+
+    @Test
+    void backfill_stops_after_one_query_when_nothing_is_left() {
+        when(messageRepository.backfillPairKeys(100)).thenReturn(0);
+
+        messageService.backfillPairKeys();
+
+        verify(messageRepository, times(1)).backfillPairKeys(100);
+    }
+
+    // ------------------- FIXTURES -------------------
+
+    // Runs the @PrePersist callback the way Hibernate would on insert
+    private static Message message(Long senderId, Long receiverId) {
+        Message message = new Message();
+        message.setSender(user(senderId));
+        message.setReceiver(user(receiverId));
+        message.setContent("hello");
+        ReflectionTestUtils.invokeMethod(message, "onCreate");
+        return message;
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
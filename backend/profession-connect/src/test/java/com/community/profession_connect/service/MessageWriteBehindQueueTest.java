@@ -0,0 +1,327 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.dto.MessageAck;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Write-behind message persistence against a slow fake database: sends must not wait for
+ * the INSERT, failed batches are retried, and journaled messages are replayed exactly once.
+ */
+class MessageWriteBehindQueueTest {
+
+    private static final long DB_LATENCY_MS = 100;
+
+    @TempDir
+    Path tempDir;
+
+    private final FakeDatabase database = new FakeDatabase();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ConversationSummaryService conversationSummaryService;
+    private UnreadCounterService unreadCounterService;
+    private SimpMessagingTemplate messagingTemplate;
+    private MessageWriteBehindQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        conversationSummaryService = mock(ConversationSummaryService.class);
+        unreadCounterService = mock(UnreadCounterService.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        queue = new MessageWriteBehindQueue(
+                database.jdbcTemplate,
+                mock(PlatformTransactionManager.class),
+                conversationSummaryService,
+                unreadCounterService,
+                messagingTemplate,
+                objectMapper);
+        ReflectionTestUtils.setField(queue, "enabled", true);
+        ReflectionTestUtils.setField(queue, "flushIntervalMs", 10L);
+        ReflectionTestUtils.setField(queue, "batchSize", 200);
+        ReflectionTestUtils.setField(queue, "journalPath", tempDir.resolve("journal.log").toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.shutdown();
+    }
+
+    @Test
+    void send_latency_does_not_wait_for_database_writes() throws Exception {
+        queue.start();
+
+        int messages = 2000;
+        long[] offerNanos = new long[messages];
+        for (int i = 0; i < messages; i++) {
+            long start = System.nanoTime();
+            assertTrue(queue.offer(pending("m-" + i)));
+            offerNanos[i] = System.nanoTime() - start;
+        }
+        awaitPersisted(messages);
+
+        Arrays.sort(offerNanos);
+        long p99Micros = offerNanos[(int) (messages * 0.99)] / 1000;
+        // Delivery path stays well below a single DB round-trip
+        assertTrue(p99Micros < DB_LATENCY_MS * 1000 / 4, "p99 enqueue was " + p99Micros + " us");
+        assertEquals(messages, database.rows.size());
+        verify(conversationSummaryService, times(messages)).onMessageSent(any());
+        // PERSISTED ack to sender and receiver for every message
+        verify(messagingTemplate, times(messages)).convertAndSend(eq("/queue/messages/ack/1"), any(MessageAck.class));
+        verify(messagingTemplate, times(messages)).convertAndSend(eq("/queue/messages/ack/2"), any(MessageAck.class));
+    }
+
+    @Test
+    void failed_batches_are_retried_until_stored() throws Exception {
+        database.failuresRemaining.set(2);
+        queue.start();
+
+        for (int i = 0; i < 10; i++) {
+            queue.offer(pending("r-" + i));
+        }
+        awaitPersisted(10);
+
+        assertEquals(10, database.rows.size());
+        assertEquals(2L, queue.getStats().get("failedBatches"));
+        assertEquals(0L, queue.getStats().get("dropped"));
+        verify(messagingTemplate, never()).convertAndSend(anyString(),
+                argThat((Object ack) -> ack instanceof MessageAck && MessageWriteBehindQueue.FAILED.equals(((MessageAck) ack).getStatus())));
+    }
+
+    @Test
+    void journaled_messages_are_replayed_once_after_a_restart() throws Exception {
+        // Crash after "j-0" was stored but before the journal was truncated
+        Path journal = tempDir.resolve("journal.log");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            lines.add(objectMapper.writeValueAsString(pending("j-" + i)));
+        }
+        lines.add("{\"clientMessageId\":\"torn");
+        Files.write(journal, lines, StandardCharsets.UTF_8);
+        database.rows.put("j-0", 1L);
+        database.nextId.set(2);
+
+        queue.start();
+        awaitPersisted(3);
+
+        assertEquals(3, database.rows.size());
+        assertEquals(1L, queue.getStats().get("duplicates"));
+        // Summaries only count the two rows this run actually inserted
+        verify(conversationSummaryService, times(2)).onMessageSent(any());
+        verify(unreadCounterService).onMessagesChanged(2L, 2L);
+        verify(messagingTemplate, atLeastOnce()).convertAndSend(eq("/queue/messages/ack/1"),
+                eq(new MessageAck("j-0", 1L, MessageWriteBehindQueue.PERSISTED)));
+
+        long deadline = System.currentTimeMillis() + 2000;
+        while (Files.size(journal) > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, Files.size(journal));
+    }
+
+    @Test
+    void a_journal_longer_than_the_queue_is_replayed_without_blocking_start() throws Exception {
+        // The journal keeps stored messages until they are acked, so it can outgrow the queue
+        ReflectionTestUtils.setField(queue, "queueCapacity", 10);
+        ReflectionTestUtils.setField(queue, "batchSize", 10);
+        Path journal = tempDir.resolve("journal.log");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 35; i++) {
+            lines.add(objectMapper.writeValueAsString(pending("long-" + i)));
+        }
+        Files.write(journal, lines, StandardCharsets.UTF_8);
+
+        Thread starter = new Thread(() -> {
+            try {
+                queue.start();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        starter.start();
+        starter.join(5000);
+        assertFalse(starter.isAlive(), "start() blocked on the bounded queue");
+
+        // New sends still get the full queue while the replay drains
+        for (int i = 0; i < 10; i++) {
+            assertTrue(queue.offer(pending("new-" + i)));
+        }
+        awaitPersisted(45);
+        assertEquals(45, database.rows.size());
+    }
+
+    @Test
+    void a_row_with_bad_data_fails_alone_and_both_sides_hear_about_it() throws Exception {
+        queue.start();
+
+        queue.offer(pending("ok-1"));
+        queue.offer(new MessageWriteBehindQueue.PendingMessage(
+                "bad", 1L, FakeDatabase.DELETED_USER, "to a deleted user", LocalDateTime.of(2024, 1, 1, 12, 0)));
+        queue.offer(pending("ok-2"));
+        awaitPersisted(2);
+
+        assertEquals(2, database.rows.size());
+        assertEquals(1L, queue.getStats().get("dropped"));
+        MessageAck failed = new MessageAck("bad", null, MessageWriteBehindQueue.FAILED);
+        verify(messagingTemplate).convertAndSend("/queue/messages/ack/1", failed);
+        verify(messagingTemplate).convertAndSend("/queue/messages/ack/" + FakeDatabase.DELETED_USER, failed);
+        verify(messagingTemplate, never()).convertAndSend(anyString(),
+                argThat((Object ack) -> ack instanceof MessageAck && MessageWriteBehindQueue.PERSISTED.equals(((MessageAck) ack).getStatus())
+                        && ((MessageAck) ack).getMessageId() == null));
+    }
+
+    @Test
+    void acknowledged_journal_segments_are_removed_while_the_queue_is_busy() throws Exception {
+        // Flushes are driven by hand so the queue never drains
+        ReflectionTestUtils.setField(queue, "flushIntervalMs", 3_600_000L);
+        ReflectionTestUtils.setField(queue, "batchSize", 10);
+        ReflectionTestUtils.setField(queue, "journalSegmentBytes", 500L);
+        queue.start();
+
+        for (int i = 0; i < 50; i++) {
+            queue.offer(pending("s-" + i));
+        }
+        long bytesBefore = journalBytes(tempDir);
+        int segmentsBefore = (int) queue.getStats().get("journalSegments");
+
+        queue.flushOnce();
+        queue.flushOnce();
+
+        assertEquals(30, queue.getStats().get("queueDepth"));
+        assertTrue((int) queue.getStats().get("journalSegments") < segmentsBefore);
+        assertTrue(journalBytes(tempDir) < bytesBefore);
+
+        // A restart from what is left on disk replays the pending messages, not all fifty
+        Path restartDir = Files.createDirectory(tempDir.resolve("restart"));
+        try (var files = Files.list(tempDir)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().startsWith("journal.log")).toList()) {
+                Files.copy(file, restartDir.resolve(file.getFileName()));
+            }
+        }
+        MessageWriteBehindQueue restarted = new MessageWriteBehindQueue(database.jdbcTemplate,
+                mock(PlatformTransactionManager.class), conversationSummaryService, unreadCounterService,
+                messagingTemplate, objectMapper);
+        ReflectionTestUtils.setField(restarted, "enabled", true);
+        ReflectionTestUtils.setField(restarted, "flushIntervalMs", 3_600_000L);
+        ReflectionTestUtils.setField(restarted, "journalPath", restartDir.resolve("journal.log").toString());
+        restarted.start();
+        try {
+            int replayed = (int) restarted.getStats().get("queueDepth");
+            assertTrue(replayed >= 30 && replayed < 50, "replayed " + replayed);
+        } finally {
+            restarted.shutdown();
+        }
+    }
+
+    private static long journalBytes(Path dir) throws Exception {
+        try (var files = Files.list(dir)) {
+            long total = 0;
+            for (Path file : files.filter(f -> f.getFileName().toString().startsWith("journal.log")).toList()) {
+                total += Files.size(file);
+            }
+            return total;
+        }
+    }
+
+    private void awaitPersisted(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while ((long) queue.getStats().get("persisted") < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, queue.getStats().get("persisted"));
+    }
+
+    private static MessageWriteBehindQueue.PendingMessage pending(String clientMessageId) {
+        return new MessageWriteBehindQueue.PendingMessage(
+                clientMessageId, 1L, 2L, "hello " + clientMessageId, LocalDateTime.of(2024, 1, 1, 12, 0));
+    }
+
+    /** Stand-in for MySQL: unique client_message_id, a foreign key on users, fixed write latency. */
+    private static class FakeDatabase {
+        private static final long DELETED_USER = 99L;
+
+        private final Map<String, Long> rows = new ConcurrentHashMap<>();
+        private final AtomicLong nextId = new AtomicLong(1);
+        private final AtomicInteger failuresRemaining = new AtomicInteger();
+
+        private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class, invocation -> {
+            switch (invocation.getMethod().getName()) {
+                case "batchUpdate":
+                    return insert(invocation.getArgument(1));
+                case "queryForList":
+                    return selectIds(invocation.getRawArguments());
+                default:
+                    return null;
+            }
+        });
+
+        private int[] insert(List<Object[]> batch) throws InterruptedException {
+            Thread.sleep(DB_LATENCY_MS);
+            if (failuresRemaining.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new TransientDataAccessResourceException("Connection reset");
+            }
+            // Statement-level failure: nothing in the batch is stored
+            for (Object[] row : batch) {
+                if (row[1].equals(DELETED_USER)) {
+                    throw new DataIntegrityViolationException("Cannot add or update a child row: a foreign key constraint fails");
+                }
+            }
+            int[] counts = new int[batch.size()];
+            for (int i = 0; i < batch.size(); i++) {
+                String clientMessageId = (String) batch.get(i)[6];
+                counts[i] = rows.putIfAbsent(clientMessageId, nextId.get()) == null ? 1 : 0;
+                if (counts[i] == 1) {
+                    nextId.incrementAndGet();
+                }
+            }
+            return counts;
+        }
+
+        private List<Map<String, Object>> selectIds(Object[] rawArguments) {
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (Object clientMessageId : (Object[]) rawArguments[1]) {
+                Long id = rows.get((String) clientMessageId);
+                if (id != null) {
+                    Map<String, Object> row = new HashMap<>();
+                    row.put("id", id);
+                    row.put("client_message_id", clientMessageId);
+                    result.add(row);
+                }
+            }
+            return result;
+        }
+    }
+}
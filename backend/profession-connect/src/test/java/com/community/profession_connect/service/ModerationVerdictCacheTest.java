@@ -0,0 +1,100 @@
+package com.community.profession_connect.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reposts share a fingerprint, verdicts expire and stay within their entry and memory bounds,
+ * and a verdict patched up from defaults is never reused.
+ */
+class ModerationVerdictCacheTest {
+
+    private static final AiNoteService.Verdict SAFE = new AiNoteService.Verdict(false, "safe", "Looks fine");
+
+    private ModerationVerdictCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ModerationVerdictCache();
+    }
+
+    @Test
+    void fingerprint_ignores_case_and_whitespace_but_not_the_image() {
+        String fingerprint = ModerationVerdictCache.fingerprint("Exam moved to Friday!", false);
+
+        assertEquals(fingerprint, ModerationVerdictCache.fingerprint("  exam   MOVED\tto\nfriday! ", false));
+        assertNotEquals(fingerprint, ModerationVerdictCache.fingerprint("Exam moved to Friday!", true));
+        assertNotEquals(fingerprint, ModerationVerdictCache.fingerprint("Exam moved to Saturday!", false));
+        assertEquals(ModerationVerdictCache.fingerprint(null, true), ModerationVerdictCache.fingerprint("  ", true));
+    }
+
+    @Test
+    void verdicts_expire_after_the_ttl() throws InterruptedException {
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 1L);
+        cache.put("a", SAFE);
+        assertSame(SAFE, cache.get("a"));
+
+        Thread.sleep(1100);
+
+        assertNull(cache.get("a"));
+        assertEquals(1L, cache.getStats().get("expirations"));
+        assertEquals(0, cache.getStats().get("entries"));
+    }
+
+    @Test
+    void least_recently_used_verdicts_go_first_once_max_entries_is_reached() {
+        ReflectionTestUtils.setField(cache, "maxEntries", 2);
+        cache.put("a", SAFE);
+        cache.put("b", SAFE);
+        cache.get("a");
+        cache.put("c", SAFE);
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+        assertEquals(1L, cache.getStats().get("evictions"));
+    }
+
+    @Test
+    void memory_bound_evicts_until_the_cache_fits() {
+        // Each entry costs a few hundred bytes, so 1 KB holds two of these
+        ReflectionTestUtils.setField(cache, "maxMemoryKb", 1L);
+        for (int i = 0; i < 5; i++) {
+            cache.put(ModerationVerdictCache.fingerprint("post " + i, false), SAFE);
+        }
+
+        assertEquals(2, cache.getStats().get("entries"));
+        assertEquals(3L, cache.getStats().get("evictions"));
+        assertNotNull(cache.get(ModerationVerdictCache.fingerprint("post 4", false)));
+        assertNull(cache.get(ModerationVerdictCache.fingerprint("post 0", false)));
+        assertTrue((long) cache.getStats().get("approxMemoryKb") <= 1L);
+    }
+
+    @Test
+    void verdicts_filled_in_from_defaults_are_not_cached() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        AiNoteService.Verdict noCategory = AiNoteService.Verdict.fromJson(
+                objectMapper.readTree("{\"auto_delete\": false, \"note\": \"Looks fine\"}"));
+        AiNoteService.Verdict complete = AiNoteService.Verdict.fromJson(
+                objectMapper.readTree("{\"auto_delete\": false, \"category\": \"safe\", \"note\": \"\"}"));
+
+        assertEquals("safe", noCategory.category);
+        assertFalse(noCategory.complete);
+        cache.put("a", noCategory);
+        cache.put("b", complete);
+
+        assertNull(cache.get("a"));
+        assertSame(complete, cache.get("b"));
+        assertEquals(1L, cache.getStats().get("skippedIncomplete"));
+    }
+}
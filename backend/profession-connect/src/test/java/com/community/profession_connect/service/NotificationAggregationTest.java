@@ -0,0 +1,206 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.dto.NotificationDTO;
+import com.community.profession_connect.dto.UserSummary;
+import com.community.profession_connect.model.Notification;
+import com.community.profession_connect.model.NotificationType;
+import com.community.profession_connect.model.User;
+import com.community.profession_connect.repository.NotificationRepository;
+import com.community.profession_connect.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * LIKE and COMMENT events on one post fold into a single rolling notification per window,
+ * rendered as "Alice and 41 others liked your post"; reading it closes the group.
+ */
+class NotificationAggregationTest {
+
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserSummaryCache userSummaryCache = mock(UserSummaryCache.class);
+    private final UnreadCounterService unreadCounterService = mock(UnreadCounterService.class);
+    private final List<Object> published = new ArrayList<>();
+    private NotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        notificationService = new NotificationService(notificationRepository, userRepository, userSummaryCache, published::add,
+                unreadCounterService);
+        when(userSummaryCache.find(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return Optional.of(new UserSummary(id, "User " + id, "Engineer", null));
+        });
+    }
+
+    @Test
+    void likes_on_one_post_fold_into_one_row_per_window() {
+        // MySQL affected rows: 1 when the upsert inserted the group, 2 when it folded into it
+        Set<String> groups = new HashSet<>();
+        when(notificationRepository.upsertAggregate(any(), any(), any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenAnswer(invocation -> groups.add(invocation.getArgument(7)) ? 1 : 2);
+
+        for (long liker = 2; liker <= 43; liker++) {
+            notificationService.createLikeNotification(1L, liker, 500L);
+        }
+        notificationService.createCommentNotification(1L, 2L, 500L);
+
+        // No row per event: every like lands on the same group, the comment on its own
+        verify(notificationRepository, never()).save(any(Notification.class));
+        verify(notificationRepository, times(42)).upsertAggregate(eq("LIKE"), eq("liked your post"), any(), eq(500L),
+                eq(1L), anyLong(), anyString(), eq(likeGroupKey()), eq(5));
+        verify(notificationRepository).upsertAggregate(eq("COMMENT"), eq("commented on your post"), any(), eq(500L),
+                eq(1L), eq(2L), eq("2"), eq(likeGroupKey().replace("LIKE", "COMMENT")), anyInt());
+        // The badge grows by one per group, not per like
+        verify(unreadCounterService, times(2)).onNotificationsChanged(1L, 1);
+    }
+
+    @Test
+    void repeat_actors_are_counted_once_however_far_back_they_were() {
+        // In-memory notifications (open groups) and notification_actors
+        Map<String, Notification> open = new HashMap<>();
+        Set<String> folded = new HashSet<>();
+        when(notificationRepository.upsertAggregate(any(), any(), any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenAnswer(invocation -> {
+                    String groupKey = invocation.getArgument(7);
+                    Long actorId = invocation.getArgument(5);
+                    Notification row = open.get(groupKey);
+                    if (row == null) {
+                        row = aggregated(1, String.valueOf(actorId));
+                        row.setId((long) open.size() + 1);
+                        row.setGroupKey(groupKey);
+                        open.put(groupKey, row);
+                        return 1;
+                    }
+                    List<String> recent = new ArrayList<>(List.of(row.getRecentActorIds().split(",")));
+                    recent.remove(String.valueOf(actorId));
+                    recent.add(0, String.valueOf(actorId));
+                    row.setRecentActorIds(String.join(",", recent.subList(0, Math.min(5, recent.size()))));
+                    row.setActor(user(actorId));
+                    return 2;
+                });
+        when(notificationRepository.findOpenGroupId(eq(1L), anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(open.get(invocation.getArgument(1))).map(Notification::getId));
+        when(notificationRepository.addGroupActor(anyLong(), anyLong()))
+                .thenAnswer(invocation -> folded.add(invocation.getArgument(0) + ":" + invocation.getArgument(1)) ? 1 : 0);
+        when(notificationRepository.incrementActorCount(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            open.values().stream().filter(row -> row.getId().equals(id))
+                    .forEach(row -> row.setActorCount(row.getActorCount() + 1));
+            return 1;
+        });
+        when(notificationRepository.findOpenGroup(eq(1L), anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(open.get(invocation.getArgument(1))));
+
+        // Eight likers, then user 2 unlikes and likes again long after leaving the recent five
+        for (long liker = 2; liker <= 9; liker++) {
+            notificationService.createLikeNotification(1L, liker, 500L);
+        }
+        notificationService.createLikeNotification(1L, 2L, 500L);
+        notificationService.createLikeNotification(1L, 9L, 500L);
+
+        Notification row = open.get(likeGroupKey());
+        assertEquals(8, row.getActorCount());
+        assertEquals("9,2,8,7,6", row.getRecentActorIds());
+        assertEquals("and 7 others liked your post", convert(row).getMessage());
+        verify(notificationRepository, times(7)).incrementActorCount(row.getId());
+        verify(unreadCounterService, times(1)).onNotificationsChanged(1L, 1);
+    }
+
+    @Test
+    void aggregated_row_renders_count_and_recent_actors() {
+        Notification row = aggregated(42, "43,42,41");
+
+        NotificationDTO dto = convert(row);
+        assertEquals("and 41 others liked your post", dto.getMessage());
+        assertEquals(42, dto.getActorCount());
+        assertEquals("User 43", dto.getActor().getName());
+        assertEquals(List.of("User 43", "User 42", "User 41"),
+                dto.getRecentActors().stream().map(NotificationDTO.ActorDTO::getName).toList());
+
+        assertEquals("and 1 other liked your post", convert(aggregated(2, "43,42")).getMessage());
+        // Rows from before aggregation read as a single actor
+        Notification legacy = aggregated(1, null);
+        legacy.setActorCount(null);
+        assertEquals("liked your post", convert(legacy).getMessage());
+        assertTrue(convert(legacy).getRecentActors().isEmpty());
+    }
+
+    @Test
+    void reading_an_aggregate_closes_its_group() {
+        Notification row = aggregated(3, "4,3,2");
+        row.setGroupKey(likeGroupKey());
+        row.setUser(user(1L));
+        when(notificationRepository.findById(9L)).thenReturn(Optional.of(row));
+
+        notificationService.markAsRead(9L);
+
+        assertTrue(row.getIsRead());
+        assertNull(row.getGroupKey());
+        // One unread notification less, whatever the number of actors folded into it
+        assertEquals(1, published.size());
+        verify(unreadCounterService).onNotificationsChanged(1L, -1);
+    }
+
+    @Test
+    void aggregation_can_be_switched_off() {
+        ReflectionTestUtils.setField(notificationService, "aggregationEnabled", false);
+        when(userRepository.getReferenceById(anyLong())).thenAnswer(invocation -> user(invocation.getArgument(0)));
+
+        notificationService.createLikeNotification(1L, 2L, 500L);
+        notificationService.createLikeNotification(1L, 3L, 500L);
+
+        verify(notificationRepository, times(2)).save(any(Notification.class));
+        verify(notificationRepository, never()).upsertAggregate(any(), any(), any(), any(), any(), any(), any(), any(), anyInt());
+    }
+
+    private NotificationDTO convert(Notification notification) {
+        return ReflectionTestUtils.invokeMethod(notificationService, "convertToDTO", notification);
+    }
+
+    private static String likeGroupKey() {
+        return "LIKE:500:" + System.currentTimeMillis() / (1440 * 60_000L);
+    }
+
+    private static Notification aggregated(int actorCount, String recentActorIds) {
+        Notification notification = new Notification();
+        notification.setId(9L);
+        notification.setType(NotificationType.LIKE);
+        notification.setMessage("liked your post");
+        notification.setActor(user(43L));
+        notification.setActorCount(actorCount);
+        notification.setRecentActorIds(recentActorIds);
+        notification.setIsRead(false);
+        return notification;
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("User " + id);
+        return user;
+    }
+}
@@ -0,0 +1,142 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.model.NotificationOutboxEvent;
+import com.community.profession_connect.model.NotificationType;
+import com.community.profession_connect.repository.NotificationOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Likes and comments only record an outbox row; the dispatcher turns pending rows into
+ * notifications in batches, retries failures one by one and never repeats a processed event.
+ */
+class NotificationOutboxTest {
+
+    private final NotificationOutboxRepository outboxRepository = mock(NotificationOutboxRepository.class);
+    private final NotificationService notificationService = mock(NotificationService.class);
+    private final TreeMap<Long, NotificationOutboxEvent> table = new TreeMap<>();
+    private NotificationOutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        outboxService = new NotificationOutboxService(outboxRepository, notificationService, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(outboxService, "batchSize", 2);
+
+        // In-memory stand-in for notification_outbox
+        when(outboxRepository.lockPendingIds(anyInt())).thenAnswer(invocation -> table.values().stream()
+                .filter(event -> event.getProcessedAt() == null)
+                .map(NotificationOutboxEvent::getId)
+                .limit((int) invocation.getArgument(0))
+                .toList());
+        when(outboxRepository.lockPendingId(anyLong())).thenAnswer(invocation -> {
+            NotificationOutboxEvent event = table.get((Long) invocation.getArgument(0));
+            return event != null && event.getProcessedAt() == null ? Optional.of(event.getId()) : Optional.empty();
+        });
+        when(outboxRepository.findByIds(any())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(table::get).toList();
+        });
+        when(outboxRepository.findById(anyLong())).thenAnswer(invocation -> Optional.ofNullable(table.get((Long) invocation.getArgument(0))));
+        when(outboxRepository.markProcessed(any(), any())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            ids.forEach(id -> table.get(id).setProcessedAt(invocation.getArgument(1)));
+            return ids.size();
+        });
+    }
+
+    @Test
+    void recording_is_one_insert_and_repeated_keys_are_ignored() {
+        when(outboxRepository.insertIgnore(anyString(), anyString(), anyLong(), anyLong(), any(), any()))
+                .thenReturn(1)
+                .thenReturn(0);
+
+        outboxService.recordLike(1L, 2L, 500L);
+        outboxService.recordLike(1L, 2L, 500L);
+
+        verify(outboxRepository, times(2)).insertIgnore(eq("LIKE:500:2"), eq("LIKE"), eq(1L), eq(2L), eq(500L), any());
+        verify(notificationService, never()).createLikeNotification(anyLong(), anyLong(), anyLong());
+        assertEquals(1L, outboxService.getStats().get("recorded"));
+        assertEquals(1L, outboxService.getStats().get("duplicates"));
+    }
+
+    @Test
+    void pending_events_are_dispatched_in_batches_once() {
+        add(1L, NotificationType.LIKE, 1L, 2L, 500L);
+        add(2L, NotificationType.COMMENT, 1L, 3L, 500L);
+        add(3L, NotificationType.CONNECTION_REQUEST, 4L, 1L, null);
+
+        assertEquals(3, outboxService.dispatchPending());
+        // Nothing left: a second poll creates nothing new
+        assertEquals(0, outboxService.dispatchPending());
+
+        verify(notificationService).createLikeNotification(1L, 2L, 500L);
+        verify(notificationService).createCommentNotification(1L, 3L, 500L);
+        verify(notificationService).createConnectionRequestNotification(4L, 1L);
+        verify(outboxRepository).markProcessed(eq(List.of(1L, 2L)), any());
+        verify(outboxRepository).markProcessed(eq(List.of(3L)), any());
+        assertEquals(2L, outboxService.getStats().get("batches"));
+        assertEquals(3L, outboxService.getStats().get("dispatched"));
+    }
+
+    @Test
+    void a_failing_event_is_retried_alone_and_set_aside_after_max_attempts() {
+        ReflectionTestUtils.setField(outboxService, "maxAttempts", 2);
+        add(1L, NotificationType.LIKE, 1L, 2L, 500L);
+        add(2L, NotificationType.COMMENT, 1L, 3L, 501L);
+        doThrow(new IllegalStateException("actor was deleted"))
+                .when(notificationService).createCommentNotification(1L, 3L, 501L);
+
+        outboxService.dispatchPending();
+
+        // The good event still went through; the bad one waits for the next poll
+        assertNotNull(table.get(1L).getProcessedAt());
+        assertNull(table.get(2L).getProcessedAt());
+        assertEquals(1, table.get(2L).getAttempts());
+        assertEquals("actor was deleted", table.get(2L).getLastError());
+
+        outboxService.dispatchPending();
+
+        assertEquals(2, table.get(2L).getAttempts());
+        assertNotNull(table.get(2L).getProcessedAt());
+        // Once in the rolled-back batch, once on its own; the second poll leaves it alone
+        verify(notificationService, times(2)).createLikeNotification(1L, 2L, 500L);
+        assertEquals(1L, outboxService.getStats().get("deadLettered"));
+    }
+
+    @Test
+    void disabled_outbox_creates_notifications_right_away() {
+        ReflectionTestUtils.setField(outboxService, "enabled", false);
+
+        outboxService.recordComment(1L, 2L, 500L, 9L);
+
+        verify(notificationService).createCommentNotification(1L, 2L, 500L);
+        verify(outboxRepository, never()).insertIgnore(anyString(), anyString(), anyLong(), anyLong(), any(), any());
+    }
+
+    private void add(Long id, NotificationType type, Long userId, Long actorId, Long entityId) {
+        table.put(id, new NotificationOutboxEvent(id, type + ":" + id, type, userId, actorId, entityId,
+                LocalDateTime.now(), 0, null, null));
+    }
+}
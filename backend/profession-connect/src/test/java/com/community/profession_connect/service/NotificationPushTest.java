@@ -0,0 +1,302 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.dto.CursorPageResponse;
+import com.community.profession_connect.dto.NotificationDTO;
+import com.community.profession_connect.dto.UserSummary;
+import com.community.profession_connect.model.Notification;
+import com.community.profession_connect.model.NotificationType;
+import com.community.profession_connect.model.UnreadCounter;
+import com.community.profession_connect.model.User;
+import com.community.profession_connect.repository.MessageRepository;
+import com.community.profession_connect.repository.NotificationRepository;
+import com.community.profession_connect.repository.UnreadCounterRepository;
+import com.community.profession_connect.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Pageable;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Notifications are pushed to the recipient only once the creating transaction commits, and a
+ * reconnecting client can page through what it missed since the newest notification it has.
+ */
+class NotificationPushTest {
+
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserSummaryCache userSummaryCache = mock(UserSummaryCache.class);
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final UnreadCounterService unreadCounterService = mock(UnreadCounterService.class);
+
+    private AnnotationConfigApplicationContext context;
+    private NotificationService notificationService;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        context.register(TransactionEvents.class, NotificationService.class, NotificationPushService.class);
+        context.registerBean(NotificationRepository.class, () -> notificationRepository);
+        context.registerBean(UserRepository.class, () -> userRepository);
+        context.registerBean(UserSummaryCache.class, () -> userSummaryCache);
+        context.registerBean(SimpMessagingTemplate.class, () -> messagingTemplate);
+        context.registerBean(UnreadCounterService.class, () -> unreadCounterService);
+        context.registerBean(PlatformTransactionManager.class, NoOpTransactionManager::new);
+        context.refresh();
+
+        notificationService = context.getBean(NotificationService.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        when(userRepository.getReferenceById(anyLong())).thenAnswer(invocation -> user(invocation.getArgument(0)));
+        when(userSummaryCache.find(2L)).thenReturn(Optional.of(new UserSummary(2L, "Liker", "Engineer", "/img/2.png")));
+        when(notificationRepository.save(any(Notification.class))).thenAnswer(invocation -> {
+            Notification notification = invocation.getArgument(0);
+            notification.setId(77L);
+            return notification;
+        });
+        when(unreadCounterService.getNotificationCount(1L)).thenReturn(3L);
+        // The aggregated row as it reads back after the upsert
+        when(notificationRepository.findOpenGroup(eq(1L), any())).thenAnswer(invocation -> {
+            Notification notification = new Notification();
+            notification.setId(77L);
+            notification.setType(NotificationType.LIKE);
+            notification.setMessage("liked your post");
+            notification.setActor(user(2L));
+            notification.setRecentActorIds("2");
+            return Optional.of(notification);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        context.close();
+    }
+
+    @Test
+    void notification_and_count_are_pushed_only_after_commit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationService.createLikeNotification(1L, 2L, 500L);
+            // Nothing leaves the node while the row is still uncommitted
+            verifyNoInteractions(messagingTemplate);
+        });
+
+        verify(messagingTemplate).convertAndSend(eq("/queue/notifications/1"), (Object) argThat(
+                (Object payload) -> payload instanceof NotificationDTO dto
+                        && dto.getId() == 77L
+                        && dto.getType() == NotificationType.LIKE
+                        && "Liker".equals(dto.getRecentActors().get(0).getName())));
+        verify(messagingTemplate).convertAndSend("/queue/notifications/1/unread-count", (Object) Map.of("count", 3L));
+        assertEquals(1L, context.getBean(NotificationPushService.class).getStats().get("notificationsPushed"));
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void rolled_back_notification_is_never_pushed() {
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationService.createCommentNotification(1L, 2L, 500L);
+            status.setRollbackOnly();
+        });
+
+        verifyNoInteractions(messagingTemplate);
+    }
+
+    @Test
+    void catch_up_pages_forward_from_the_newest_notification_seen() {
+        List<Notification> stored = storedNotifications();
+        Notification lastSeen = stored.get(0);
+
+        CursorPageResponse<NotificationDTO> first = notificationService.getNotificationsSince(
+                1L, new KeysetCursor(lastSeen.getCreatedAt(), lastSeen.getId()), 2);
+        assertEquals(List.of(12L, 13L), first.getItems().stream().map(NotificationDTO::getId).toList());
+        assertTrue(first.isHasMore());
+
+        CursorPageResponse<NotificationDTO> second = notificationService.getNotificationsSince(
+                1L, KeysetCursor.decode(first.getNextCursor()), 2);
+        assertEquals(List.of(14L), second.getItems().stream().map(NotificationDTO::getId).toList());
+        assertFalse(second.isHasMore());
+
+        // Nothing new: the cursor stays where it was
+        CursorPageResponse<NotificationDTO> empty = notificationService.getNotificationsSince(
+                1L, KeysetCursor.decode(second.getNextCursor()), 2);
+        assertTrue(empty.getItems().isEmpty());
+        assertEquals(second.getNextCursor(), empty.getNextCursor());
+
+        assertEquals(4, notificationService.getNotificationsSince(1L, null, 10).getItems().size());
+    }
+
+    @Test
+    void catch_up_returns_an_aggregate_folded_after_the_cursor_even_though_its_id_is_older() {
+        List<Notification> stored = storedNotifications();
+        CursorPageResponse<NotificationDTO> caughtUp = notificationService.getNotificationsSince(1L, null, 10);
+        assertFalse(caughtUp.isHasMore());
+
+        // Another like folds into the open aggregate (id 11); the upsert moves its created_at forward
+        Notification aggregate = stored.get(0);
+        when(notificationRepository.upsertAggregate(any(), any(), any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenAnswer(invocation -> {
+                    aggregate.setCreatedAt(invocation.getArgument(2));
+                    return 2;
+                });
+        notificationService.createLikeNotification(1L, 2L, 500L);
+
+        CursorPageResponse<NotificationDTO> missed = notificationService.getNotificationsSince(
+                1L, KeysetCursor.decode(caughtUp.getNextCursor()), 10);
+        assertEquals(List.of(11L), missed.getItems().stream().map(NotificationDTO::getId).toList());
+    }
+
+    @Test
+    void first_push_to_a_user_without_a_counter_row_stores_the_row_in_its_own_transaction() {
+        // Real counter service: the push is this user's first read, so it inserts the counter row
+        UnreadCounterRepository unreadCounterRepository = mock(UnreadCounterRepository.class);
+        RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+        when(unreadCounterRepository.findById(1L))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new UnreadCounter(1L, 4, 0, null)));
+        when(unreadCounterRepository.initialize(1L)).thenAnswer(invocation -> {
+            transactionManager.log.add("initialize");
+            return 1;
+        });
+        NotificationPushService pushService = new NotificationPushService(messagingTemplate,
+                new UnreadCounterService(unreadCounterRepository, notificationRepository, mock(MessageRepository.class)),
+                transactionManager);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        pushService.onNotificationChanged(new NotificationPushEvent(1L, null));
+                    }
+                }));
+
+        // Joining the already committed transaction would leave the insert uncommitted
+        assertEquals(List.of("begin", "commit", "begin", "initialize", "commit"), transactionManager.log);
+        verify(messagingTemplate).convertAndSend("/queue/notifications/1/unread-count", (Object) Map.of("count", 4L));
+    }
+
+    // ------------------- FIXTURES -------------------
+
+    // Rows 11..14 a minute apart; the repository fake applies the same (createdAt, id) seek as the query
+    private List<Notification> storedNotifications() {
+        List<Notification> stored = new ArrayList<>();
+        for (long id = 11; id <= 14; id++) {
+            Notification notification = new Notification();
+            notification.setId(id);
+            notification.setType(id == 11 ? NotificationType.LIKE : NotificationType.COMMENT);
+            notification.setMessage(id == 11 ? "liked your post" : "commented on your post");
+            notification.setActor(user(2L));
+            notification.setCreatedAt(LocalDateTime.of(2024, 1, 1, 12, (int) id));
+            stored.add(notification);
+        }
+        Comparator<Notification> order = Comparator.comparing(Notification::getCreatedAt).thenComparing(Notification::getId);
+        when(notificationRepository.findChangedSinceHead(eq(1L), any(Pageable.class))).thenAnswer(invocation ->
+                stored.stream().sorted(order)
+                        .limit(invocation.<Pageable>getArgument(1).getPageSize())
+                        .toList());
+        when(notificationRepository.findChangedSince(eq(1L), any(LocalDateTime.class), anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            LocalDateTime createdAt = invocation.getArgument(1);
+            Long id = invocation.getArgument(2);
+            return stored.stream()
+                    .filter(n -> n.getCreatedAt().isAfter(createdAt) || (n.getCreatedAt().equals(createdAt) && n.getId() > id))
+                    .sorted(order)
+                    .limit(invocation.<Pageable>getArgument(3).getPageSize())
+                    .toList();
+        });
+        return stored;
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("User " + id);
+        return user;
+    }
+
+    // Registers the @TransactionalEventListener infrastructure
+    @Configuration
+    @EnableTransactionManagement
+    static class TransactionEvents {
+    }
+
+    /** Real transaction synchronization without a database behind it. */
+    static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        // Lets the @Transactional service join the test's transaction
+        @Override
+        protected boolean isExistingTransaction(Object transaction) {
+            return TransactionSynchronizationManager.isActualTransactionActive();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+
+        // The push reads the unread count in a transaction of its own
+        @Override
+        protected Object doSuspend(Object transaction) {
+            return transaction;
+        }
+
+        @Override
+        protected void doResume(Object transaction, Object suspendedResources) {
+        }
+    }
+
+    /** Logs where transactions begin and commit. */
+    static class RecordingTransactionManager extends NoOpTransactionManager {
+        private final List<String> log = new ArrayList<>();
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            log.add("begin");
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            log.add("commit");
+        }
+    }
+}
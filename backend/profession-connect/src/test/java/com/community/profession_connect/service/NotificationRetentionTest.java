@@ -0,0 +1,129 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Retention removes expired read notifications in bounded batches, archiving them first when
+ * configured, and reports rows purged and run duration.
+ */
+class NotificationRetentionTest {
+
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final TreeSet<Long> expiredRead = new TreeSet<>();
+    private final List<Long> archived = new ArrayList<>();
+    private NotificationRetentionService retention;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 1234; id++) {
+            expiredRead.add(id);
+        }
+        when(notificationRepository.lockExpiredReadIds(any(), anyInt())).thenAnswer(invocation -> {
+            int limit = invocation.getArgument(1);
+            return new ArrayList<>(expiredRead).subList(0, Math.min(limit, expiredRead.size()));
+        });
+        when(notificationRepository.archiveByIds(anyList(), any())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            archived.addAll(ids);
+            return ids.size();
+        });
+        when(notificationRepository.deleteByIds(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            ids.forEach(expiredRead::remove);
+            return ids.size();
+        });
+
+        retention = new NotificationRetentionService(notificationRepository, mock(PlatformTransactionManager.class));
+        ReflectionTestUtils.setField(retention, "batchPauseMs", 0L);
+    }
+
+    @Test
+    void expired_rows_are_archived_in_bounded_batches() {
+        assertEquals(1234, retention.runOnce());
+
+        assertTrue(expiredRead.isEmpty());
+        assertEquals(1234, archived.size());
+        // 500 + 500 + 234; no statement ever covers more than one batch
+        verify(notificationRepository, times(3)).deleteByIds(anyList());
+
+        Map<String, Object> lastRun = lastRun();
+        assertEquals(1234L, lastRun.get("purged"));
+        assertEquals(1234L, lastRun.get("archived"));
+        assertEquals(3, lastRun.get("batches"));
+        assertEquals(true, lastRun.get("complete"));
+        assertTrue((long) lastRun.get("durationMs") >= 0);
+        assertEquals(1234L, retention.getStats().get("totalPurged"));
+    }
+
+    @Test
+    void a_run_stops_at_the_batch_cap_and_the_next_run_continues() {
+        ReflectionTestUtils.setField(retention, "maxBatchesPerRun", 2);
+
+        assertEquals(1000, retention.runOnce());
+        assertEquals(false, lastRun().get("complete"));
+        assertEquals(234, expiredRead.size());
+
+        assertEquals(234, retention.runOnce());
+        assertTrue(expiredRead.isEmpty());
+        assertEquals(2L, retention.getStats().get("runs"));
+    }
+
+    @Test
+    void delete_mode_skips_the_archive() {
+        ReflectionTestUtils.setField(retention, "mode", NotificationRetentionService.MODE_DELETE);
+
+        retention.runOnce();
+
+        assertTrue(expiredRead.isEmpty());
+        verify(notificationRepository, never()).archiveByIds(anyList(), any());
+        assertEquals(0L, lastRun().get("archived"));
+    }
+
+    @Test
+    void a_failing_batch_keeps_earlier_batches_and_is_reported() {
+        AtomicInteger deletes = new AtomicInteger();
+        when(notificationRepository.deleteByIds(anyList())).thenAnswer(invocation -> {
+            if (deletes.incrementAndGet() == 2) {
+                throw new QueryTimeoutException("Lock wait timeout exceeded");
+            }
+            List<Long> ids = invocation.getArgument(0);
+            ids.forEach(expiredRead::remove);
+            return ids.size();
+        });
+
+        assertEquals(500, retention.runOnce());
+
+        assertEquals(734, expiredRead.size());
+        assertFalse((boolean) lastRun().get("complete"));
+        assertEquals("Lock wait timeout exceeded", lastRun().get("error"));
+        assertEquals(1L, retention.getStats().get("failedRuns"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> lastRun() {
+        return (Map<String, Object>) retention.getStats().get("lastRun");
+    }
+}
@@ -0,0 +1,84 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.dto.CursorPageResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The online-connections snapshot only reports the caller's network, pages by id, and is
+ * backed by a primitive set that must agree with a plain HashSet under churn.
+ */
+class OnlineConnectionsSnapshotTest {
+
+    private ConnectionGraphCache connectionGraphCache;
+    private OnlineUserService onlineUserService;
+
+    @BeforeEach
+    void setUp() {
+        connectionGraphCache = mock(ConnectionGraphCache.class);
+        onlineUserService = new OnlineUserService(new InMemoryPresenceStore(), event -> { }, connectionGraphCache, "node-a");
+    }
+
+    @Test
+    void snapshot_is_the_online_subset_of_the_network_in_pages() {
+        when(connectionGraphCache.getConnectionIds(1L)).thenReturn(LongStream.rangeClosed(2, 50).toArray());
+        // Everyone from 2 to 100 is online, only even connections of user 1 among them
+        for (long userId = 2; userId <= 100; userId++) {
+            if (userId > 50 || userId % 2 == 0) {
+                onlineUserService.sessionConnected(userId, "s-" + userId);
+            }
+        }
+
+        CursorPageResponse<Long> first = onlineUserService.getOnlineSnapshot(1L, null, null, 10);
+        assertEquals(List.of(2L, 4L, 6L, 8L, 10L, 12L, 14L, 16L, 18L, 20L), first.getItems());
+        assertTrue(first.isHasMore());
+
+        CursorPageResponse<Long> last = onlineUserService.getOnlineSnapshot(1L, null, first.getNextCursor(), 20);
+        assertEquals(15, last.getItems().size());
+        assertEquals(50L, last.getItems().get(14));
+        assertFalse(last.isHasMore());
+        assertNull(last.getNextCursor());
+
+        // An explicit id list replaces the network
+        assertEquals(List.of(4L, 51L, 99L),
+                onlineUserService.getOnlineSnapshot(1L, List.of(99L, 3L, 51L, 4L, 4L), null, null).getItems());
+        assertThrows(IllegalArgumentException.class, () -> onlineUserService.getOnlineSnapshot(1L, null, "abc", null));
+    }
+
+    @Test
+    void long_hash_set_matches_a_boxed_set_under_churn() {
+        LongHashSet primitive = new LongHashSet();
+        Set<Long> boxed = new HashSet<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 200_000; i++) {
+            long value = 1 + random.nextInt(5_000);
+            if (random.nextBoolean()) {
+                assertEquals(boxed.add(value), primitive.add(value));
+            } else {
+                assertEquals(boxed.remove(value), primitive.remove(value));
+            }
+        }
+
+        assertEquals(boxed.size(), primitive.size());
+        for (long value = 1; value <= 5_000; value++) {
+            assertEquals(boxed.contains(value), primitive.contains(value), "value " + value);
+        }
+        assertEquals(boxed.stream().mapToLong(Long::longValue).sorted().boxed().toList(),
+                LongStream.of(primitive.toSortedArray()).boxed().toList());
+    }
+}
@@ -0,0 +1,151 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.dto.PostResponse;
+import com.community.profession_connect.model.AiNote;
+import com.community.profession_connect.model.Comment;
+import com.community.profession_connect.model.Post;
+import com.community.profession_connect.model.User;
+import com.community.profession_connect.repository.AiNoteRepository;
+import com.community.profession_connect.repository.CommentRepository;
+import com.community.profession_connect.repository.PostLikeRepository;
+import com.community.profession_connect.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Guards the profession feed against regressing to per-post queries:
+ * the number of repository calls must stay the same whatever the page size.
+ */
+class PostFeedQueryCountTest {
+
+    private static final int FEED_SIZE = 500;
+    private static final long VIEWER_ID = 7L;
+
+    private PostRepository postRepository;
+    private PostLikeRepository postLikeRepository;
+    private CommentRepository commentRepository;
+    private AiNoteRepository aiNoteRepository;
+    private PostService postService;
+
+    @BeforeEach
+    void setUp() {
+        postRepository = mock(PostRepository.class);
+        postLikeRepository = mock(PostLikeRepository.class);
+        commentRepository = mock(CommentRepository.class);
+        aiNoteRepository = mock(AiNoteRepository.class);
+
+        postService = new PostService();
+        ReflectionTestUtils.setField(postService, "postRepository", postRepository);
+        ReflectionTestUtils.setField(postService, "postLikeRepository", postLikeRepository);
+        ReflectionTestUtils.setField(postService, "commentRepository", commentRepository);
+        ReflectionTestUtils.setField(postService, "postFeedAssembler",
+                new PostFeedAssembler(postLikeRepository, commentRepository, aiNoteRepository));
+
+        // The query count is about the database path, not the feed window
+        FeedCache feedCache = new FeedCache();
+        ReflectionTestUtils.setField(feedCache, "enabled", false);
+        ReflectionTestUtils.setField(postService, "feedCache", feedCache);
+    }
+
+    @Test
+    void profession_feed_uses_fixed_number_of_queries() {
+        User author = user(1L);
+        List<Post> posts = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+        List<AiNote> notes = new ArrayList<>();
+        for (long id = 1; id <= FEED_SIZE; id++) {
+            Post post = post(id, author);
+            posts.add(post);
+            comments.add(comment(id * 10, post, author));
+            notes.add(note(id * 10, post));
+        }
+
+        when(postRepository.findByProfessionAndDeletedFalseOrderByCreatedAtDesc("STUDENT")).thenReturn(posts);
+        when(postLikeRepository.findLikedPostIds(eq(VIEWER_ID), anyCollection())).thenReturn(List.of(1L, 3L));
+        when(commentRepository.findPreviewCommentIds(anyCollection(), anyInt())).thenReturn(List.of(10L));
+        when(commentRepository.findWithUserByIdIn(anyCollection())).thenReturn(comments);
+        when(aiNoteRepository.findByPostIdIn(anyCollection())).thenReturn(notes);
+
+        List<PostResponse> feed = postService.getPostsByProfession("STUDENT", VIEWER_ID);
+
+        assertEquals(FEED_SIZE, feed.size());
+        assertTrue(feed.get(0).isLikedByCurrentUser());
+        assertFalse(feed.get(1).isLikedByCurrentUser());
+        assertEquals(1, feed.get(1).getComments().size());
+        assertEquals(4, feed.get(1).getCommentsCount());
+        assertEquals(1, feed.get(1).getAiNotes().size());
+
+        // One set-based query per concern, regardless of FEED_SIZE
+        verify(postRepository, times(1)).findByProfessionAndDeletedFalseOrderByCreatedAtDesc("STUDENT");
+        verify(postLikeRepository, times(1)).findLikedPostIds(eq(VIEWER_ID), anyCollection());
+        verify(commentRepository, times(1)).findPreviewCommentIds(anyCollection(), anyInt());
+        verify(commentRepository, times(1)).findWithUserByIdIn(anyCollection());
+        verify(aiNoteRepository, times(1)).findByPostIdIn(anyCollection());
+
+        // ...and never the per-post lookups
+        verify(postLikeRepository, never()).findByPostIdAndUserId(anyLong(), anyLong());
+        verify(commentRepository, never()).findByPostIdOrderByCreatedAtDesc(anyLong());
+        verify(aiNoteRepository, never()).findByPostId(anyLong());
+
+        verifyNoMoreInteractions(postRepository, postLikeRepository, commentRepository, aiNoteRepository);
+    }
+
+    // ------------------- FIXTURES -------------------
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("User " + id);
+        user.setProfession("STUDENT");
+        return user;
+    }
+
+    private static Post post(Long id, User author) {
+        Post post = new Post();
+        post.setId(id);
+        post.setContent("Post " + id);
+        post.setUser(author);
+        post.setProfession("STUDENT");
+        post.setCreatedAt(LocalDateTime.now().minusMinutes(id));
+        post.setCommentsCount(4);
+        return post;
+    }
+
+    private static Comment comment(Long id, Post post, User author) {
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setContent("Comment " + id);
+        comment.setPost(post);
+        comment.setUser(author);
+        comment.setCreatedAt(LocalDateTime.now());
+        return comment;
+    }
+
+    private static AiNote note(Long id, Post post) {
+        AiNote note = new AiNote();
+        note.setId(id);
+        note.setPost(post);
+        note.setCategory("safe");
+        note.setNoteText("Looks fine");
+        return note;
+    }
+}
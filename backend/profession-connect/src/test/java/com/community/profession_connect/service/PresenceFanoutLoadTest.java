@@ -0,0 +1,137 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.model.Connection;
+import com.community.profession_connect.model.ConnectionStatus;
+import com.community.profession_connect.model.User;
+import com.community.profession_connect.repository.ConnectionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Counts STOMP messages per presence transition: the old /topic/online-status broadcast reaches
+ * every online user, the delta channel only online connections, once per window.
+ */
+class PresenceFanoutLoadTest {
+
+    private static final int USERS = 5000;
+    private static final int CONNECTIONS_PER_USER = 20;
+    private static final int STORM_USERS = 1000;
+
+    private final Map<Long, Set<Long>> graph = new HashMap<>();
+    private final AtomicLong sent = new AtomicLong();
+    private ConnectionRepository connectionRepository;
+    private PresenceStore presenceStore;
+    private OnlineUserService onlineUserService;
+    private PresenceFanoutService fanout;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        for (long userId = 1; userId <= USERS; userId++) {
+            graph.computeIfAbsent(userId, id -> new HashSet<>());
+            while (graph.get(userId).size() < CONNECTIONS_PER_USER / 2) {
+                long other = 1 + random.nextInt(USERS);
+                if (other != userId) {
+                    graph.get(userId).add(other);
+                    graph.computeIfAbsent(other, id -> new HashSet<>()).add(userId);
+                }
+            }
+        }
+
+        connectionRepository = mock(ConnectionRepository.class);
+        when(connectionRepository.findAcceptedConnectionsForUser(anyLong(), eq(ConnectionStatus.ACCEPTED)))
+                .thenAnswer(invocation -> connectionsOf(invocation.getArgument(0)));
+
+        SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        doAnswer(invocation -> sent.incrementAndGet()).when(messagingTemplate).convertAndSend(anyString(), any(Object.class));
+
+        ConnectionGraphCache connectionGraphCache = new ConnectionGraphCache(connectionRepository);
+        presenceStore = spy(new InMemoryPresenceStore());
+        onlineUserService = new OnlineUserService(presenceStore, event -> { }, connectionGraphCache, "node-a");
+        fanout = new PresenceFanoutService(connectionGraphCache, onlineUserService, messagingTemplate);
+    }
+
+    @Test
+    void reconnect_storm_reaches_connections_only_and_coalesces_flaps() {
+        // Everyone is online, then a storm: STORM_USERS drop and come back within one window
+        for (long userId = 1; userId <= USERS; userId++) {
+            onlineUserService.sessionConnected(userId, "s-" + userId);
+        }
+        for (long userId = 1; userId <= STORM_USERS; userId++) {
+            fanout.onPresenceChange(new PresenceChangeEvent(userId, false));
+            fanout.onPresenceChange(new PresenceChangeEvent(userId, true));
+        }
+        fanout.flush();
+        assertEquals(0, sent.get(), "users who ended where they started produce no traffic");
+
+        // Then STORM_USERS really go offline in one window
+        for (long userId = 1; userId <= STORM_USERS; userId++) {
+            onlineUserService.sessionDisconnected(userId, "s-" + userId);
+            fanout.onPresenceChange(new PresenceChangeEvent(userId, false));
+        }
+        fanout.flush();
+
+        long broadcastMessages = 0;
+        Set<Long> recipients = new HashSet<>();
+        for (long userId = 1; userId <= STORM_USERS; userId++) {
+            // Legacy: one /topic message per transition, delivered to every online client
+            broadcastMessages += USERS - userId;
+            for (Long connectionId : graph.get(userId)) {
+                if (connectionId > STORM_USERS) {
+                    recipients.add(connectionId);
+                }
+            }
+        }
+
+        // One message per online connection of any changed user, never per transition
+        assertEquals(recipients.size(), sent.get());
+        assertTrue(sent.get() < broadcastMessages / 100);
+        // The adjacency of each changed user is loaded once
+        verify(connectionRepository, times(STORM_USERS)).findAcceptedConnectionsForUser(anyLong(), eq(ConnectionStatus.ACCEPTED));
+        // ...and its online connections are found with one bulk lookup, not one per connection
+        verify(presenceStore, times(STORM_USERS)).filterOnline(any(long[].class));
+        verify(presenceStore, never()).isOnline(anyLong());
+    }
+
+    private List<Connection> connectionsOf(Long userId) {
+        List<Connection> connections = new ArrayList<>();
+        for (Long other : graph.getOrDefault(userId, Set.of())) {
+            Connection connection = new Connection();
+            connection.setRequester(user(userId));
+            connection.setReceiver(user(other));
+            connection.setStatus(ConnectionStatus.ACCEPTED);
+            connections.add(connection);
+        }
+        return connections;
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,97 @@
+package com.community.profession_connect.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Two backend nodes sharing one presence store (the in-memory store stands in for the shared
+ * table): tabs are counted per session across nodes, and a crashed node's sessions expire.
+ */
+class PresenceMultiNodeTest {
+
+    private static final long TTL_MS = 30_000;
+
+    private final List<String> events = new ArrayList<>();
+    private OnlineUserService nodeA;
+    private OnlineUserService nodeB;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryPresenceStore sharedStore = new InMemoryPresenceStore();
+        ApplicationEventPublisher publisher = event -> {
+            PresenceChangeEvent change = (PresenceChangeEvent) event;
+            events.add(change.getUserId() + (change.isOnline() ? ":ONLINE" : ":OFFLINE"));
+        };
+        nodeA = new OnlineUserService(sharedStore, publisher, mock(ConnectionGraphCache.class), "node-a");
+        nodeB = new OnlineUserService(sharedStore, publisher, mock(ConnectionGraphCache.class), "node-b");
+        ReflectionTestUtils.setField(nodeA, "sessionTtlMs", TTL_MS);
+        ReflectionTestUtils.setField(nodeB, "sessionTtlMs", TTL_MS);
+    }
+
+    @Test
+    void user_stays_online_until_the_last_tab_closes() {
+        nodeA.sessionConnected(1L, "a-1");
+        nodeB.sessionConnected(1L, "b-1");
+        nodeA.sessionConnected(1L, "a-2");
+
+        assertTrue(nodeB.isUserOnline(1L));
+        assertEquals(List.of("1:ONLINE"), events);
+
+        nodeA.sessionDisconnected(1L, "a-1");
+        nodeB.sessionDisconnected(1L, "b-1");
+        assertTrue(nodeA.isUserOnline(1L));
+        assertTrue(nodeB.isUserOnline(1L));
+
+        nodeA.sessionDisconnected(1L, "a-2");
+        assertFalse(nodeB.isUserOnline(1L));
+        assertEquals(List.of("1:ONLINE", "1:OFFLINE"), events);
+
+        // A duplicate disconnect for the same session is not a second transition
+        nodeA.sessionDisconnected(1L, "a-2");
+        assertEquals(2, events.size());
+    }
+
+    @Test
+    void sessions_of_a_crashed_node_expire_on_the_survivor() {
+        long start = 1_000_000L;
+        nodeA.sessionConnected(1L, "a-1");
+        nodeB.sessionConnected(1L, "b-1");
+        nodeB.sessionConnected(2L, "b-2");
+        nodeA.heartbeat(start);
+        nodeB.heartbeat(start);
+
+        // node-b dies: it never heartbeats or sends disconnects again
+        nodeA.heartbeat(start + TTL_MS / 2);
+        assertEquals(Set.of(1L, 2L), nodeA.getOnlineUsers());
+
+        events.clear();
+        nodeA.heartbeat(start + TTL_MS + 1);
+
+        // User 1 still has node-a's tab; user 2 only had node-b
+        assertEquals(Set.of(1L), nodeA.getOnlineUsers());
+        assertEquals(List.of("2:OFFLINE"), events);
+        assertEquals(1L, nodeA.getStats().get("expiredUsers"));
+    }
+
+    @Test
+    void a_live_node_never_expires_its_own_sessions() {
+        long now = 1_000_000L;
+        nodeA.sessionConnected(1L, "a-1");
+        for (int i = 1; i <= 10; i++) {
+            nodeA.heartbeat(now + i * TTL_MS / 3);
+        }
+        assertTrue(nodeA.isUserOnline(1L));
+        assertEquals(List.of("1:ONLINE"), events);
+    }
+}
@@ -0,0 +1,131 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.model.UnreadCounter;
+import com.community.profession_connect.repository.MessageRepository;
+import com.community.profession_connect.repository.NotificationRepository;
+import com.community.profession_connect.repository.UnreadCounterRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unread badges come from the maintained counter (cached) instead of COUNT(*), and the repair
+ * job puts drifted counters back to the real count.
+ */
+class UnreadCounterTest {
+
+    private final UnreadCounterRepository unreadCounterRepository = mock(UnreadCounterRepository.class);
+    private final NotificationRepository notificationRepository = mock(NotificationRepository.class);
+    private final MessageRepository messageRepository = mock(MessageRepository.class);
+    private UnreadCounterService unreadCounterService;
+
+    @BeforeEach
+    void setUp() {
+        unreadCounterService = new UnreadCounterService(unreadCounterRepository, notificationRepository, messageRepository);
+    }
+
+    @Test
+    void badge_reads_are_served_from_the_counter_cache() {
+        when(unreadCounterRepository.findById(1L)).thenReturn(Optional.of(new UnreadCounter(1L, 4, 7, null)));
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(4L, unreadCounterService.getNotificationCount(1L));
+            assertEquals(7L, unreadCounterService.getMessageCount(1L));
+        }
+
+        verify(unreadCounterRepository, times(1)).findById(1L);
+        verify(notificationRepository, never()).countUnreadByUserId(anyLong());
+        verify(messageRepository, never()).countUnreadMessages(anyLong());
+        assertEquals(199L, unreadCounterService.getStats().get("hits"));
+    }
+
+    @Test
+    void first_read_initializes_the_counter_once() {
+        when(unreadCounterRepository.findById(1L))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new UnreadCounter(1L, 2, 0, null)));
+
+        assertEquals(2L, unreadCounterService.getNotificationCount(1L));
+        assertEquals(2L, unreadCounterService.getNotificationCount(1L));
+
+        verify(unreadCounterRepository, times(1)).initialize(1L);
+        assertEquals(1L, unreadCounterService.getStats().get("initialized"));
+    }
+
+    @Test
+    void deltas_update_the_row_and_drop_the_cached_count() {
+        when(unreadCounterRepository.findById(1L))
+                .thenReturn(Optional.of(new UnreadCounter(1L, 4, 0, null)))
+                .thenReturn(Optional.of(new UnreadCounter(1L, 5, 0, null)));
+        assertEquals(4L, unreadCounterService.getNotificationCount(1L));
+
+        unreadCounterService.onNotificationsChanged(1L, 1);
+        unreadCounterService.onMessagesChanged(1L, 0);
+
+        verify(unreadCounterRepository).addNotifications(1L, 1);
+        verify(unreadCounterRepository, never()).addMessages(anyLong(), anyLong());
+        assertEquals(5L, unreadCounterService.getNotificationCount(1L));
+    }
+
+    @Test
+    void disabled_counters_fall_back_to_counting() {
+        ReflectionTestUtils.setField(unreadCounterService, "enabled", false);
+        when(notificationRepository.countUnreadByUserId(1L)).thenReturn(3L);
+        when(messageRepository.countUnreadMessages(1L)).thenReturn(9L);
+
+        assertEquals(3L, unreadCounterService.getNotificationCount(1L));
+        assertEquals(9L, unreadCounterService.getMessageCount(1L));
+        unreadCounterService.onNotificationsChanged(1L, 1);
+
+        verify(unreadCounterRepository, never()).findById(anyLong());
+        verify(unreadCounterRepository, never()).addNotifications(anyLong(), anyLong());
+    }
+
+    @Test
+    void repair_resets_only_drifted_counters() {
+        ReflectionTestUtils.setField(unreadCounterService, "repairBatchSize", 2);
+        when(unreadCounterRepository.checkBatch(0L, 2)).thenReturn(List.of(
+                check(1L, 3, 0, 3, 0),
+                check(2L, 5, 1, 4, 1)));
+        when(unreadCounterRepository.checkBatch(2L, 2)).thenReturn(List.of(
+                check(3L, 0, 0, 0, 2)));
+        when(unreadCounterRepository.repair(2L, 4, 1, 5, 1)).thenReturn(1);
+        // A delta landed on user 3 after the check: the compare-and-set skips it
+        when(unreadCounterRepository.repair(3L, 0, 2, 0, 0)).thenReturn(0);
+
+        assertEquals(1, unreadCounterService.repairAll());
+
+        verify(unreadCounterRepository, never()).repair(eq(1L), anyLong(), anyLong(), anyLong(), anyLong());
+        verify(unreadCounterRepository, never()).checkBatch(eq(3L), anyInt());
+        assertEquals(1L, unreadCounterService.getStats().get("repaired"));
+    }
+
+    private static UnreadCounterRepository.CounterCheckView check(long userId, long notifications, long messages,
+                                                                   long actualNotifications, long actualMessages) {
+        return new UnreadCounterRepository.CounterCheckView() {
+            @Override
+            public Long getUserId() { return userId; }
+            @Override
+            public Long getNotifications() { return notifications; }
+            @Override
+            public Long getMessages() { return messages; }
+            @Override
+            public Long getActualNotifications() { return actualNotifications; }
+            @Override
+            public Long getActualMessages() { return actualMessages; }
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.dto.MessageRequest;
+import com.community.profession_connect.dto.MessageResponse;
+import com.community.profession_connect.dto.UserSummary;
+import com.community.profession_connect.model.Message;
+import com.community.profession_connect.model.User;
+import com.community.profession_connect.repository.MessageRepository;
+import com.community.profession_connect.repository.NotificationRepository;
+import com.community.profession_connect.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Hot paths must not re-load whole User rows: names come from UserSummaryCache (one narrow
+ * query per user) and foreign keys from unloaded references.
+ */
+class UserLookupQueryCountTest {
+
+    private static final int SENDS = 200;
+
+    private UserRepository userRepository;
+    private MessageRepository messageRepository;
+    private NotificationRepository notificationRepository;
+    private UserSummaryCache userSummaryCache;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        messageRepository = mock(MessageRepository.class);
+        notificationRepository = mock(NotificationRepository.class);
+
+        when(userRepository.findSummaryById(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return id > 100 ? Optional.empty() : Optional.of(new UserSummary(id, "User " + id, "Engineer", null));
+        });
+        when(userRepository.getReferenceById(anyLong())).thenAnswer(invocation -> reference(invocation.getArgument(0)));
+        when(messageRepository.save(any(Message.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        userSummaryCache = new UserSummaryCache(userRepository);
+    }
+
+    @Test
+    void sending_messages_reads_each_user_once() {
+        MessageService messageService = new MessageService();
+        ReflectionTestUtils.setField(messageService, "messageRepository", messageRepository);
+        ReflectionTestUtils.setField(messageService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(messageService, "userSummaryCache", userSummaryCache);
+        ReflectionTestUtils.setField(messageService, "conversationSummaryService", mock(ConversationSummaryService.class));
+        ReflectionTestUtils.setField(messageService, "messageWriteBehindQueue", mock(MessageWriteBehindQueue.class));
+        ReflectionTestUtils.setField(messageService, "unreadCounterService", mock(UnreadCounterService.class));
+
+        MessageResponse last = null;
+        for (int i = 0; i < SENDS; i++) {
+            MessageRequest request = new MessageRequest();
+            request.setSenderId(i % 2 == 0 ? 1L : 2L);
+            request.setReceiverId(i % 2 == 0 ? 2L : 1L);
+            request.setContent("hello " + i);
+            last = messageService.sendMessage(request);
+        }
+
+        assertEquals("User 2", last.getSenderName());
+        assertEquals("User 1", last.getReceiverName());
+        verify(userRepository, times(2)).findSummaryById(anyLong());
+        verify(userRepository, never()).findById(any());
+        verify(messageRepository, times(SENDS)).save(any(Message.class));
+    }
+
+    @Test
+    void notifications_only_reference_their_users() {
+        NotificationService notificationService = new NotificationService(notificationRepository, userRepository, userSummaryCache, event -> { },
+                mock(UnreadCounterService.class));
+
+        notificationService.createLikeNotification(1L, 2L, 10L);
+        notificationService.createCommentNotification(1L, 2L, 10L);
+        notificationService.createConnectionRequestNotification(1L, 2L);
+        notificationService.createConnectionAcceptedNotification(1L, 2L);
+
+        verify(userRepository, never()).findById(any());
+        // Likes and comments are folded by a native upsert and take no references at all
+        verify(userRepository, times(4)).getReferenceById(anyLong());
+    }
+
+    @Test
+    void profile_changes_invalidate_the_cached_summary() {
+        assertEquals("User 1", userSummaryCache.get(1L).getName());
+        userSummaryCache.get(1L);
+        verify(userRepository, times(1)).findSummaryById(1L);
+
+        userSummaryCache.invalidate(1L);
+        userSummaryCache.get(1L);
+        verify(userRepository, times(2)).findSummaryById(1L);
+        assertEquals(1L, userSummaryCache.getStats().get("invalidations"));
+
+        RuntimeException missing = assertThrows(RuntimeException.class, () -> userSummaryCache.get(404L));
+        assertEquals("User not found", missing.getMessage());
+    }
+
+    private static User reference(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
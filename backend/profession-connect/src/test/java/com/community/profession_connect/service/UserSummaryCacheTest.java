@@ -0,0 +1,88 @@
+package com.community.profession_connect.service;
+
+import com.community.profession_connect.dto.UserSummary;
+import com.community.profession_connect.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A miss that read a user while their profile changed must not cache what it read; the next
+ * lookup goes back to the database and sees the new name.
+ */
+class UserSummaryCacheTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserSummaryCache cache = new UserSummaryCache(userRepository);
+
+    @Test
+    void a_load_that_raced_an_invalidation_is_not_stored() {
+        when(userRepository.findSummaryById(1L))
+                .thenAnswer(invocation -> {
+                    // The profile update commits while this load still holds the old row
+                    cache.invalidate(1L);
+                    return Optional.of(summary(1L, "Old name"));
+                })
+                .thenReturn(Optional.of(summary(1L, "New name")));
+
+        assertEquals("Old name", cache.get(1L).getName());
+        assertEquals("New name", cache.get(1L).getName());
+        assertEquals("New name", cache.get(1L).getName());
+
+        verify(userRepository, times(2)).findSummaryById(1L);
+        assertEquals(1L, cache.getStats().get("staleLoadsSkipped"));
+    }
+
+    @Test
+    void invalidating_another_user_does_not_block_the_load() {
+        when(userRepository.findSummaryById(1L)).thenAnswer(invocation -> {
+            cache.invalidate(2L);
+            return Optional.of(summary(1L, "Alice"));
+        });
+
+        cache.get(1L);
+        cache.get(1L);
+
+        verify(userRepository, times(1)).findSummaryById(1L);
+    }
+
+    @Test
+    void loads_after_an_invalidation_are_stored_again() {
+        cache.invalidate(1L);
+        when(userRepository.findSummaryById(1L)).thenReturn(Optional.of(summary(1L, "Alice")));
+
+        cache.get(1L);
+        cache.get(1L);
+
+        verify(userRepository, times(1)).findSummaryById(1L);
+    }
+
+    @Test
+    void trimmed_invalidations_still_keep_older_loads_out() {
+        ReflectionTestUtils.setField(cache, "maxEntries", 1);
+        when(userRepository.findSummaryById(1L))
+                .thenAnswer(invocation -> {
+                    // User 1's invalidation is pushed out of the bounded history by user 2's
+                    cache.invalidate(1L);
+                    cache.invalidate(2L);
+                    return Optional.of(summary(1L, "Old name"));
+                })
+                .thenReturn(Optional.of(summary(1L, "New name")));
+
+        cache.get(1L);
+
+        assertEquals("New name", cache.get(1L).getName());
+        assertEquals(1L, cache.getStats().get("staleLoadsSkipped"));
+    }
+
+    private static UserSummary summary(Long id, String name) {
+        return new UserSummary(id, name, "Engineer", null);
+    }
+}